@@ -0,0 +1,60 @@
+package com.thonbecker.foosball;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.StandardEnvironment;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The application and its database, for benchmarks of paths that write through JPA and JDBC.
+ * Postgres runs in a container, as in the integration tests, unless spring.datasource.url is
+ * set, e.g. through SPRING_DATASOURCE_URL, _USERNAME and _PASSWORD, which the forks inherit.
+ */
+public final class BenchmarkApplication implements AutoCloseable {
+
+    private final PostgreSQLContainer<?> postgres;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkApplication(PostgreSQLContainer<?> postgres, List<String> properties) {
+        this.postgres = postgres;
+        // As arguments, so they win over application.yml
+        this.context = new SpringApplicationBuilder(FoosballApplication.class)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    public static BenchmarkApplication start(String... properties) {
+        final var all = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.main.banner-mode=off",
+                "spring.docker.compose.enabled=false",
+                "logging.level.root=WARN",
+                "spring.jpa.hibernate.ddl-auto=none"));
+        PostgreSQLContainer<?> postgres = null;
+        if (!new StandardEnvironment().containsProperty("spring.datasource.url")) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            all.add("spring.datasource.url=" + postgres.getJdbcUrl());
+            all.add("spring.datasource.username=" + postgres.getUsername());
+            all.add("spring.datasource.password=" + postgres.getPassword());
+        }
+        all.add("spring.liquibase.user=${spring.datasource.username}");
+        all.add("spring.liquibase.password=${spring.datasource.password:}");
+        all.addAll(List.of(properties));
+        return new BenchmarkApplication(postgres, all);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.thonbecker.foosball.config;
+
+import com.thonbecker.foosball.BenchmarkApplication;
+import com.thonbecker.foosball.entity.Game;
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.entity.Tournament;
+import com.thonbecker.foosball.entity.TournamentRegistration;
+import com.thonbecker.foosball.model.CreateTournamentRequest;
+import com.thonbecker.foosball.model.TournamentRegistrationRequest;
+import com.thonbecker.foosball.service.FoosballService;
+import com.thonbecker.foosball.service.TournamentService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tournament registration and game recording, the two paths the second-level cache is meant to
+ * shorten, with the cache on and off. Needs Postgres; see BenchmarkApplication.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecondLevelCacheBenchmark {
+
+    private static final int PLAYERS = 32;
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private BenchmarkApplication application;
+    private FoosballService foosballService;
+    private TournamentService tournamentService;
+    private List<Player> players;
+    private Player organiser;
+    private Long tournamentId;
+    private int registered;
+    private int game;
+
+    @Setup
+    public void setUp() {
+        application = BenchmarkApplication.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cached,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + cached);
+        foosballService = application.bean(FoosballService.class);
+        tournamentService = application.bean(TournamentService.class);
+
+        players = new ArrayList<>(PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) {
+            players.add(player("Cache Bench Player " + i));
+        }
+        organiser = player("Cache Bench Organiser");
+        registered = PLAYERS;
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public TournamentRegistration registration() {
+        // Nobody registers twice, so each pool of players gets a tournament of its own
+        if (registered == PLAYERS) {
+            tournamentId = openTournament();
+            registered = 0;
+        }
+        final var player = players.get(registered++);
+        return tournamentService.registerForTournament(
+                tournamentId, new TournamentRegistrationRequest(player.getId(), null, null));
+    }
+
+    @Benchmark
+    public Game gameRecording() {
+        // Names resolved as the single-game endpoint resolves them
+        final var first = game++;
+        return foosballService.recordGame(
+                byName(first),
+                byName(first + 1),
+                byName(first + 2),
+                byName(first + 3),
+                10,
+                first % 10);
+    }
+
+    private Player byName(int index) {
+        return foosballService
+                .findPlayerByName(players.get(index % PLAYERS).getName())
+                .orElseThrow();
+    }
+
+    private Long openTournament() {
+        final var tournament = tournamentService.createTournament(
+                new CreateTournamentRequest(
+                        "Cache Bench Cup",
+                        null,
+                        Tournament.TournamentType.SINGLE_ELIMINATION,
+                        null,
+                        LocalDateTime.now().minusDays(1),
+                        LocalDateTime.now().plusDays(1),
+                        LocalDateTime.now().plusDays(2),
+                        null),
+                organiser.getId());
+        return tournamentService.openRegistration(tournament.getId()).getId();
+    }
+
+    private Player player(String name) {
+        // A database outside a container outlives the fork
+        return foosballService
+                .findPlayerByName(name)
+                .orElseGet(() -> foosballService.createPlayer(name));
+    }
+}
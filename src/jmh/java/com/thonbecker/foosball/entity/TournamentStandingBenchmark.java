@@ -0,0 +1,96 @@
+package com.thonbecker.foosball.entity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording one result on a standing, and sorting a table of standings with compareByPoints.
+ * The table is a round robin part-way through, so points often tie and the later tiebreaks
+ * (down to the team name) get exercised.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TournamentStandingBenchmark {
+
+    @Param({"16", "256", "4096"})
+    private int teams;
+
+    private List<TournamentStanding> shuffled;
+    private TournamentStanding standing;
+    private TournamentMatch match;
+
+    @Setup
+    public void setUp() {
+        final var tournament =
+                new Tournament("Benchmark League", Tournament.TournamentType.ROUND_ROBIN, null);
+        final var random = new Random(42);
+        shuffled = new ArrayList<>(teams);
+        for (int i = 0; i < teams; i++) {
+            final var registration =
+                    new TournamentRegistration(tournament, player(2L * i), player(2L * i + 1));
+            registration.setId((long) i);
+            final var standing = new TournamentStanding(tournament, registration);
+            for (int game = 0; game < 6; game++) {
+                final var goalsFor = random.nextInt(11);
+                final var goalsAgainst = random.nextInt(11);
+                if (goalsFor > goalsAgainst) {
+                    standing.recordWin(goalsFor, goalsAgainst);
+                } else if (goalsFor < goalsAgainst) {
+                    standing.recordLoss(goalsFor, goalsAgainst);
+                } else {
+                    standing.recordDraw(goalsFor, goalsAgainst);
+                }
+            }
+            shuffled.add(standing);
+        }
+        Collections.shuffle(shuffled, random);
+
+        // A decided match between the first two teams, as TournamentService hands it over
+        final var team1 = shuffled.get(0).getRegistration();
+        final var team2 = shuffled.get(1).getRegistration();
+        final var game = new Game(
+                team1.getPlayer(), team1.getPartner(), team2.getPlayer(), team2.getPartner());
+        game.setScores(10, 7);
+        match = new TournamentMatch(tournament, 1, 1, team1, team2);
+        match.complete(game);
+        standing = shuffled.get(0);
+    }
+
+    @Benchmark
+    public TournamentStanding recordMatch() {
+        standing.recordMatch(match);
+        return standing;
+    }
+
+    @Benchmark
+    public List<TournamentStanding> sortByPoints() {
+        final var standings = new ArrayList<>(shuffled);
+        standings.sort(TournamentStanding::compareByPoints);
+        return standings;
+    }
+
+    private static Player player(long id) {
+        final var player = new Player("Player " + id);
+        player.setId(id);
+        return player;
+    }
+}
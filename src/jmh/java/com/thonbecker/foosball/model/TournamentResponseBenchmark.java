@@ -0,0 +1,60 @@
+package com.thonbecker.foosball.model;
+
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.entity.Tournament;
+import com.thonbecker.foosball.entity.TournamentRegistration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a tournament to its API response, with and without the registration list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TournamentResponseBenchmark {
+
+    @Param({"8", "64", "512"})
+    private int registrations;
+
+    private Tournament tournament;
+
+    @Setup
+    public void setUp() {
+        tournament = new Tournament(
+                "Benchmark Cup", Tournament.TournamentType.SINGLE_ELIMINATION, new Player("Org"));
+        tournament.setId(1L);
+        tournament.setStatus(Tournament.TournamentStatus.REGISTRATION_OPEN);
+        for (int i = 0; i < registrations; i++) {
+            final var registration = new TournamentRegistration(
+                    tournament, new Player("Player " + 2 * i), new Player("Player " + (2 * i + 1)));
+            registration.setId((long) i);
+            tournament.getRegistrations().add(registration);
+        }
+    }
+
+    @Benchmark
+    public TournamentResponse fromEntity() {
+        return TournamentResponse.fromEntity(tournament);
+    }
+
+    @Benchmark
+    public TournamentResponse fromEntitySummary() {
+        return TournamentResponse.fromEntitySummary(tournament);
+    }
+}
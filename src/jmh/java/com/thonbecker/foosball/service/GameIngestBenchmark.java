@@ -0,0 +1,104 @@
+package com.thonbecker.foosball.service;
+
+import com.thonbecker.foosball.BenchmarkApplication;
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.model.BulkGameRequest;
+import com.thonbecker.foosball.model.BulkGameResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording the same games through the bulk endpoint's one transaction, and one game at a time
+ * through the single-game path, names resolved as each endpoint resolves them. Needs Postgres;
+ * see BenchmarkApplication.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameIngestBenchmark {
+
+    private static final int PLAYERS = 20;
+
+    @Param({"10", "100", "1000"})
+    private int games;
+
+    private BenchmarkApplication application;
+    private FoosballService foosballService;
+    private GameIngestService gameIngestService;
+    private List<BulkGameRequest> requests;
+
+    @Setup
+    public void setUp() {
+        application = BenchmarkApplication.start();
+        foosballService = application.bean(FoosballService.class);
+        gameIngestService = application.bean(GameIngestService.class);
+
+        final var names = new ArrayList<String>(PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) {
+            final var name = "Ingest Player " + i;
+            // A database outside a container outlives the fork
+            if (foosballService.findPlayerByName(name).isEmpty()) {
+                foosballService.createPlayer(name);
+            }
+            names.add(name);
+        }
+        requests = new ArrayList<>(games);
+        for (int i = 0; i < games; i++) {
+            requests.add(new BulkGameRequest(
+                    names.get(i % PLAYERS),
+                    names.get((i + 1) % PLAYERS),
+                    names.get((i + 2) % PLAYERS),
+                    names.get((i + 3) % PLAYERS),
+                    10,
+                    i % 10,
+                    null,
+                    null));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public BulkGameResponse bulk() {
+        return gameIngestService.recordGames(requests);
+    }
+
+    @Benchmark
+    public int oneByOne() {
+        for (var request : requests) {
+            foosballService.recordGame(
+                    player(request.whiteTeamPlayer1()),
+                    player(request.whiteTeamPlayer2()),
+                    player(request.blackTeamPlayer1()),
+                    player(request.blackTeamPlayer2()),
+                    request.whiteTeamScore(),
+                    request.blackTeamScore());
+        }
+        return requests.size();
+    }
+
+    private Player player(String name) {
+        return foosballService.findPlayerByName(name).orElseThrow();
+    }
+}
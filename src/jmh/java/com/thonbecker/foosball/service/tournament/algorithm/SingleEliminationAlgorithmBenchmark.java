@@ -0,0 +1,90 @@
+package com.thonbecker.foosball.service.tournament.algorithm;
+
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.entity.Tournament;
+import com.thonbecker.foosball.entity.TournamentMatch;
+import com.thonbecker.foosball.entity.TournamentRegistration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Bracket generation from 8 to 65,536 entrants, and the per-result work on a generated bracket.
+ * Construction is linear, so the time per bracket should grow in step with the entrant count
+ * (the tail of the range also feels the caches); advancing a winner should not grow at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingleEliminationAlgorithmBenchmark {
+
+    @Param({"8", "64", "512", "4096", "65536"})
+    private int entrants;
+
+    private final SingleEliminationAlgorithm algorithm = new SingleEliminationAlgorithm();
+    private Tournament tournament;
+    private List<TournamentRegistration> registrations;
+    private TournamentMatch completed;
+
+    @Setup
+    public void setUp() {
+        tournament = new Tournament(
+                "Benchmark Cup", Tournament.TournamentType.SINGLE_ELIMINATION, new Player("Org"));
+        tournament.setId(1L);
+        registrations = IntStream.range(0, entrants)
+                .mapToObj(i -> {
+                    final var player = new Player("Player " + i);
+                    player.setId((long) i);
+                    final var registration = new TournamentRegistration(tournament, player);
+                    registration.setId((long) i);
+                    return registration;
+                })
+                .toList();
+
+        // A bracket in play: every match of the first round decided for its first team
+        final var bracket = algorithm.generateBracket(tournament, registrations);
+        tournament.getMatches().addAll(bracket);
+        bracket.stream()
+                .filter(match -> match.getRoundNumber() == 1 && match.getTeam1() != null)
+                .forEach(match -> {
+                    match.setWinner(match.getTeam1());
+                    match.setStatus(TournamentMatch.MatchStatus.COMPLETED);
+                });
+        completed = bracket.get(0);
+    }
+
+    @Benchmark
+    public List<TournamentMatch> generateBracket() {
+        return algorithm.generateBracket(tournament, registrations);
+    }
+
+    @Benchmark
+    public List<TournamentMatch> advanceWinner() {
+        // Free the slot again, so every call fills it
+        final var next = completed.getNextMatch();
+        next.setTeam1(null);
+        next.setTeam2(null);
+        return algorithm.advanceWinner(completed);
+    }
+
+    @Benchmark
+    public boolean isTournamentComplete() {
+        return algorithm.isTournamentComplete(tournament);
+    }
+}
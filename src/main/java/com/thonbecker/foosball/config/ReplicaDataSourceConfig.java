@@ -0,0 +1,80 @@
+package com.thonbecker.foosball.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read replica, enabled by setting foosball.replica.url. Read-only transactions (stats, brackets,
+ * game pages) then use the replica pool whenever ReplicaLag says it has caught up; everything
+ * else, and all reads while it lags, use the primary pool configured under spring.datasource.
+ * Without the property the application uses Spring Boot's single pool as before.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("foosball.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties
+                .initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    @ConfigurationProperties("foosball.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${foosball.replica.url}") String url,
+            @Value("${foosball.replica.username:}") String username,
+            @Value("${foosball.replica.password:}") String password) {
+        final var replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(username.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaLag replicaLag(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${foosball.replica.max-lag-bytes:16777216}") long maxLagBytes,
+            MeterRegistry meterRegistry) {
+        final var lag =
+                new ReplicaLag(new JdbcTemplate(primary), new JdbcTemplate(replica), maxLagBytes);
+        meterRegistry.gauge("foosball.replica.lag.bytes", lag, ReplicaLag::lagBytes);
+        return lag;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaLag replicaLag,
+            MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, replicaLag, meterRegistry));
+    }
+}
@@ -0,0 +1,84 @@
+package com.thonbecker.foosball.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Tells whether read-only work may go to the replica: it must be reachable, no more than
+ * maxLagBytes of WAL behind the primary, and have replayed every write this node committed.
+ * Writes only raise a flag; the next check samples the primary's WAL position once for all of
+ * them, and until the replica has replayed up to it reads stay on the primary.
+ */
+@Slf4j
+public class ReplicaLag {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagBytes;
+
+    private volatile boolean written = true;
+    private volatile boolean caughtUp;
+    private volatile long requiredLsn;
+    private volatile long lagBytes = -1;
+
+    public ReplicaLag(JdbcTemplate primary, JdbcTemplate replica, long maxLagBytes) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagBytes = maxLagBytes;
+    }
+
+    public boolean isReplicaUsable() {
+        return caughtUp && !written;
+    }
+
+    // Bytes of WAL the replica is behind, or -1 if it could not be asked
+    public long lagBytes() {
+        return lagBytes;
+    }
+
+    public void markWritten() {
+        written = true;
+    }
+
+    @Scheduled(fixedDelayString = "${foosball.replica.lag-check:PT0.5S}")
+    public void check() {
+        // Writes committed from here on raise the flag again and wait for the next check
+        final var pendingWrite = written;
+        written = false;
+        try {
+            final var current =
+                    lsn(primary.queryForObject("SELECT pg_current_wal_lsn()::text", String.class));
+            if (pendingWrite) {
+                requiredLsn = current;
+            }
+            final var replayed = lsn(
+                    replica.queryForObject("SELECT pg_last_wal_replay_lsn()::text", String.class));
+            lagBytes = Math.max(0, current - replayed);
+            final var usable = replayed >= requiredLsn && lagBytes <= maxLagBytes;
+            if (usable != caughtUp) {
+                log.info("Replica {} (lag {} bytes)", usable ? "in use" : "bypassed", lagBytes);
+            }
+            caughtUp = usable;
+        } catch (DataAccessException | IllegalArgumentException e) {
+            if (caughtUp) {
+                log.warn("Replica unavailable, reading from the primary", e);
+            }
+            written = written || pendingWrite;
+            caughtUp = false;
+            lagBytes = -1;
+        }
+    }
+
+    // "16/B374D848" -> 0x16B374D848
+    static long lsn(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Not a standby");
+        }
+        final var slash = text.indexOf('/');
+        return (Long.parseLong(text.substring(0, slash), 16) << 32)
+                | Long.parseLong(text.substring(slash + 1), 16);
+    }
+}
@@ -0,0 +1,110 @@
+package com.thonbecker.foosball.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends connections for read-only transactions to the replica while ReplicaLag allows it, and
+ * everything else to the primary. Must sit behind a LazyConnectionDataSourceProxy so the choice
+ * is made at the first statement, once the transaction's read-only flag is known.
+ * A read-write transaction marks the replica as behind only when it commits having written, which
+ * Postgres tells by whether the transaction was given an id. A connection outside any transaction
+ * commits each statement as it goes, so it marks the replica when it is handed out.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final String WROTE = "SELECT pg_current_xact_id_if_assigned() IS NOT NULL";
+
+    private final ReplicaLag replicaLag;
+    private final Counter toPrimary;
+    private final Counter toReplica;
+
+    ReplicaRoutingDataSource(
+            DataSource primary,
+            DataSource replica,
+            ReplicaLag replicaLag,
+            MeterRegistry meterRegistry) {
+        this.replicaLag = replicaLag;
+        this.toPrimary = meterRegistry.counter("foosball.datasource.routed", "target", "primary");
+        this.toReplica = meterRegistry.counter("foosball.datasource.routed", "target", "replica");
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            toPrimary.increment();
+            return Target.PRIMARY;
+        }
+        if (replicaLag.isReplicaUsable()) {
+            toReplica.increment();
+            return Target.REPLICA;
+        }
+        toPrimary.increment();
+        return Target.PRIMARY;
+    }
+
+    private Connection track(Connection connection) {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return connection;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            replicaLag.markWritten();
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    final var commit = method.getName().equals("commit");
+                    final var wrote = commit && wrote(connection);
+                    try {
+                        final var result = method.invoke(connection, args);
+                        if (wrote) {
+                            replicaLag.markWritten();
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    // Checked just before the commit, after Hibernate has flushed
+    private static boolean wrote(Connection connection) {
+        try (var statement = connection.createStatement();
+                var result = statement.executeQuery(WROTE)) {
+            return !result.next() || result.getBoolean(1);
+        } catch (SQLException e) {
+            return true; // Cannot tell, so assume it did
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.thonbecker.foosball.config;
+
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.entity.Tournament;
+import com.thonbecker.foosball.entity.TournamentRegistration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hibernate's second-level cache for players, tournaments and registrations, plus the
+ * findByName query cache; regions and their sizes are configured in application.conf.
+ * Writes made through this node keep the cache correct by themselves. Writes made by other
+ * nodes are not seen, so InvalidationBus evicts through here whatever they report changing.
+ * Each region's hits, misses and puts are published as foosball.cache.* meters.
+ */
+@Component
+public class SecondLevelCache {
+
+    static final String PLAYER_BY_NAME = "player-by-name";
+    static final List<String> REGIONS =
+            List.of("players", "tournaments", "tournament-registrations", PLAYER_BY_NAME);
+
+    private final Cache cache;
+
+    @Autowired
+    public SecondLevelCache(
+            EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        final var sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.cache = sessionFactory.getCache();
+        final var statistics = sessionFactory.getStatistics();
+        for (var region : REGIONS) {
+            FunctionCounter.builder(
+                            "foosball.cache.gets",
+                            statistics,
+                            s -> count(s, region, CacheRegionStatistics::getHitCount))
+                    .tags("region", region, "result", "hit")
+                    .register(meterRegistry);
+            FunctionCounter.builder(
+                            "foosball.cache.gets",
+                            statistics,
+                            s -> count(s, region, CacheRegionStatistics::getMissCount))
+                    .tags("region", region, "result", "miss")
+                    .register(meterRegistry);
+            FunctionCounter.builder(
+                            "foosball.cache.puts",
+                            statistics,
+                            s -> count(s, region, CacheRegionStatistics::getPutCount))
+                    .tag("region", region)
+                    .register(meterRegistry);
+        }
+    }
+
+    // A tournament's registrations are not keyed by tournament, so all of them go
+    public void evictTournament(Long tournamentId) {
+        cache.evictEntityData(Tournament.class, tournamentId);
+        cache.evictEntityData(TournamentRegistration.class);
+    }
+
+    public void evictPlayers() {
+        cache.evictEntityData(Player.class);
+        cache.evictQueryRegion(PLAYER_BY_NAME);
+    }
+
+    // A name looked up before the player existed is cached as not found
+    public void evictPlayerQueries() {
+        cache.evictQueryRegion(PLAYER_BY_NAME);
+    }
+
+    public void evictAll() {
+        cache.evictAllRegions();
+    }
+
+    // Region statistics are null until the region is first used
+    private static long count(
+            Statistics statistics, String region, ToLongFunction<CacheRegionStatistics> count) {
+        final var regionStatistics = statistics.getCacheRegionStatistics(region);
+        return regionStatistics == null ? 0 : count.applyAsLong(regionStatistics);
+    }
+}
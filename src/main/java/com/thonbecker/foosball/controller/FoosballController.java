@@ -1,20 +1,41 @@
 package com.thonbecker.foosball.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.thonbecker.foosball.entity.Game;
 import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.model.BulkGameRequest;
+import com.thonbecker.foosball.model.BulkGameResponse;
 import com.thonbecker.foosball.model.CreatePlayerRequest;
+import com.thonbecker.foosball.model.GameCursor;
+import com.thonbecker.foosball.model.GamePage;
 import com.thonbecker.foosball.model.GameRequest;
+import com.thonbecker.foosball.model.PlayerRankResponse;
+import com.thonbecker.foosball.model.RatingReplayResponse;
+import com.thonbecker.foosball.model.RivalryResponse;
+import com.thonbecker.foosball.model.StatsOverviewResponse;
+import com.thonbecker.foosball.model.StatsRebuildResponse;
 import com.thonbecker.foosball.projection.GameWithPlayers;
 import com.thonbecker.foosball.projection.PlayerStats;
+import com.thonbecker.foosball.projection.PlayerSummary;
+import com.thonbecker.foosball.projection.RatingHistory;
 import com.thonbecker.foosball.projection.TeamStats;
 import com.thonbecker.foosball.service.FoosballService;
+import com.thonbecker.foosball.service.GameIngestService;
+import com.thonbecker.foosball.service.live.LiveFeed;
+import com.thonbecker.foosball.service.stats.HeadToHead;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.Map;
+import java.util.function.BiFunction;
 
 @RestController
 @RequestMapping("/api/foosball")
@@ -23,11 +44,23 @@ import java.util.Map;
         allowCredentials = "false")
 public class FoosballController {
 
+    private static final int MAX_GAMES_PAGE_SIZE = 500;
+
     private final FoosballService foosballService;
+    private final GameIngestService gameIngestService;
+    private final LiveFeed liveFeed;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public FoosballController(FoosballService foosballService) {
+    public FoosballController(
+            FoosballService foosballService,
+            GameIngestService gameIngestService,
+            LiveFeed liveFeed,
+            ObjectMapper objectMapper) {
         this.foosballService = foosballService;
+        this.gameIngestService = gameIngestService;
+        this.liveFeed = liveFeed;
+        this.objectMapper = objectMapper;
     }
 
     // Player endpoints
@@ -38,25 +71,35 @@ public class FoosballController {
     }
 
     @GetMapping("/players")
-    public ResponseEntity<List<Player>> getAllPlayers() {
+    public ResponseEntity<List<PlayerSummary>> getAllPlayers() {
         final var players = foosballService.getAllPlayers();
         return ResponseEntity.ok(players);
     }
 
     @GetMapping("/players/{id}")
-    public ResponseEntity<Player> getPlayerById(@PathVariable Long id) {
-        return foosballService.getAllPlayers().stream()
-                .filter(p -> p.getId().equals(id))
-                .findFirst()
+    public ResponseEntity<PlayerSummary> getPlayerById(@PathVariable Long id) {
+        return foosballService
+                .getPlayerById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Keyset pages of the player's games, newest first; same cursor format as /games
+    @GetMapping("/players/{id}/games")
+    public ResponseEntity<GamePage> getPlayerGames(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (!foosballService.playerExists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return gamePage(
+                cursor, limit, (after, size) -> foosballService.getPlayerGames(id, after, size));
+    }
+
     @GetMapping("/players/search")
-    public ResponseEntity<List<Player>> searchPlayers(@RequestParam String name) {
-        final var players = foosballService.getAllPlayers().stream()
-                .filter(p -> p.getName().toLowerCase().contains(name.toLowerCase()))
-                .toList();
+    public ResponseEntity<List<PlayerSummary>> searchPlayers(@RequestParam String name) {
+        final var players = foosballService.searchPlayers(name);
         return ResponseEntity.ok(players);
     }
 
@@ -89,10 +132,75 @@ public class FoosballController {
         return ResponseEntity.ok(game);
     }
 
+    @PostMapping("/games/bulk")
+    public ResponseEntity<BulkGameResponse> recordGames(
+            @RequestBody List<BulkGameRequest> requests) {
+        if (requests.isEmpty() || requests.size() > GameIngestService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        for (var request : requests) {
+            if (request.whiteTeamPlayer1() == null
+                    || request.whiteTeamPlayer2() == null
+                    || request.blackTeamPlayer1() == null
+                    || request.blackTeamPlayer2() == null
+                    || request.whiteTeamScore() < 0
+                    || request.blackTeamScore() < 0) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        final var result = gameIngestService.recordGames(requests);
+        if (!result.unknownPlayers().isEmpty()) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/games")
-    public ResponseEntity<List<Game>> getAllGames() {
-        final var games = foosballService.getAllGames();
-        return ResponseEntity.ok(games);
+    public ResponseEntity<GamePage> getGames(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return gamePage(cursor, limit, foosballService::getGames);
+    }
+
+    private static ResponseEntity<GamePage> gamePage(
+            String cursor, int limit, BiFunction<GameCursor, Integer, GamePage> loader) {
+        if (limit < 1 || limit > MAX_GAMES_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        GameCursor after = null;
+        if (cursor != null) {
+            final var decoded = GameCursor.decode(cursor);
+            if (decoded.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            after = decoded.get();
+        }
+        return ResponseEntity.ok(loader.apply(after, limit));
+    }
+
+    // Newline-delimited JSON, one game per line in play order, written as it is read
+    @GetMapping(value = "/games/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportGames() {
+        final StreamingResponseBody body = outputStream -> {
+            final var out = new BufferedOutputStream(outputStream);
+            foosballService.exportGames(game -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(game));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Server-sent events: each recorded game, then the ranked positions it changed
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter live() {
+        return liveFeed.subscribe();
     }
 
     @GetMapping("/games/{id}")
@@ -112,31 +220,118 @@ public class FoosballController {
     // Statistics endpoints
     @GetMapping("/stats/players/top-win-percentage")
     public ResponseEntity<List<PlayerStats>> getTopPlayersByWinPercentage(
-            @RequestParam(defaultValue = "5") int minGames) {
-        final var stats = foosballService.getTopPlayersByWinPercentage(minGames);
+            @RequestParam(defaultValue = "5") int minGames,
+            @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        final var stats = foosballService.getTopPlayersByWinPercentage(minGames, unbounded(limit));
         return ResponseEntity.ok(stats);
     }
 
     @GetMapping("/stats/players/top-total-games")
     public ResponseEntity<List<PlayerStats>> getTopPlayersByTotalGames(
-            @RequestParam(defaultValue = "5") int minGames) {
-        final var stats = foosballService.getTopPlayersByTotalGames(minGames);
+            @RequestParam(defaultValue = "5") int minGames,
+            @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        final var stats = foosballService.getTopPlayersByTotalGames(minGames, unbounded(limit));
         return ResponseEntity.ok(stats);
     }
 
     @GetMapping("/stats/players/top-wins")
     public ResponseEntity<List<PlayerStats>> getTopPlayersByWins(
-            @RequestParam(defaultValue = "5") int minGames) {
-        final var stats = foosballService.getTopPlayersByWins(minGames);
+            @RequestParam(defaultValue = "5") int minGames,
+            @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        final var stats = foosballService.getTopPlayersByWins(minGames, unbounded(limit));
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/stats/players/top-rating")
+    public ResponseEntity<List<PlayerStats>> getTopPlayersByRating(
+            @RequestParam(defaultValue = "5") int minGames,
+            @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        final var stats = foosballService.getTopPlayersByRating(minGames, unbounded(limit));
         return ResponseEntity.ok(stats);
     }
 
     @GetMapping("/stats/players/all")
     public ResponseEntity<List<PlayerStats>> getAllPlayerStats() {
-        final var stats = foosballService.getAllPlayerStatsOrderedByRankScore();
+        final var stats = foosballService.getAllPlayerStatsOrderedByRating();
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/stats/players/form")
+    public ResponseEntity<List<PlayerStats>> getPlayerFormStats(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "3") int minGames,
+            @RequestParam(required = false) Integer limit) {
+        // The window may not reach into games the cleanup is about to delete
+        if (days < 1 || days > foosballService.getRetentionDays()) {
+            return ResponseEntity.badRequest().build();
+        }
+        // Goes into the query's LIMIT, where a negative value is an error
+        if (limit != null && limit < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        final var stats = foosballService.getPlayerFormStats(days, minGames, unbounded(limit));
         return ResponseEntity.ok(stats);
     }
 
+    // No limit means every player
+    private static int unbounded(Integer limit) {
+        return limit == null ? Integer.MAX_VALUE : limit;
+    }
+
+    @GetMapping("/stats/players/{id}/rank")
+    public ResponseEntity<PlayerRankResponse> getPlayerRank(
+            @PathVariable Long id, @RequestParam(defaultValue = "2") int neighbours) {
+        if (neighbours < 0 || neighbours > 25) {
+            return ResponseEntity.badRequest().build();
+        }
+        return foosballService
+                .getPlayerRank(id, neighbours)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/stats/players/{id}/ratings")
+    public ResponseEntity<List<RatingHistory>> getRatingHistory(
+            @PathVariable Long id, @RequestParam(defaultValue = "50") int limit) {
+        final var history = foosballService.getRatingHistory(id, limit);
+        return ResponseEntity.ok(history);
+    }
+
+    @PostMapping("/stats/ratings/replay")
+    public ResponseEntity<RatingReplayResponse> replayRatings() {
+        final var result = foosballService.replayRatings();
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/stats/rivalry")
+    public ResponseEntity<RivalryResponse> getRivalry(
+            @RequestParam List<Long> side1, @RequestParam List<Long> side2) {
+        if (side1.size() != side2.size() || side1.isEmpty() || side1.size() > 2) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!validPlayerIds(side1) || !validPlayerIds(side2)) {
+            return ResponseEntity.badRequest().build();
+        }
+        final var rivalry = foosballService.getRivalry(side1, side2);
+        return ResponseEntity.ok(rivalry);
+    }
+
+    private static boolean validPlayerIds(List<Long> ids) {
+        return ids.stream().allMatch(id -> id != null && id >= 0 && id <= HeadToHead.MAX_PLAYER_ID);
+    }
+
     // Team performance statistics
     @GetMapping("/stats/teams/top-win-percentage")
     public ResponseEntity<List<TeamStats>> getTopTeamsByWinPercentage(
@@ -158,17 +353,21 @@ public class FoosballController {
         return ResponseEntity.ok(stats);
     }
 
+    // All-time totals from the archive whenever archiving is on; includeArchive=false opts out
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<StatsRebuildResponse> rebuildStatistics(
+            @RequestParam(required = false) Boolean includeArchive) {
+        final var result = includeArchive == null
+                ? foosballService.rebuildStatistics()
+                : foosballService.rebuildStatistics(includeArchive);
+        return ResponseEntity.ok(result);
+    }
+
     // Overview statistics
+    // Served from memory; the ETag lets clients skip unchanged snapshots with If-None-Match
     @GetMapping("/stats/overview")
-    public ResponseEntity<Map<String, Object>> getGameStatsOverview() {
-        Map<String, Object> stats = Map.ofEntries(
-                Map.entry("totalGames", foosballService.getTotalGames()),
-                Map.entry("totalPlayers", foosballService.getTotalPlayers()),
-                Map.entry("gamesWithWinner", foosballService.getGamesWithWinner()),
-                Map.entry("draws", foosballService.getDraws()),
-                Map.entry("averageTotalScore", foosballService.getAverageTotalScore()),
-                Map.entry("highestTotalScore", foosballService.getHighestTotalScore()),
-                Map.entry("lowestTotalScore", foosballService.getLowestTotalScore()));
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<StatsOverviewResponse> getGameStatsOverview() {
+        final var snapshot = foosballService.getStatsOverview();
+        return ResponseEntity.ok().eTag(snapshot.etag()).body(snapshot.overview());
     }
 }
@@ -1,6 +1,6 @@
 package com.thonbecker.foosball.entity;
 
-import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
@@ -31,25 +31,25 @@ public class Game {
     @NotNull(message = "White team player 1 is required")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "white_team_player1_id", nullable = false)
-    @JsonBackReference
+    @JsonIgnore
     private Player whiteTeamPlayer1;
 
     @NotNull(message = "White team player 2 is required")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "white_team_player2_id", nullable = false)
-    @JsonBackReference
+    @JsonIgnore
     private Player whiteTeamPlayer2;
 
     @NotNull(message = "Black team player 1 is required")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "black_team_player1_id", nullable = false)
-    @JsonBackReference
+    @JsonIgnore
     private Player blackTeamPlayer1;
 
     @NotNull(message = "Black team player 2 is required")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "black_team_player2_id", nullable = false)
-    @JsonBackReference
+    @JsonIgnore
     private Player blackTeamPlayer2;
 
     @Min(value = 0, message = "White team score cannot be negative")
@@ -87,6 +87,27 @@ public class Game {
         this.blackTeamPlayer2 = blackTeamPlayer2;
     }
 
+    // Serialized in place of the players; reading a lazy player's id does not load it
+    public Long getWhiteTeamPlayer1Id() {
+        return playerId(whiteTeamPlayer1);
+    }
+
+    public Long getWhiteTeamPlayer2Id() {
+        return playerId(whiteTeamPlayer2);
+    }
+
+    public Long getBlackTeamPlayer1Id() {
+        return playerId(blackTeamPlayer1);
+    }
+
+    public Long getBlackTeamPlayer2Id() {
+        return playerId(blackTeamPlayer2);
+    }
+
+    private static Long playerId(Player player) {
+        return player == null ? null : player.getId();
+    }
+
     // Business logic methods
     public void setScores(int whiteTeamScore, int blackTeamScore) {
         this.whiteTeamScore = whiteTeamScore;
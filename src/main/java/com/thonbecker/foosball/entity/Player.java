@@ -1,6 +1,6 @@
 package com.thonbecker.foosball.entity;
 
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -8,6 +8,8 @@ import jakarta.validation.constraints.NotBlank;
 
 import lombok.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -26,6 +28,8 @@ import java.util.List;
         })
 @EqualsAndHashCode(of = "id")
 @NoArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "players")
 @Entity
 @Table(name = "players", schema = "foosball")
 @EntityListeners(AuditingEntityListener.class)
@@ -47,21 +51,21 @@ public class Player {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
-    // Relationships
+    // Relationships; never serialized, a player's games can run into the thousands
     @OneToMany(mappedBy = "whiteTeamPlayer1", fetch = FetchType.LAZY)
-    @JsonManagedReference
+    @JsonIgnore
     private List<Game> whiteTeamPlayer1Games = new ArrayList<>();
 
     @OneToMany(mappedBy = "whiteTeamPlayer2", fetch = FetchType.LAZY)
-    @JsonManagedReference
+    @JsonIgnore
     private List<Game> whiteTeamPlayer2Games = new ArrayList<>();
 
     @OneToMany(mappedBy = "blackTeamPlayer1", fetch = FetchType.LAZY)
-    @JsonManagedReference
+    @JsonIgnore
     private List<Game> blackTeamPlayer1Games = new ArrayList<>();
 
     @OneToMany(mappedBy = "blackTeamPlayer2", fetch = FetchType.LAZY)
-    @JsonManagedReference
+    @JsonIgnore
     private List<Game> blackTeamPlayer2Games = new ArrayList<>();
 
     public Player(String name) {
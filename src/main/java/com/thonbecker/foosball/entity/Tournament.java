@@ -8,6 +8,8 @@ import jakarta.validation.constraints.NotNull;
 
 import lombok.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 import org.springframework.data.annotation.CreatedDate;
@@ -23,6 +25,8 @@ import java.util.List;
 @ToString(exclude = {"registrations", "matches", "standings"})
 @EqualsAndHashCode(of = "id")
 @NoArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tournaments")
 @Entity
 @Table(name = "tournaments", schema = "foosball")
 @EntityListeners(AuditingEntityListener.class)
@@ -69,6 +73,10 @@ public class Tournament {
     @JoinColumn(name = "created_by", nullable = false)
     private Player createdBy;
 
+    // Round robin only: matches not yet played, counted down as results come in
+    @Column(name = "matches_remaining")
+    private Integer matchesRemaining;
+
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "settings", columnDefinition = "jsonb")
     private TournamentSettings settings;
@@ -26,7 +26,7 @@ import java.time.LocalDateTime;
         uniqueConstraints = {
             @UniqueConstraint(
                     name = "uk_tournament_round_match",
-                    columnNames = {"tournament_id", "round_number", "match_number"})
+                    columnNames = {"tournament_id", "bracket_type", "round_number", "match_number"})
         })
 @EntityListeners(AuditingEntityListener.class)
 public class TournamentMatch {
@@ -7,6 +7,8 @@ import jakarta.validation.constraints.NotNull;
 
 import lombok.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -17,6 +19,8 @@ import java.time.LocalDateTime;
 @ToString(exclude = {"tournament", "player", "partner"})
 @EqualsAndHashCode(of = "id")
 @NoArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tournament-registrations")
 @Entity
 @Table(
         name = "tournament_registrations",
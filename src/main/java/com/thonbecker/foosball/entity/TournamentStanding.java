@@ -12,6 +12,9 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 @Getter
 @Setter
@@ -198,25 +201,57 @@ public class TournamentStanding {
     }
 
     // Comparison methods for sorting standings
-    public int compareByPoints(TournamentStanding other) {
-        // Primary: Points (descending)
-        int pointsComparison = other.points.compareTo(this.points);
-        if (pointsComparison != 0) return pointsComparison;
+    private static final Comparator<TournamentStanding> BY_POINTS = pointsOrder(
+            TournamentStanding::getPoints,
+            TournamentStanding::getGoalDifference,
+            TournamentStanding::getGoalsFor,
+            TournamentStanding::getGamesPlayed,
+            TournamentStanding::getDisplayName);
 
-        // Secondary: Goal difference (descending)
-        int goalDiffComparison = Integer.compare(other.goalDifference, this.goalDifference);
-        if (goalDiffComparison != 0) return goalDiffComparison;
+    public int compareByPoints(TournamentStanding other) {
+        // Straight off the fields; the name is only looked up when everything else is level
+        return BY_POINTS.compare(this, other);
+    }
 
-        // Tertiary: Goals for (descending)
-        int goalsForComparison = Integer.compare(other.goalsFor, this.goalsFor);
-        if (goalsForComparison != 0) return goalsForComparison;
+    public RankingKey rankingKey() {
+        return new RankingKey(points, goalDifference, goalsFor, gamesPlayed, getDisplayName());
+    }
 
-        // Quaternary: Games played (ascending - fewer games played is better if points are equal)
-        int gamesComparison = Integer.compare(this.gamesPlayed, other.gamesPlayed);
-        if (gamesComparison != 0) return gamesComparison;
+    /**
+     * What a standing is ranked on, so it can be ranked without holding on to the entity.
+     */
+    public record RankingKey(
+            BigDecimal points,
+            int goalDifference,
+            int goalsFor,
+            int gamesPlayed,
+            String displayName) {
+
+        public static final Comparator<RankingKey> ORDER = pointsOrder(
+                RankingKey::points,
+                RankingKey::goalDifference,
+                RankingKey::goalsFor,
+                RankingKey::gamesPlayed,
+                RankingKey::displayName);
+    }
 
-        // Final: Team name (alphabetical)
-        return this.registration.getDisplayName().compareTo(other.registration.getDisplayName());
+    // The compareByPoints order, over whatever holds the values
+    private static <T> Comparator<T> pointsOrder(
+            Function<T, BigDecimal> points,
+            ToIntFunction<T> goalDifference,
+            ToIntFunction<T> goalsFor,
+            ToIntFunction<T> gamesPlayed,
+            Function<T, String> displayName) {
+        // Primary: Points (descending)
+        return Comparator.comparing(points, Comparator.reverseOrder())
+                // Secondary: Goal difference (descending)
+                .thenComparing(Comparator.comparingInt(goalDifference).reversed())
+                // Tertiary: Goals for (descending)
+                .thenComparing(Comparator.comparingInt(goalsFor).reversed())
+                // Quaternary: Games played (ascending - fewer games played is better)
+                .thenComparingInt(gamesPlayed)
+                // Final: Team name (alphabetical)
+                .thenComparing(displayName);
     }
 
     public int compareByWins(TournamentStanding other) {
@@ -0,0 +1,44 @@
+package com.thonbecker.foosball.event;
+
+import com.thonbecker.foosball.entity.Game;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by FoosballService when a game has been recorded.
+ * Carries only ids and scores so listeners never touch lazy associations.
+ */
+public record GameRecordedEvent(
+        Long gameId,
+        Long whiteTeamPlayer1Id,
+        Long whiteTeamPlayer2Id,
+        Long blackTeamPlayer1Id,
+        Long blackTeamPlayer2Id,
+        int whiteTeamScore,
+        int blackTeamScore,
+        LocalDateTime playedAt) {
+
+    public static GameRecordedEvent of(Game game) {
+        return new GameRecordedEvent(
+                game.getId(),
+                game.getWhiteTeamPlayer1().getId(),
+                game.getWhiteTeamPlayer2().getId(),
+                game.getBlackTeamPlayer1().getId(),
+                game.getBlackTeamPlayer2().getId(),
+                game.getWhiteTeamScore(),
+                game.getBlackTeamScore(),
+                game.getPlayedAt());
+    }
+
+    public boolean isWhiteTeamWinner() {
+        return whiteTeamScore > blackTeamScore;
+    }
+
+    public boolean isBlackTeamWinner() {
+        return blackTeamScore > whiteTeamScore;
+    }
+
+    public boolean isDraw() {
+        return whiteTeamScore == blackTeamScore;
+    }
+}
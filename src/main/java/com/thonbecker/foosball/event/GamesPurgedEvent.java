@@ -0,0 +1,16 @@
+package com.thonbecker.foosball.event;
+
+import com.thonbecker.foosball.projection.ScoreTally;
+
+import java.util.List;
+
+/**
+ * Published by the retention cleanup with the score tallies of the games it deleted, so running
+ * totals can be adjusted instead of recounted.
+ */
+public record GamesPurgedEvent(List<ScoreTally> deleted) {
+
+    public long games() {
+        return deleted.stream().mapToLong(ScoreTally::getGames).sum();
+    }
+}
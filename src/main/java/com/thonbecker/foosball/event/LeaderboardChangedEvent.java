@@ -0,0 +1,11 @@
+package com.thonbecker.foosball.event;
+
+/**
+ * Published by PlayerLeaderboard once it has applied a recorded game, so views derived from the
+ * leaderboard can read positions that already include that game. Ranked positions outside
+ * fromRank to toRank (1-based, inclusive) hold the players they held at the previous
+ * event; toRank is
+ * Integer.MAX_VALUE when every position below fromRank may have moved, and fromRank is above
+ * toRank when none did.
+ */
+public record LeaderboardChangedEvent(Long gameId, int fromRank, int toRank) {}
@@ -0,0 +1,6 @@
+package com.thonbecker.foosball.event;
+
+/**
+ * Published by FoosballService when a new player has been created.
+ */
+public record PlayerCreatedEvent(Long playerId, String name) {}
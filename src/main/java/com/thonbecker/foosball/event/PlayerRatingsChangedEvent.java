@@ -0,0 +1,10 @@
+package com.thonbecker.foosball.event;
+
+import com.thonbecker.foosball.service.rating.RatingChange;
+
+import java.util.List;
+
+/**
+ * Published by RatingService after a recorded game has moved the four players' ratings.
+ */
+public record PlayerRatingsChangedEvent(Long gameId, List<RatingChange> changes) {}
@@ -0,0 +1,9 @@
+package com.thonbecker.foosball.event;
+
+import com.thonbecker.foosball.model.RatingReplayResponse;
+
+/**
+ * Published after every rating has been recomputed from the games table.
+ * In-memory views should reload rather than patch.
+ */
+public record RatingsReplayedEvent(RatingReplayResponse result) {}
@@ -0,0 +1,9 @@
+package com.thonbecker.foosball.event;
+
+import com.thonbecker.foosball.model.StatsRebuildResponse;
+
+/**
+ * Published after the stats aggregates have been recomputed from the games table.
+ * In-memory views should reload rather than patch.
+ */
+public record StatisticsRebuiltEvent(StatsRebuildResponse result) {}
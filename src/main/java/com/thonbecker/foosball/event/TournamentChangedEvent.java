@@ -0,0 +1,7 @@
+package com.thonbecker.foosball.event;
+
+/**
+ * Published by TournamentService after any write to a tournament, its registrations, matches or
+ * standings.
+ */
+public record TournamentChangedEvent(Long tournamentId) {}
@@ -0,0 +1,17 @@
+package com.thonbecker.foosball.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One game in a bulk upload. playedAt lets offline clients keep the time the game was played;
+ * it defaults to the time of the upload.
+ */
+public record BulkGameRequest(
+        String whiteTeamPlayer1,
+        String whiteTeamPlayer2,
+        String blackTeamPlayer1,
+        String blackTeamPlayer2,
+        int whiteTeamScore,
+        int blackTeamScore,
+        String notes,
+        LocalDateTime playedAt) {}
@@ -0,0 +1,5 @@
+package com.thonbecker.foosball.model;
+
+import java.util.List;
+
+public record BulkGameResponse(int recorded, List<Long> gameIds, List<String> unknownPlayers) {}
@@ -0,0 +1,43 @@
+package com.thonbecker.foosball.model;
+
+import com.thonbecker.foosball.entity.Game;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Position in the games list: the (played_at, id) of the last game on a page.
+ * Clients only see the encoded form and hand it back unchanged.
+ */
+public record GameCursor(LocalDateTime playedAt, long id) {
+
+    public static GameCursor of(Game game) {
+        return new GameCursor(game.getPlayedAt(), game.getId());
+    }
+
+    public String encode() {
+        final var raw = playedAt + "|" + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Optional<GameCursor> decode(String cursor) {
+        try {
+            final var raw =
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final var separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new GameCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.thonbecker.foosball.model;
+
+import com.thonbecker.foosball.entity.Game;
+
+import java.util.List;
+
+/**
+ * One page of games, newest first. nextCursor is null on the last page.
+ */
+public record GamePage(List<Game> games, String nextCursor) {}
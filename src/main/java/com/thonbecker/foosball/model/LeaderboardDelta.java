@@ -0,0 +1,12 @@
+package com.thonbecker.foosball.model;
+
+import java.util.List;
+
+/**
+ * Ranked leaderboard positions that changed with one game.
+ * from is null for a player who has just become ranked.
+ */
+public record LeaderboardDelta(Long gameId, List<PositionChange> changes) {
+
+    public record PositionChange(Long playerId, String name, Integer from, int to, Double rating) {}
+}
@@ -0,0 +1,22 @@
+package com.thonbecker.foosball.model;
+
+import com.thonbecker.foosball.projection.PlayerStats;
+
+import java.util.List;
+
+/**
+ * A player's position on the ranked (rating) leaderboard.
+ * rank and percentile are null until the player has played enough games to be ranked;
+ * percentile is the share of ranked players below this one.
+ */
+public record PlayerRankResponse(
+        Long playerId,
+        String name,
+        Double rating,
+        Long totalGames,
+        Integer rank,
+        int rankedPlayers,
+        Double percentile,
+        int gamesUntilRanked,
+        List<PlayerStats> above,
+        List<PlayerStats> below) {}
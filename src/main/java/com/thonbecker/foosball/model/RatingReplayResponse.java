@@ -0,0 +1,3 @@
+package com.thonbecker.foosball.model;
+
+public record RatingReplayResponse(int replayedGames, int ratedPlayers) {}
@@ -0,0 +1,16 @@
+package com.thonbecker.foosball.model;
+
+import java.util.List;
+
+/**
+ * Head-to-head record between two sides (single players or pairs), oriented as requested.
+ */
+public record RivalryResponse(
+        List<Long> side1,
+        List<Long> side2,
+        int games,
+        int side1Wins,
+        int side2Wins,
+        int draws,
+        int side1Goals,
+        int side2Goals) {}
@@ -0,0 +1,10 @@
+package com.thonbecker.foosball.model;
+
+public record StatsOverviewResponse(
+        long totalGames,
+        long totalPlayers,
+        long gamesWithWinner,
+        long draws,
+        Double averageTotalScore,
+        Integer highestTotalScore,
+        Integer lowestTotalScore) {}
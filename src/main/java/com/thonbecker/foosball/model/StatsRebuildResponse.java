@@ -0,0 +1,9 @@
+package com.thonbecker.foosball.model;
+
+public record StatsRebuildResponse(
+        int playerStatsRows, int teamStatsRows, int dailyStatsRows, long archivedGames) {
+
+    public StatsRebuildResponse(int playerStatsRows, int teamStatsRows, int dailyStatsRows) {
+        this(playerStatsRows, teamStatsRows, dailyStatsRows, 0);
+    }
+}
@@ -0,0 +1,15 @@
+package com.thonbecker.foosball.projection;
+
+import org.springframework.beans.factory.annotation.Value;
+
+public interface GameIdRange {
+
+    @Value("#{target.min_id}")
+    Long getMinId();
+
+    @Value("#{target.max_id}")
+    Long getMaxId();
+
+    @Value("#{target.games}")
+    Long getGames();
+}
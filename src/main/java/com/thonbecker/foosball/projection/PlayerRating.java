@@ -0,0 +1,15 @@
+package com.thonbecker.foosball.projection;
+
+import org.springframework.beans.factory.annotation.Value;
+
+public interface PlayerRating {
+
+    @Value("#{target.player_id}")
+    Long getPlayerId();
+
+    @Value("#{target.rating}")
+    Double getRating();
+
+    @Value("#{target.games_rated}")
+    Integer getGamesRated();
+}
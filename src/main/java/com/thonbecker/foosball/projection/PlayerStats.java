@@ -19,6 +19,9 @@ public interface PlayerStats {
     @Value("#{target.win_percentage}")
     Double getWinPercentage();
 
+    @Value("#{target.rating}")
+    Double getRating();
+
     default Long getLosses() {
         Long total = getTotalGames();
         Long wins = getWins();
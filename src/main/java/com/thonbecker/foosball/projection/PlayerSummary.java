@@ -0,0 +1,27 @@
+package com.thonbecker.foosball.projection;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat player read model: the scalar player columns plus the number of games played, with no
+ * path back to the lazy game collections on the entity.
+ */
+public interface PlayerSummary {
+
+    @Value("#{target.id}")
+    Long getId();
+
+    @Value("#{target.name}")
+    String getName();
+
+    @Value("#{target.email}")
+    String getEmail();
+
+    @Value("#{target.created_at}")
+    LocalDateTime getCreatedAt();
+
+    @Value("#{target.games_played}")
+    Long getGamesPlayed();
+}
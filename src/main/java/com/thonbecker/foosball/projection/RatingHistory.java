@@ -0,0 +1,26 @@
+package com.thonbecker.foosball.projection;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDateTime;
+
+public interface RatingHistory {
+
+    @Value("#{target.game_id}")
+    Long getGameId();
+
+    @Value("#{target.rating_before}")
+    Double getRatingBefore();
+
+    @Value("#{target.rating_after}")
+    Double getRatingAfter();
+
+    @Value("#{target.played_at}")
+    LocalDateTime getPlayedAt();
+
+    default Double getRatingChange() {
+        Double before = getRatingBefore();
+        Double after = getRatingAfter();
+        return before != null && after != null ? after - before : null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.thonbecker.foosball.projection;
+
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Number of games (and draws among them) that ended with a given total score.
+ */
+public interface ScoreTally {
+
+    @Value("#{target.total_score}")
+    Integer getTotalScore();
+
+    @Value("#{target.games}")
+    Long getGames();
+
+    @Value("#{target.draws}")
+    Long getDraws();
+}
@@ -2,12 +2,16 @@ package com.thonbecker.foosball.repository;
 
 import com.thonbecker.foosball.entity.Game;
 import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.projection.GameIdRange;
 import com.thonbecker.foosball.projection.GameWithPlayers;
+import com.thonbecker.foosball.projection.ScoreTally;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
 
-import org.springframework.data.jpa.repository.Modifying;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
@@ -16,15 +20,39 @@ import org.springframework.lang.NonNull;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RepositoryRestResource(path = "games", collectionResourceRel = "games", itemResourceRel = "game")
 public interface GameRepository extends CrudRepository<Game, Long> {
 
+    // Through player_games: one index range scan instead of a scan of games for four columns
     @RestResource(path = "by-player", rel = "by-player")
     @Query(
-            "SELECT g FROM Game g WHERE g.whiteTeamPlayer1 = :player OR g.whiteTeamPlayer2 = :player OR g.blackTeamPlayer1 = :player OR g.blackTeamPlayer2 = :player ORDER BY g.playedAt DESC")
+            value =
+                    "SELECT g.* FROM (SELECT DISTINCT played_at, game_id FROM foosball.player_games WHERE player_id = :#{#player?.id}) pg JOIN foosball.games g ON g.id = pg.game_id AND g.played_at = pg.played_at ORDER BY g.played_at DESC, g.id DESC",
+            nativeQuery = true)
     List<Game> findByPlayer(@Param("player") Player player);
 
+    // Keyset pages of one player's games, newest first; DISTINCT folds a player sitting in two
+    // seats
+    @RestResource(exported = false)
+    @Query(
+            value =
+                    "SELECT g.* FROM (SELECT DISTINCT played_at, game_id FROM foosball.player_games WHERE player_id = :playerId ORDER BY played_at DESC, game_id DESC LIMIT :limit) pg JOIN foosball.games g ON g.id = pg.game_id AND g.played_at = pg.played_at ORDER BY g.played_at DESC, g.id DESC",
+            nativeQuery = true)
+    List<Game> findPlayerFirstPage(@Param("playerId") long playerId, @Param("limit") int limit);
+
+    @RestResource(exported = false)
+    @Query(
+            value =
+                    "SELECT g.* FROM (SELECT DISTINCT played_at, game_id FROM foosball.player_games WHERE player_id = :playerId AND (played_at, game_id) < (:playedAt, :id) ORDER BY played_at DESC, game_id DESC LIMIT :limit) pg JOIN foosball.games g ON g.id = pg.game_id AND g.played_at = pg.played_at ORDER BY g.played_at DESC, g.id DESC",
+            nativeQuery = true)
+    List<Game> findPlayerPageAfter(
+            @Param("playerId") long playerId,
+            @Param("playedAt") LocalDateTime playedAt,
+            @Param("id") long id,
+            @Param("limit") int limit);
+
     @RestResource(path = "by-winner", rel = "by-winner")
     List<Game> findByWinner(Game.TeamColor winner);
 
@@ -52,6 +80,32 @@ public interface GameRepository extends CrudRepository<Game, Long> {
             "SELECT g FROM Game g WHERE g.whiteTeamScore + g.blackTeamScore >= :minTotalScore ORDER BY (g.whiteTeamScore + g.blackTeamScore) DESC")
     List<Game> findHighScoringGames(@Param("minTotalScore") Integer minTotalScore);
 
+    // Keyset pages, newest first; (played_at, id) is unique and matches idx_games_played_at_id
+    @RestResource(exported = false)
+    @Query(
+            value = "SELECT * FROM foosball.games ORDER BY played_at DESC, id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<Game> findFirstPage(@Param("limit") int limit);
+
+    @RestResource(exported = false)
+    @Query(
+            value =
+                    "SELECT * FROM foosball.games WHERE (played_at, id) < (:playedAt, :id) ORDER BY played_at DESC, id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<Game> findPageAfter(
+            @Param("playedAt") LocalDateTime playedAt,
+            @Param("id") long id,
+            @Param("limit") int limit);
+
+    // Forward-only, fetched in chunks; must be consumed inside a transaction
+    @RestResource(exported = false)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT g FROM Game g ORDER BY g.playedAt, g.id")
+    Stream<Game> streamAllInPlayOrder();
+
     // Statistics queries
     @Query("SELECT COUNT(g) FROM Game g WHERE g.winner IS NOT NULL")
     Long countGamesWithWinner();
@@ -68,6 +122,15 @@ public interface GameRepository extends CrudRepository<Game, Long> {
     @Query("SELECT MIN(g.whiteTeamScore + g.blackTeamScore) FROM Game g")
     Integer getLowestTotalScore();
 
+    // Games are recorded through FoosballService, which keeps the aggregates and ratings in step
+    @Override
+    @RestResource(exported = false)
+    <S extends Game> S save(@NonNull S entity);
+
+    @Override
+    @RestResource(exported = false)
+    <S extends Game> Iterable<S> saveAll(@NonNull Iterable<S> entities);
+
     @Override
     @RestResource(exported = false)
     void deleteById(@NonNull Long id);
@@ -84,8 +147,40 @@ public interface GameRepository extends CrudRepository<Game, Long> {
     @RestResource(exported = false)
     void deleteAll();
 
-    @Modifying
+    // The newest game a load has seen; read after the load, so every game it counted is at or
+    // below it
+    @RestResource(exported = false)
+    @Query("SELECT COALESCE(MAX(g.id), 0) FROM Game g")
+    long findLastGameId();
+
+    // Games per total score, the whole overview in one pass over games
+    @RestResource(exported = false)
+    @Query(
+            value =
+                    "SELECT white_team_score + black_team_score AS total_score, COUNT(*) AS games, COUNT(*) FILTER (WHERE winner IS NULL) AS draws FROM foosball.games GROUP BY 1",
+            nativeQuery = true)
+    List<ScoreTally> countGamesByTotalScore();
+
+    // Retention: the id span of the expired games, walked in chunks by the cleanup
+    @RestResource(exported = false)
+    @Query(
+            value =
+                    "SELECT MIN(id) AS min_id, MAX(id) AS max_id, COUNT(*) AS games FROM foosball.games WHERE played_at < :cutoff",
+            nativeQuery = true)
+    GameIdRange findIdRangeOlderThan(@Param("cutoff") LocalDateTime cutoff);
+
+    // Deletes one id range with its player_games rows and reports what was deleted, in one
+    // statement
+    @RestResource(exported = false)
     @Transactional
-    @Query("DELETE FROM Game g WHERE g.playedAt < :ninetyDaysAgo")
-    int deleteGamesOlderThan(@Param("ninetyDaysAgo") LocalDateTime ninetyDaysAgo);
+    @Query(
+            value =
+                    "WITH deleted AS (DELETE FROM foosball.games WHERE id >= :fromId AND id < :toId AND played_at < :cutoff RETURNING id, played_at, white_team_player1_id, white_team_player2_id, black_team_player1_id, black_team_player2_id, white_team_score + black_team_score AS total_score, winner), "
+                            + "seats AS (DELETE FROM foosball.player_games pg USING deleted d WHERE pg.player_id IN (d.white_team_player1_id, d.white_team_player2_id, d.black_team_player1_id, d.black_team_player2_id) AND pg.played_at = d.played_at AND pg.game_id = d.id) "
+                            + "SELECT total_score, COUNT(*) AS games, COUNT(*) FILTER (WHERE winner IS NULL) AS draws FROM deleted GROUP BY total_score",
+            nativeQuery = true)
+    List<ScoreTally> deleteGamesOlderThan(
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("fromId") long fromId,
+            @Param("toId") long toId);
 }
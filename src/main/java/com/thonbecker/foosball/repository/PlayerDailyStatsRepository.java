@@ -0,0 +1,112 @@
+package com.thonbecker.foosball.repository;
+
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.projection.PlayerStats;
+
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PlayerDailyStatsRepository extends Repository<Player, Long> {
+
+    // Sums at most one bucket per player per day in the window
+    @Query(
+            value = "SELECT p.id, p.name, w.total_games, w.wins, "
+                    + "w.wins * 100.0 / w.total_games AS win_percentage, r.rating "
+                    + "FROM ("
+                    + "SELECT d.player_id, SUM(d.games) AS total_games, SUM(d.wins) AS wins "
+                    + "FROM foosball.player_daily_stats d WHERE d.day >= :fromDay "
+                    + "GROUP BY d.player_id HAVING SUM(d.games) >= GREATEST(:minGames, 1)"
+                    + ") w "
+                    + "JOIN foosball.players p ON p.id = w.player_id "
+                    + "LEFT JOIN foosball.player_ratings r ON r.player_id = w.player_id "
+                    + "ORDER BY win_percentage DESC, w.total_games DESC, p.id "
+                    + "LIMIT :limit",
+            nativeQuery = true)
+    List<PlayerStats> findWindowStatsOrderedByWinPercentage(
+            @Param("fromDay") LocalDate fromDay,
+            @Param("minGames") int minGames,
+            @Param("limit") int limit);
+
+    // Incremental maintenance: adds a result delta to one player's bucket for the day
+    @Modifying
+    @QueryHints(
+            @QueryHint(
+                    name = HibernateHints.HINT_NATIVE_SPACES,
+                    value = "foosball.player_daily_stats"))
+    @Query(
+            value = "INSERT INTO foosball.player_daily_stats AS d "
+                    + "(player_id, day, games, wins, draws, goals_for, goals_against) "
+                    + "VALUES (:playerId, :day, :games, :wins, :draws, :goalsFor, :goalsAgainst) "
+                    + "ON CONFLICT (player_id, day) DO UPDATE SET "
+                    + "games = d.games + EXCLUDED.games, "
+                    + "wins = d.wins + EXCLUDED.wins, "
+                    + "draws = d.draws + EXCLUDED.draws, "
+                    + "goals_for = d.goals_for + EXCLUDED.goals_for, "
+                    + "goals_against = d.goals_against + EXCLUDED.goals_against",
+            nativeQuery = true)
+    void recordResult(
+            @Param("playerId") Long playerId,
+            @Param("day") LocalDate day,
+            @Param("games") int games,
+            @Param("wins") int wins,
+            @Param("draws") int draws,
+            @Param("goalsFor") int goalsFor,
+            @Param("goalsAgainst") int goalsAgainst);
+
+    // Retention: buckets share the games cutoff so windows never outlive their rows
+    @Modifying
+    @QueryHints(
+            @QueryHint(
+                    name = HibernateHints.HINT_NATIVE_SPACES,
+                    value = "foosball.player_daily_stats"))
+    @Transactional
+    @Query(
+            value = "DELETE FROM foosball.player_daily_stats WHERE day < :cutoffDay",
+            nativeQuery = true)
+    int deleteOlderThan(@Param("cutoffDay") LocalDate cutoffDay);
+
+    // Full rebuild from the games table
+    @Modifying
+    @QueryHints(
+            @QueryHint(
+                    name = HibernateHints.HINT_NATIVE_SPACES,
+                    value = "foosball.player_daily_stats"))
+    @Query(value = "DELETE FROM foosball.player_daily_stats", nativeQuery = true)
+    int deleteAllDailyStats();
+
+    @Modifying
+    @QueryHints(
+            @QueryHint(
+                    name = HibernateHints.HINT_NATIVE_SPACES,
+                    value = "foosball.player_daily_stats"))
+    @Query(
+            value = "INSERT INTO foosball.player_daily_stats "
+                    + "(player_id, day, games, wins, draws, goals_for, goals_against) "
+                    + "SELECT r.player_id, r.day, COUNT(*), "
+                    + "COUNT(*) FILTER (WHERE r.on_white AND r.winner = 'WHITE' OR r.on_black AND r.winner = 'BLACK'), "
+                    + "COUNT(*) FILTER (WHERE r.winner IS NULL), "
+                    + "SUM(CASE WHEN r.on_white THEN r.white_team_score ELSE r.black_team_score END), "
+                    + "SUM(CASE WHEN r.on_white THEN r.black_team_score ELSE r.white_team_score END) "
+                    + "FROM ("
+                    + "SELECT s.player_id, CAST(g.played_at AS DATE) AS day, g.winner, "
+                    + "g.white_team_score, g.black_team_score, "
+                    + "BOOL_OR(s.white) AS on_white, BOOL_OR(NOT s.white) AS on_black "
+                    + "FROM foosball.games g CROSS JOIN LATERAL (VALUES "
+                    + "(g.white_team_player1_id, TRUE), (g.white_team_player2_id, TRUE), "
+                    + "(g.black_team_player1_id, FALSE), (g.black_team_player2_id, FALSE)"
+                    + ") AS s(player_id, white) "
+                    + "GROUP BY g.id, g.played_at, g.winner, g.white_team_score, g.black_team_score, s.player_id"
+                    + ") r GROUP BY r.player_id, r.day",
+            nativeQuery = true)
+    int insertDailyStatsFromGames();
+}
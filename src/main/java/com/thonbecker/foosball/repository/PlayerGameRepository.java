@@ -0,0 +1,41 @@
+package com.thonbecker.foosball.repository;
+
+import com.thonbecker.foosball.entity.Player;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * The player_games fan-out: one row per seat of every game, keyed by player and play time.
+ * Reads go through GameRepository, which joins it back to the games.
+ */
+public interface PlayerGameRepository extends Repository<Player, Long> {
+
+    // Incremental maintenance: the four seats of a newly recorded game
+    @Modifying
+    @QueryHints(
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "foosball.player_games"))
+    @Query(
+            value =
+                    "INSERT INTO foosball.player_games (player_id, played_at, game_id, side, slot) VALUES "
+                            + "(:whitePlayer1Id, :playedAt, :gameId, 'WHITE', 1), "
+                            + "(:whitePlayer2Id, :playedAt, :gameId, 'WHITE', 2), "
+                            + "(:blackPlayer1Id, :playedAt, :gameId, 'BLACK', 1), "
+                            + "(:blackPlayer2Id, :playedAt, :gameId, 'BLACK', 2)",
+            nativeQuery = true)
+    void recordGame(
+            @Param("gameId") Long gameId,
+            @Param("playedAt") LocalDateTime playedAt,
+            @Param("whitePlayer1Id") Long whitePlayer1Id,
+            @Param("whitePlayer2Id") Long whitePlayer2Id,
+            @Param("blackPlayer1Id") Long blackPlayer1Id,
+            @Param("blackPlayer2Id") Long blackPlayer2Id);
+}
@@ -0,0 +1,101 @@
+package com.thonbecker.foosball.repository;
+
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.projection.PlayerRating;
+import com.thonbecker.foosball.projection.RatingHistory;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PlayerRatingRepository extends Repository<Player, Long> {
+
+    // Gives every player a row to lock; concurrent inserts of the same player wait for each other
+    @Modifying
+    @QueryHints(
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "foosball.player_ratings"))
+    @Query(
+            value = "INSERT INTO foosball.player_ratings (player_id, rating, games_rated) "
+                    + "SELECT p.id, :initialRating, 0 FROM foosball.players p "
+                    + "WHERE p.id IN (:playerIds) ORDER BY p.id "
+                    + "ON CONFLICT (player_id) DO NOTHING",
+            nativeQuery = true)
+    void insertMissing(
+            @Param("playerIds") Collection<Long> playerIds,
+            @Param("initialRating") double initialRating);
+
+    // Locked until the transaction ends, in id order so two games never wait on each other
+    @Query(
+            value = "SELECT player_id, rating, games_rated FROM foosball.player_ratings "
+                    + "WHERE player_id IN (:playerIds) ORDER BY player_id FOR UPDATE",
+            nativeQuery = true)
+    List<PlayerRating> lockByPlayerIds(@Param("playerIds") Collection<Long> playerIds);
+
+    @Query(value = "SELECT COUNT(*) FROM foosball.player_ratings", nativeQuery = true)
+    long countRatings();
+
+    @Query(
+            value =
+                    "SELECT game_id, rating_before, rating_after, played_at FROM foosball.rating_history "
+                            + "WHERE player_id = :playerId ORDER BY played_at DESC, id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<RatingHistory> findHistoryByPlayerId(
+            @Param("playerId") Long playerId, @Param("limit") int limit);
+
+    // Incremental maintenance: adds a delta so concurrent games never overwrite each other;
+    // games is how many games the delta covers
+    @Modifying
+    @QueryHints(
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "foosball.player_ratings"))
+    @Query(
+            value =
+                    "INSERT INTO foosball.player_ratings AS r (player_id, rating, games_rated, updated_at) "
+                            + "VALUES (:playerId, :initialRating + :delta, :games, CURRENT_TIMESTAMP) "
+                            + "ON CONFLICT (player_id) DO UPDATE SET "
+                            + "rating = r.rating + :delta, "
+                            + "games_rated = r.games_rated + EXCLUDED.games_rated, "
+                            + "updated_at = CURRENT_TIMESTAMP",
+            nativeQuery = true)
+    void applyChange(
+            @Param("playerId") Long playerId,
+            @Param("initialRating") double initialRating,
+            @Param("delta") double delta,
+            @Param("games") int games);
+
+    @Modifying
+    @QueryHints(
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "foosball.rating_history"))
+    @Query(
+            value = "INSERT INTO foosball.rating_history "
+                    + "(game_id, player_id, rating_before, rating_after, played_at) "
+                    + "VALUES (:gameId, :playerId, :ratingBefore, :ratingAfter, :playedAt)",
+            nativeQuery = true)
+    void insertHistory(
+            @Param("gameId") Long gameId,
+            @Param("playerId") Long playerId,
+            @Param("ratingBefore") double ratingBefore,
+            @Param("ratingAfter") double ratingAfter,
+            @Param("playedAt") LocalDateTime playedAt);
+
+    // Full replay from the games table
+    @Modifying
+    @QueryHints(
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "foosball.rating_history"))
+    @Query(value = "DELETE FROM foosball.rating_history", nativeQuery = true)
+    int deleteAllHistory();
+
+    @Modifying
+    @QueryHints(
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "foosball.player_ratings"))
+    @Query(value = "DELETE FROM foosball.player_ratings", nativeQuery = true)
+    int deleteAllRatings();
+}
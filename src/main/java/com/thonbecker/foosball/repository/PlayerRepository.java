@@ -1,11 +1,19 @@
 package com.thonbecker.foosball.repository;
 
 import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.projection.PlayerSummary;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.data.rest.core.annotation.RestResource;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +23,12 @@ import java.util.Optional;
         itemResourceRel = "player")
 public interface PlayerRepository extends CrudRepository<Player, Long> {
 
+    // Results are held in the query cache until the players table changes
     @RestResource(path = "by-name", rel = "by-name")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "player-by-name")
+    })
     Optional<Player> findByName(String name);
 
     @RestResource(path = "by-email", rel = "by-email")
@@ -25,4 +38,22 @@ public interface PlayerRepository extends CrudRepository<Player, Long> {
     List<Player> findByNameContainingIgnoreCase(String name);
 
     List<Player> findAllByOrderByNameAsc();
+
+    // Player summaries; game counts come from the player_stats aggregate in the same statement
+    String PLAYER_SUMMARY = "SELECT p.id, p.name, p.email, p.created_at, "
+            + "COALESCE(s.total_games, 0) AS games_played "
+            + "FROM foosball.players p "
+            + "LEFT JOIN foosball.player_stats s ON s.player_id = p.id ";
+
+    @RestResource(exported = false)
+    @Query(value = PLAYER_SUMMARY + "ORDER BY p.name", nativeQuery = true)
+    List<PlayerSummary> findAllSummaries();
+
+    @RestResource(exported = false)
+    @Query(value = PLAYER_SUMMARY + "WHERE p.id = :id", nativeQuery = true)
+    Optional<PlayerSummary> findSummaryById(@Param("id") Long id);
+
+    @RestResource(exported = false)
+    @Query(value = PLAYER_SUMMARY + "WHERE p.id IN (:ids)", nativeQuery = true)
+    List<PlayerSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
 }
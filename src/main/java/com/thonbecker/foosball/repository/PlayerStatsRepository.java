@@ -3,7 +3,12 @@ package com.thonbecker.foosball.repository;
 import com.thonbecker.foosball.entity.Player;
 import com.thonbecker.foosball.projection.PlayerStats;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.query.Param;
 
@@ -11,48 +16,68 @@ import java.util.List;
 
 public interface PlayerStatsRepository extends Repository<Player, Long> {
 
+    // Every player with aggregates and rating; ordering is done by the in-memory leaderboard.
+    // Not read-only: the leaderboard is patched from here on, so it must not start from a replica
     @Query(
-            value =
-                    "SELECT id, name, total_games, wins, win_percentage FROM foosball.player_stats ORDER BY win_percentage DESC, total_games DESC",
-            nativeQuery = true)
-    List<PlayerStats> findAllPlayerStatsOrderedByWinPercentage();
-
-    @Query(
-            value = "SELECT id, name, total_games, wins, win_percentage, "
-                    + "(1000 + ((wins * 25) - ((total_games - wins) * 10)) + (total_games * 2)) AS rank_score "
-                    + "FROM foosball.player_stats "
-                    + "WHERE total_games >= 5 "
-                    + "ORDER BY rank_score DESC",
-            nativeQuery = true)
-    List<PlayerStats> findAllPlayerStatsOrderedByRankScore();
-
-    @Query(
-            value =
-                    "SELECT id, name, total_games, wins, win_percentage FROM foosball.player_stats ORDER BY total_games DESC, win_percentage DESC",
-            nativeQuery = true)
-    List<PlayerStats> findAllPlayerStatsOrderedByTotalGames();
-
-    @Query(
-            value =
-                    "SELECT id, name, total_games, wins, win_percentage FROM foosball.player_stats ORDER BY wins DESC, win_percentage DESC",
+            value = "SELECT p.id, p.name, COALESCE(s.total_games, 0) AS total_games, "
+                    + "COALESCE(s.wins, 0) AS wins, s.win_percentage, r.rating "
+                    + "FROM foosball.players p "
+                    + "LEFT JOIN foosball.player_stats s ON s.player_id = p.id "
+                    + "LEFT JOIN foosball.player_ratings r ON r.player_id = p.id",
             nativeQuery = true)
-    List<PlayerStats> findAllPlayerStatsOrderedByWins();
+    List<PlayerStats> findAllPlayerStats();
 
+    // Incremental maintenance: adds a result delta to one player's aggregate row
+    @Modifying
+    @QueryHints(
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "foosball.player_stats"))
     @Query(
-            value =
-                    "SELECT id, name, total_games, wins, win_percentage FROM foosball.player_stats WHERE total_games >= :minGames ORDER BY win_percentage DESC",
+            value = "INSERT INTO foosball.player_stats AS s "
+                    + "(player_id, total_games, wins, draws, goals_for, goals_against, updated_at) "
+                    + "VALUES (:playerId, :games, :wins, :draws, :goalsFor, :goalsAgainst, CURRENT_TIMESTAMP) "
+                    + "ON CONFLICT (player_id) DO UPDATE SET "
+                    + "total_games = s.total_games + EXCLUDED.total_games, "
+                    + "wins = s.wins + EXCLUDED.wins, "
+                    + "draws = s.draws + EXCLUDED.draws, "
+                    + "goals_for = s.goals_for + EXCLUDED.goals_for, "
+                    + "goals_against = s.goals_against + EXCLUDED.goals_against, "
+                    + "updated_at = CURRENT_TIMESTAMP",
             nativeQuery = true)
-    List<PlayerStats> findTopPlayersByWinPercentage(@Param("minGames") int minGames);
+    void recordResult(
+            @Param("playerId") Long playerId,
+            @Param("games") int games,
+            @Param("wins") int wins,
+            @Param("draws") int draws,
+            @Param("goalsFor") int goalsFor,
+            @Param("goalsAgainst") int goalsAgainst);
 
-    @Query(
-            value =
-                    "SELECT id, name, total_games, wins, win_percentage FROM foosball.player_stats WHERE total_games >= :minGames ORDER BY total_games DESC",
-            nativeQuery = true)
-    List<PlayerStats> findTopPlayersByTotalGames(@Param("minGames") int minGames);
+    // Full rebuild from the games table
+    @Modifying
+    @QueryHints(
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "foosball.player_stats"))
+    @Query(value = "DELETE FROM foosball.player_stats", nativeQuery = true)
+    int deleteAllPlayerStats();
 
+    @Modifying
+    @QueryHints(
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "foosball.player_stats"))
     @Query(
-            value =
-                    "SELECT id, name, total_games, wins, win_percentage FROM foosball.player_stats WHERE total_games >= :minGames ORDER BY wins DESC",
+            value = "INSERT INTO foosball.player_stats "
+                    + "(player_id, total_games, wins, draws, goals_for, goals_against) "
+                    + "SELECT r.player_id, COUNT(*), "
+                    + "COUNT(*) FILTER (WHERE r.on_white AND r.winner = 'WHITE' OR r.on_black AND r.winner = 'BLACK'), "
+                    + "COUNT(*) FILTER (WHERE r.winner IS NULL), "
+                    + "SUM(CASE WHEN r.on_white THEN r.white_team_score ELSE r.black_team_score END), "
+                    + "SUM(CASE WHEN r.on_white THEN r.black_team_score ELSE r.white_team_score END) "
+                    + "FROM ("
+                    + "SELECT s.player_id, g.winner, g.white_team_score, g.black_team_score, "
+                    + "BOOL_OR(s.white) AS on_white, BOOL_OR(NOT s.white) AS on_black "
+                    + "FROM foosball.games g CROSS JOIN LATERAL (VALUES "
+                    + "(g.white_team_player1_id, TRUE), (g.white_team_player2_id, TRUE), "
+                    + "(g.black_team_player1_id, FALSE), (g.black_team_player2_id, FALSE)"
+                    + ") AS s(player_id, white) "
+                    + "GROUP BY g.id, g.winner, g.white_team_score, g.black_team_score, s.player_id"
+                    + ") r GROUP BY r.player_id",
             nativeQuery = true)
-    List<PlayerStats> findTopPlayersByWins(@Param("minGames") int minGames);
+    int insertPlayerStatsFromGames();
 }
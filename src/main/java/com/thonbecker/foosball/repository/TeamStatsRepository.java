@@ -3,35 +3,118 @@ package com.thonbecker.foosball.repository;
 import com.thonbecker.foosball.entity.Player;
 import com.thonbecker.foosball.projection.TeamStats;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 public interface TeamStatsRepository extends Repository<Player, Long> {
 
+    // A pair on both sides of one game played it together once, as the old view counted it
+    String SAME_PAIR = "(LEAST(white_team_player1_id, white_team_player2_id), "
+            + "GREATEST(white_team_player1_id, white_team_player2_id)) = "
+            + "(LEAST(black_team_player1_id, black_team_player2_id), "
+            + "GREATEST(black_team_player1_id, black_team_player2_id))";
+
+    @Transactional(readOnly = true)
     @Query(
             value =
-                    "SELECT player1_id, player1_name, player2_id, player2_name, games_played_together, wins, win_percentage, avg_team_score FROM foosball.team_stats ORDER BY win_percentage DESC",
+                    "SELECT t.player1_id, p1.name AS player1_name, t.player2_id, p2.name AS player2_name, "
+                            + "t.games_played_together, t.wins, t.win_percentage, t.avg_team_score "
+                            + "FROM foosball.team_stats t "
+                            + "JOIN foosball.players p1 ON p1.id = t.player1_id "
+                            + "JOIN foosball.players p2 ON p2.id = t.player2_id "
+                            + "ORDER BY t.win_percentage DESC",
             nativeQuery = true)
     List<TeamStats> findAllTeamStatsOrderedByWinPercentage();
 
+    @Transactional(readOnly = true)
     @Query(
             value =
-                    "SELECT player1_id, player1_name, player2_id, player2_name, games_played_together, wins, win_percentage, avg_team_score FROM foosball.team_stats ORDER BY games_played_together DESC",
+                    "SELECT t.player1_id, p1.name AS player1_name, t.player2_id, p2.name AS player2_name, "
+                            + "t.games_played_together, t.wins, t.win_percentage, t.avg_team_score "
+                            + "FROM foosball.team_stats t "
+                            + "JOIN foosball.players p1 ON p1.id = t.player1_id "
+                            + "JOIN foosball.players p2 ON p2.id = t.player2_id "
+                            + "ORDER BY t.games_played_together DESC",
             nativeQuery = true)
     List<TeamStats> findAllTeamStatsOrderedByGamesPlayed();
 
+    @Transactional(readOnly = true)
     @Query(
             value =
-                    "SELECT player1_id, player1_name, player2_id, player2_name, games_played_together, wins, win_percentage, avg_team_score FROM foosball.team_stats WHERE games_played_together >= :minGames ORDER BY win_percentage DESC",
+                    "SELECT t.player1_id, p1.name AS player1_name, t.player2_id, p2.name AS player2_name, "
+                            + "t.games_played_together, t.wins, t.win_percentage, t.avg_team_score "
+                            + "FROM foosball.team_stats t "
+                            + "JOIN foosball.players p1 ON p1.id = t.player1_id "
+                            + "JOIN foosball.players p2 ON p2.id = t.player2_id "
+                            + "WHERE t.games_played_together >= :minGames ORDER BY t.win_percentage DESC",
             nativeQuery = true)
     List<TeamStats> findTopTeamsByWinPercentage(@Param("minGames") int minGames);
 
+    @Transactional(readOnly = true)
     @Query(
             value =
-                    "SELECT player1_id, player1_name, player2_id, player2_name, games_played_together, wins, win_percentage, avg_team_score FROM foosball.team_stats WHERE games_played_together >= :minGames ORDER BY avg_team_score DESC",
+                    "SELECT t.player1_id, p1.name AS player1_name, t.player2_id, p2.name AS player2_name, "
+                            + "t.games_played_together, t.wins, t.win_percentage, t.avg_team_score "
+                            + "FROM foosball.team_stats t "
+                            + "JOIN foosball.players p1 ON p1.id = t.player1_id "
+                            + "JOIN foosball.players p2 ON p2.id = t.player2_id "
+                            + "WHERE t.games_played_together >= :minGames ORDER BY t.avg_team_score DESC",
             nativeQuery = true)
     List<TeamStats> findTopTeamsByAverageScore(@Param("minGames") int minGames);
+
+    // Incremental maintenance: callers pass the pair as (lower id, higher id)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "foosball.team_stats"))
+    @Query(
+            value = "INSERT INTO foosball.team_stats AS t "
+                    + "(player1_id, player2_id, games_played_together, wins, total_team_score, updated_at) "
+                    + "VALUES (:player1Id, :player2Id, :games, :wins, :teamScore, CURRENT_TIMESTAMP) "
+                    + "ON CONFLICT (player1_id, player2_id) DO UPDATE SET "
+                    + "games_played_together = t.games_played_together + EXCLUDED.games_played_together, "
+                    + "wins = t.wins + EXCLUDED.wins, "
+                    + "total_team_score = t.total_team_score + EXCLUDED.total_team_score, "
+                    + "updated_at = CURRENT_TIMESTAMP",
+            nativeQuery = true)
+    void recordResult(
+            @Param("player1Id") Long player1Id,
+            @Param("player2Id") Long player2Id,
+            @Param("games") int games,
+            @Param("wins") int wins,
+            @Param("teamScore") int teamScore);
+
+    // Full rebuild from the games table
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "foosball.team_stats"))
+    @Query(value = "DELETE FROM foosball.team_stats", nativeQuery = true)
+    int deleteAllTeamStats();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "foosball.team_stats"))
+    @Query(
+            value = "INSERT INTO foosball.team_stats "
+                    + "(player1_id, player2_id, games_played_together, wins, total_team_score) "
+                    + "SELECT t.player1_id, t.player2_id, COUNT(*), COUNT(*) FILTER (WHERE t.won), SUM(t.score) "
+                    + "FROM ("
+                    + "SELECT LEAST(white_team_player1_id, white_team_player2_id) AS player1_id, "
+                    + "GREATEST(white_team_player1_id, white_team_player2_id) AS player2_id, "
+                    + "winner = 'WHITE' OR winner = 'BLACK' AND " + SAME_PAIR + " AS won, "
+                    + "white_team_score AS score "
+                    + "FROM foosball.games WHERE white_team_player1_id <> white_team_player2_id "
+                    + "UNION ALL SELECT LEAST(black_team_player1_id, black_team_player2_id), "
+                    + "GREATEST(black_team_player1_id, black_team_player2_id), "
+                    + "winner = 'BLACK', black_team_score "
+                    + "FROM foosball.games WHERE black_team_player1_id <> black_team_player2_id "
+                    + "AND NOT " + SAME_PAIR
+                    + ") t GROUP BY t.player1_id, t.player2_id",
+            nativeQuery = true)
+    int insertTeamStatsFromGames();
 }
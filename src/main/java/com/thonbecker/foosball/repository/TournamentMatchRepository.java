@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -37,6 +38,7 @@ public interface TournamentMatchRepository extends JpaRepository<TournamentMatch
     List<TournamentMatch> findMatchesAdvancingTo(@Param("matchId") Long matchId);
 
     // Find bracket view for tournament
+    @Transactional(readOnly = true)
     @Query("SELECT m.id as matchId, m.roundNumber as roundNumber, m.matchNumber as matchNumber, "
             + "m.bracketType as bracketType, "
             + "CASE WHEN m.team1 IS NOT NULL THEN "
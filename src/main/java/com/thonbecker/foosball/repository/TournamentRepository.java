@@ -81,6 +81,13 @@ public interface TournamentRepository extends JpaRepository<Tournament, Long> {
             + "WHERE t.id = :id")
     Optional<Tournament> findByIdWithMatches(@Param("id") Long id);
 
+    // Counts down a round robin; the row stays locked until commit, so results can't race
+    @Query(
+            value = "UPDATE foosball.tournaments SET matches_remaining = matches_remaining - 1 "
+                    + "WHERE id = :id RETURNING matches_remaining",
+            nativeQuery = true)
+    int countDownMatchesRemaining(@Param("id") Long id);
+
     // Statistics queries
     @Query("SELECT COUNT(t) FROM Tournament t WHERE t.status = 'COMPLETED'")
     long countCompletedTournaments();
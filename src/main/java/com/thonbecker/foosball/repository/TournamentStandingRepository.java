@@ -23,6 +23,14 @@ public interface TournamentStandingRepository extends JpaRepository<TournamentSt
     List<TournamentStanding> findByTournamentIdOrderByPointsDesc(
             @Param("tournamentId") Long tournamentId);
 
+    // Every standing with what its display name needs, for building the ranking in one query
+    @Query("SELECT s FROM TournamentStanding s "
+            + "JOIN FETCH s.registration r "
+            + "JOIN FETCH r.player "
+            + "LEFT JOIN FETCH r.partner "
+            + "WHERE s.tournament.id = :tournamentId")
+    List<TournamentStanding> findForRanking(@Param("tournamentId") Long tournamentId);
+
     // Find standing for specific registration
     Optional<TournamentStanding> findByTournamentIdAndRegistrationId(
             Long tournamentId, Long registrationId);
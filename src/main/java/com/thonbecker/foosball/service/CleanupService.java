@@ -1,30 +1,187 @@
 package com.thonbecker.foosball.service;
 
+import com.thonbecker.foosball.event.GamesPurgedEvent;
 import com.thonbecker.foosball.repository.GameRepository;
+import com.thonbecker.foosball.repository.PlayerDailyStatsRepository;
+import com.thonbecker.foosball.service.archive.GameArchive;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Retention cleanup.
+ * Expired games are deleted in bounded id-range chunks, each in its own short transaction, with
+ * an optional rows-per-second limit. A run stops at its time budget, well inside the ShedLock
+ * lease; every committed chunk stays deleted, so the next run simply picks up the expired ids
+ * that are left. When the games table is partitioned by month, whole expired months are dropped
+ * first and the chunks only deal with the month that straddles the cutoff.
+ * With the game archive enabled, every chunk and every month is archived before it is deleted,
+ * and the player and team totals are left as they are. Without it they are rebuilt from the
+ * retained games.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CleanupService {
     private final GameRepository gameRepository;
+    private final PlayerDailyStatsRepository dailyStatsRepository;
+    private final GamePartitionService gamePartitionService;
+    private final GameArchive gameArchive;
+    private final FoosballService foosballService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong remainingGames = new AtomicLong();
+
+    // Shared with FoosballService, which caps rolling-window stats at the same number of days
+    @Value("${foosball.retention.days:90}")
+    private int retentionDays;
+
+    @Value("${foosball.retention.purge.chunk-size:5000}")
+    private int chunkSize;
+
+    // 0 disables throttling
+    @Value("${foosball.retention.purge.rows-per-second:20000}")
+    private int rowsPerSecond;
 
-    @Scheduled(cron = "0 0 0 1 * ?") // Run at midnight on the first day of every month
+    // Must stay below lockAtMostFor
+    @Value("${foosball.retention.purge.max-duration:PT45M}")
+    private Duration maxDuration;
+
+    // Partitions kept ready ahead of the current month
+    @Value("${foosball.retention.partitions-ahead:3}")
+    private int partitionsAhead;
+
+    @PostConstruct
+    void registerMetrics() {
+        meterRegistry.gauge("foosball.retention.purge.remaining", remainingGames);
+    }
+
+    @Scheduled(cron = "${foosball.retention.cron:0 0 0 1 * ?}") // Default: midnight on the 1st
     @SchedulerLock(name = "cleanupOldGames", lockAtLeastFor = "PT5M", lockAtMostFor = "PT1H")
     public void cleanupOldGames() {
         log.info("Starting cleanup of old games.");
-        final var ninetyDaysAgo = LocalDate.now().minusDays(90);
-        final var deletedGamesCount =
-                gameRepository.deleteGamesOlderThan(ninetyDaysAgo.atStartOfDay());
-        log.info("Finished cleanup of old games. Deleted {} games.", deletedGamesCount);
+        final var deadline = System.nanoTime() + maxDuration.toNanos();
+        final var cutoffDay = LocalDate.now().minusDays(retentionDays);
+        final var cutoff = cutoffDay.atStartOfDay();
+
+        var deletedGamesCount = 0L;
+        if (gamePartitionService.isPartitioned()) {
+            deletedGamesCount += dropExpiredPartitions(cutoff);
+            gamePartitionService.createPartitionsThrough(
+                    YearMonth.now().plusMonths(partitionsAhead));
+        }
+        deletedGamesCount += purgeInChunks(cutoff, deadline);
+
+        final var deletedBuckets = dailyStatsRepository.deleteOlderThan(cutoffDay);
+        log.info(
+                "Finished cleanup of old games. Deleted {} games and {} daily stat buckets, {} expired games left.",
+                deletedGamesCount,
+                deletedBuckets,
+                remainingGames.get());
+
+        // With the archive, the purged games keep counting towards the all-time totals, which
+        // already hold them; only without it do the totals have to shrink to the retained games
+        if (deletedGamesCount > 0 && !gameArchive.isEnabled()) {
+            final var rebuilt = foosballService.rebuildStatistics(false);
+            log.info("Rebuilt statistics after cleanup: {}", rebuilt);
+        }
+    }
+
+    private long dropExpiredPartitions(LocalDateTime cutoff) {
+        var deleted = 0L;
+        for (var month : gamePartitionService.expiredPartitions(cutoff)) {
+            if (gameArchive.isEnabled()) {
+                gameArchive.archiveMonth(month);
+            }
+            final var purged = new GamesPurgedEvent(gamePartitionService.dropPartition(month));
+            eventPublisher.publishEvent(purged);
+            deleted += purged.games();
+            meterRegistry
+                    .counter("foosball.retention.purged.games", "method", "partition")
+                    .increment(purged.games());
+            log.info("Dropped games partition for {} ({} games)", month, purged.games());
+        }
+        return deleted;
+    }
+
+    private long purgeInChunks(LocalDateTime cutoff, long deadline) {
+        final var range = gameRepository.findIdRangeOlderThan(cutoff);
+        if (range == null || range.getMinId() == null) {
+            remainingGames.set(0);
+            return 0;
+        }
+        remainingGames.set(range.getGames());
+        final var purgedGames =
+                meterRegistry.counter("foosball.retention.purged.games", "method", "chunk");
+        final var chunkTimer = meterRegistry.timer("foosball.retention.purge.chunk");
+
+        var deleted = 0L;
+        for (long fromId = range.getMinId(); fromId <= range.getMaxId(); fromId += chunkSize) {
+            if (System.nanoTime() - deadline > 0) {
+                log.warn(
+                        "Cleanup time budget used up; {} expired games left for the next run",
+                        remainingGames.get());
+                break;
+            }
+            // Capped at the range, so games inserted since (e.g. backdated bulk imports) are left
+            // alone
+            final var toId = Math.min(fromId + chunkSize, range.getMaxId() + 1);
+            final var started = System.nanoTime();
+            if (gameArchive.isEnabled()) {
+                gameArchive.archiveExpired(cutoff, fromId, toId);
+            }
+            final var purged =
+                    new GamesPurgedEvent(gameRepository.deleteGamesOlderThan(cutoff, fromId, toId));
+            final var elapsed = System.nanoTime() - started;
+            eventPublisher.publishEvent(purged);
+
+            deleted += purged.games();
+            remainingGames.addAndGet(-purged.games());
+            purgedGames.increment(purged.games());
+            chunkTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            if (!throttle(purged.games(), elapsed)) {
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    // Sleeps off whatever the chunk finished ahead of the rate limit; false if interrupted
+    private boolean throttle(long rows, long elapsedNanos) {
+        if (rowsPerSecond <= 0 || rows == 0) {
+            return true;
+        }
+        final var budgetNanos = TimeUnit.SECONDS.toNanos(rows) / rowsPerSecond;
+        final var pauseNanos = budgetNanos - elapsedNanos;
+        if (pauseNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(pauseNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Cleanup interrupted; expired games left for the next run");
+            return false;
+        }
     }
 }
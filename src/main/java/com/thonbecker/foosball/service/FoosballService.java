@@ -2,21 +2,51 @@ package com.thonbecker.foosball.service;
 
 import com.thonbecker.foosball.entity.Game;
 import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.PlayerCreatedEvent;
+import com.thonbecker.foosball.event.StatisticsRebuiltEvent;
+import com.thonbecker.foosball.model.GameCursor;
+import com.thonbecker.foosball.model.GamePage;
+import com.thonbecker.foosball.model.PlayerRankResponse;
+import com.thonbecker.foosball.model.RatingReplayResponse;
+import com.thonbecker.foosball.model.RivalryResponse;
+import com.thonbecker.foosball.model.StatsRebuildResponse;
 import com.thonbecker.foosball.projection.GameWithPlayers;
 import com.thonbecker.foosball.projection.PlayerStats;
+import com.thonbecker.foosball.projection.PlayerSummary;
+import com.thonbecker.foosball.projection.RatingHistory;
 import com.thonbecker.foosball.projection.TeamStats;
 import com.thonbecker.foosball.repository.GameRepository;
+import com.thonbecker.foosball.repository.PlayerDailyStatsRepository;
+import com.thonbecker.foosball.repository.PlayerGameRepository;
 import com.thonbecker.foosball.repository.PlayerRepository;
 import com.thonbecker.foosball.repository.PlayerStatsRepository;
 import com.thonbecker.foosball.repository.TeamStatsRepository;
+import com.thonbecker.foosball.service.archive.GameArchive;
+import com.thonbecker.foosball.service.player.PlayerDirectory;
+import com.thonbecker.foosball.service.rating.RatingService;
+import com.thonbecker.foosball.service.stats.GameOverview;
+import com.thonbecker.foosball.service.stats.GameResultTotals;
+import com.thonbecker.foosball.service.stats.HeadToHead;
+import com.thonbecker.foosball.service.stats.PlayerLeaderboard;
+import com.thonbecker.foosball.service.stats.PlayerLeaderboard.Ordering;
+import com.thonbecker.foosball.service.stats.StatsQueries;
+
+import jakarta.persistence.EntityManager;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @Transactional
@@ -26,36 +56,102 @@ public class FoosballService {
     private final GameRepository gameRepository;
     private final PlayerStatsRepository playerStatsRepository;
     private final TeamStatsRepository teamStatsRepository;
+    private final PlayerDailyStatsRepository dailyStatsRepository;
+    private final PlayerGameRepository playerGameRepository;
+    private final PlayerLeaderboard playerLeaderboard;
+    private final HeadToHead headToHead;
+    private final GameOverview gameOverview;
+    private final StatsQueries statsQueries;
+    private final PlayerDirectory playerDirectory;
+    private final RatingService ratingService;
+    private final GameArchive gameArchive;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final int retentionDays;
 
     @Autowired
     public FoosballService(
             PlayerRepository playerRepository,
             GameRepository gameRepository,
             PlayerStatsRepository playerStatsRepository,
-            TeamStatsRepository teamStatsRepository) {
+            TeamStatsRepository teamStatsRepository,
+            PlayerDailyStatsRepository dailyStatsRepository,
+            PlayerGameRepository playerGameRepository,
+            PlayerLeaderboard playerLeaderboard,
+            HeadToHead headToHead,
+            GameOverview gameOverview,
+            StatsQueries statsQueries,
+            PlayerDirectory playerDirectory,
+            RatingService ratingService,
+            GameArchive gameArchive,
+            ApplicationEventPublisher eventPublisher,
+            EntityManager entityManager,
+            @Value("${foosball.retention.days:90}") int retentionDays) {
         this.playerRepository = playerRepository;
         this.gameRepository = gameRepository;
         this.playerStatsRepository = playerStatsRepository;
         this.teamStatsRepository = teamStatsRepository;
+        this.dailyStatsRepository = dailyStatsRepository;
+        this.playerGameRepository = playerGameRepository;
+        this.playerLeaderboard = playerLeaderboard;
+        this.headToHead = headToHead;
+        this.gameOverview = gameOverview;
+        this.statsQueries = statsQueries;
+        this.playerDirectory = playerDirectory;
+        this.ratingService = ratingService;
+        this.gameArchive = gameArchive;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.retentionDays = retentionDays;
     }
 
     // Player management
     public Player createPlayer(String name, String email) {
-        final var player = new Player(name, email);
-        return playerRepository.save(player);
+        final var player = playerRepository.save(new Player(name, email));
+        eventPublisher.publishEvent(new PlayerCreatedEvent(player.getId(), player.getName()));
+        return player;
     }
 
     public Player createPlayer(String name) {
-        final var player = new Player(name);
-        return playerRepository.save(player);
+        final var player = playerRepository.save(new Player(name));
+        eventPublisher.publishEvent(new PlayerCreatedEvent(player.getId(), player.getName()));
+        return player;
     }
 
+    @Transactional(readOnly = true)
+    public boolean playerExists(Long id) {
+        return playerDirectory.contains(id);
+    }
+
+    // Resolved from the player directory, so recording a game does not look players up one by one
+    @Transactional(readOnly = true)
     public Optional<Player> findPlayerByName(String name) {
-        return playerRepository.findByName(name);
+        return playerDirectory.findByName(name);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PlayerSummary> getAllPlayers() {
+        return playerRepository.findAllSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PlayerSummary> getPlayerById(Long id) {
+        return playerDirectory.contains(id)
+                ? playerRepository.findSummaryById(id)
+                : Optional.empty();
     }
 
-    public List<Player> getAllPlayers() {
-        return playerRepository.findAllByOrderByNameAsc();
+    @Transactional(readOnly = true)
+    public List<PlayerSummary> searchPlayers(String name) {
+        final var ids = playerDirectory.search(name);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        final var players = new HashMap<Long, PlayerSummary>();
+        playerRepository
+                .findSummariesByIds(ids)
+                .forEach(player -> players.put(player.getId(), player));
+        return ids.stream().map(players::get).filter(Objects::nonNull).toList();
     }
 
     // Game management
@@ -69,99 +165,272 @@ public class FoosballService {
         final var game =
                 new Game(whiteTeamPlayer1, whiteTeamPlayer2, blackTeamPlayer1, blackTeamPlayer2);
         game.setScores(whiteTeamScore, blackTeamScore);
-        return gameRepository.save(game);
+        final var savedGame = gameRepository.save(game);
+        final var recorded = GameRecordedEvent.of(savedGame);
+        updateStatistics(recorded);
+        ratingService.recordGame(savedGame);
+        // Listeners (e.g. the in-memory leaderboard) apply this after commit
+        eventPublisher.publishEvent(recorded);
+        return savedGame;
+    }
+
+    // Keeps the stats aggregates in step with the games table, in the same transaction
+    private void updateStatistics(GameRecordedEvent game) {
+        final var totals = new GameResultTotals(true);
+        totals.add(game);
+        totals.upsert(playerStatsRepository, dailyStatsRepository, teamStatsRepository);
+
+        playerGameRepository.recordGame(
+                game.gameId(),
+                game.playedAt(),
+                game.whiteTeamPlayer1Id(),
+                game.whiteTeamPlayer2Id(),
+                game.blackTeamPlayer1Id(),
+                game.blackTeamPlayer2Id());
+    }
+
+    // Recomputes every aggregate, with the archive whenever archiving is on, as the rating replay
+    public StatsRebuildResponse rebuildStatistics() {
+        return rebuildStatistics(gameArchive.isEnabled());
+    }
+
+    /**
+     * Recomputes every aggregate from the games table and, if asked, adds the archived games on
+     * top, giving all-time player and team totals. Archived games never count towards the daily
+     * buckets, which only cover the retention window.
+     */
+    public StatsRebuildResponse rebuildStatistics(boolean includeArchive) {
+        if (includeArchive) {
+            gameArchive.requireComplete();
+        }
+        playerStatsRepository.deleteAllPlayerStats();
+        final var playerStatsRows = playerStatsRepository.insertPlayerStatsFromGames();
+        teamStatsRepository.deleteAllTeamStats();
+        final var teamStatsRows = teamStatsRepository.insertTeamStatsFromGames();
+        dailyStatsRepository.deleteAllDailyStats();
+        final var dailyStatsRows = dailyStatsRepository.insertDailyStatsFromGames();
+
+        var archivedGames = 0L;
+        if (includeArchive) {
+            final var archived = new GameResultTotals(false);
+            archivedGames = gameArchive.replay(archived::add);
+            archived.upsert(playerStatsRepository, dailyStatsRepository, teamStatsRepository);
+        }
+        final var result = new StatsRebuildResponse(
+                playerStatsRows, teamStatsRows, dailyStatsRows, archivedGames);
+        eventPublisher.publishEvent(new StatisticsRebuiltEvent(result));
+        return result;
     }
 
-    public List<Game> getAllGames() {
-        final var games = new ArrayList<Game>();
-        gameRepository.findAll().forEach(games::add);
-        return games;
+    // Keyset pagination: the cost of a page does not depend on how deep it is
+    @Transactional(readOnly = true)
+    public GamePage getGames(GameCursor after, int limit) {
+        // One extra row tells whether there is a next page
+        final var games = after == null
+                ? gameRepository.findFirstPage(limit + 1)
+                : gameRepository.findPageAfter(after.playedAt(), after.id(), limit + 1);
+        return page(games, limit);
     }
 
+    // One player's games, newest first, as an index range scan over player_games
+    @Transactional(readOnly = true)
+    public GamePage getPlayerGames(Long playerId, GameCursor after, int limit) {
+        final var games = after == null
+                ? gameRepository.findPlayerFirstPage(playerId, limit + 1)
+                : gameRepository.findPlayerPageAfter(
+                        playerId, after.playedAt(), after.id(), limit + 1);
+        return page(games, limit);
+    }
+
+    private static GamePage page(List<Game> games, int limit) {
+        if (games.size() <= limit) {
+            return new GamePage(games, null);
+        }
+        final var page = games.subList(0, limit);
+        return new GamePage(page, GameCursor.of(page.get(limit - 1)).encode());
+    }
+
+    /**
+     * Streams every game in play order to the consumer. Games are detached once consumed, so the
+     * persistence context (and the heap) stays flat however many games there are.
+     */
+    @Transactional(readOnly = true)
+    public long exportGames(Consumer<Game> consumer) {
+        var exported = 0L;
+        try (var games = gameRepository.streamAllInPlayOrder()) {
+            final var iterator = games.iterator();
+            while (iterator.hasNext()) {
+                final var game = iterator.next();
+                consumer.accept(game);
+                entityManager.detach(game);
+                exported++;
+            }
+        }
+        return exported;
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Game> getGameById(Long id) {
         return gameRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public List<Game> getGamesByPlayer(Player player) {
         return gameRepository.findByPlayer(player);
     }
 
+    @Transactional(readOnly = true)
     public List<GameWithPlayers> getRecentGames() {
         return gameRepository.findRecentGames();
     }
 
-    // Player statistics
+    // Player statistics, served from the in-memory leaderboard
     public List<PlayerStats> getTopPlayersByWinPercentage(int minGames) {
-        return playerStatsRepository.findTopPlayersByWinPercentage(minGames);
+        return getTopPlayersByWinPercentage(minGames, Integer.MAX_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PlayerStats> getTopPlayersByWinPercentage(int minGames, int limit) {
+        return playerLeaderboard.top(Ordering.WIN_PERCENTAGE, minGames, limit);
     }
 
     public List<PlayerStats> getTopPlayersByTotalGames(int minGames) {
-        return playerStatsRepository.findTopPlayersByTotalGames(minGames);
+        return getTopPlayersByTotalGames(minGames, Integer.MAX_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PlayerStats> getTopPlayersByTotalGames(int minGames, int limit) {
+        return playerLeaderboard.top(Ordering.TOTAL_GAMES, minGames, limit);
     }
 
     public List<PlayerStats> getTopPlayersByWins(int minGames) {
-        return playerStatsRepository.findTopPlayersByWins(minGames);
+        return getTopPlayersByWins(minGames, Integer.MAX_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PlayerStats> getTopPlayersByWins(int minGames, int limit) {
+        return playerLeaderboard.top(Ordering.WINS, minGames, limit);
     }
 
+    @Transactional(readOnly = true)
     public List<PlayerStats> getAllPlayerStatsOrderedByWinPercentage() {
-        return playerStatsRepository.findAllPlayerStatsOrderedByWinPercentage();
+        return playerLeaderboard.all(Ordering.WIN_PERCENTAGE);
+    }
+
+    public List<PlayerStats> getAllPlayerStatsOrderedByRating() {
+        return getTopPlayersByRating(PlayerLeaderboard.RANKED_MIN_GAMES, Integer.MAX_VALUE);
     }
 
-    public List<PlayerStats> getAllPlayerStatsOrderedByRankScore() {
-        return playerStatsRepository.findAllPlayerStatsOrderedByRankScore();
+    @Transactional(readOnly = true)
+    public List<PlayerStats> getTopPlayersByRating(int minGames, int limit) {
+        return playerLeaderboard.top(Ordering.RATING, minGames, limit);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<PlayerRankResponse> getPlayerRank(Long playerId, int neighbours) {
+        return playerLeaderboard.rankOf(playerId, neighbours);
+    }
+
+    @Transactional(readOnly = true)
     public List<PlayerStats> getAllPlayerStatsOrderedByTotalGames() {
-        return playerStatsRepository.findAllPlayerStatsOrderedByTotalGames();
+        return playerLeaderboard.all(Ordering.TOTAL_GAMES);
     }
 
+    @Transactional(readOnly = true)
     public List<PlayerStats> getAllPlayerStatsOrderedByWins() {
-        return playerStatsRepository.findAllPlayerStatsOrderedByWins();
+        return playerLeaderboard.all(Ordering.WINS);
     }
 
-    // Team performance statistics
-    public List<TeamStats> getTopTeamsByWinPercentage(int minGames) {
-        return teamStatsRepository.findTopTeamsByWinPercentage(minGames);
+    /*
+     * The stats queries below are shared between concurrent identical calls (see StatsQueries).
+     * They join no transaction of their own, so callers waiting on another's query hold no
+     * connection.
+     */
+
+    // Rolling-window ("form") statistics, summed from daily buckets
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<PlayerStats> getPlayerFormStats(int days, int minGames, int limit) {
+        // Today counts as day one; the controller keeps the window within the retention period
+        final var fromDay = LocalDate.now().minusDays(days - 1L);
+        return statsQueries.share(
+                "playerForm",
+                List.of(fromDay, minGames, limit),
+                () -> dailyStatsRepository.findWindowStatsOrderedByWinPercentage(
+                        fromDay, minGames, limit));
     }
 
-    public List<TeamStats> getTopTeamsByAverageScore(int minGames) {
-        return teamStatsRepository.findTopTeamsByAverageScore(minGames);
+    public int getRetentionDays() {
+        return retentionDays;
     }
 
-    public List<TeamStats> getAllTeamStatsOrderedByWinPercentage() {
-        return teamStatsRepository.findAllTeamStatsOrderedByWinPercentage();
+    // Head-to-head, one side per list with one player or a pair
+    @Transactional(readOnly = true)
+    public RivalryResponse getRivalry(List<Long> side1, List<Long> side2) {
+        if (side1.size() != side2.size() || side1.isEmpty() || side1.size() > 2) {
+            throw new IllegalArgumentException("Both sides must be a single player or a pair");
+        }
+        if (side1.size() == 1) {
+            return headToHead.players(side1.get(0), side2.get(0));
+        }
+        return headToHead.pairs(side1.get(0), side1.get(1), side2.get(0), side2.get(1));
     }
 
-    public List<TeamStats> getAllTeamStatsOrderedByGamesPlayed() {
-        return teamStatsRepository.findAllTeamStatsOrderedByGamesPlayed();
+    // Player ratings
+    @Transactional(readOnly = true)
+    public List<RatingHistory> getRatingHistory(Long playerId, int limit) {
+        return ratingService.getRatingHistory(playerId, limit);
     }
 
-    // Overall statistics
-    public Long getTotalGames() {
-        return gameRepository.count();
+    public RatingReplayResponse replayRatings() {
+        return ratingService.replayAll();
     }
 
-    public Long getTotalPlayers() {
-        return playerRepository.count();
+    // Team performance statistics
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TeamStats> getTopTeamsByWinPercentage(int minGames) {
+        return statsQueries.share(
+                "topTeamsByWinPercentage",
+                List.of(minGames),
+                () -> teamStatsRepository.findTopTeamsByWinPercentage(minGames));
     }
 
-    public Long getGamesWithWinner() {
-        return gameRepository.countGamesWithWinner();
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TeamStats> getTopTeamsByAverageScore(int minGames) {
+        return statsQueries.share(
+                "topTeamsByAverageScore",
+                List.of(minGames),
+                () -> teamStatsRepository.findTopTeamsByAverageScore(minGames));
     }
 
-    public Long getDraws() {
-        return gameRepository.countDraws();
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TeamStats> getAllTeamStatsOrderedByWinPercentage() {
+        return statsQueries.share(
+                "allTeamsByWinPercentage",
+                List.of(),
+                teamStatsRepository::findAllTeamStatsOrderedByWinPercentage);
     }
 
-    public Double getAverageTotalScore() {
-        return gameRepository.getAverageTotalScore();
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TeamStats> getAllTeamStatsOrderedByGamesPlayed() {
+        return statsQueries.share(
+                "allTeamsByGamesPlayed",
+                List.of(),
+                teamStatsRepository::findAllTeamStatsOrderedByGamesPlayed);
     }
 
-    public Integer getHighestTotalScore() {
-        return gameRepository.getHighestTotalScore();
+    // Overall statistics
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Long getTotalGames() {
+        return statsQueries.share("totalGames", List.of(), gameRepository::count);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Long getTotalPlayers() {
+        return statsQueries.share("totalPlayers", List.of(), playerRepository::count);
     }
 
-    public Integer getLowestTotalScore() {
-        return gameRepository.getLowestTotalScore();
+    @Transactional(readOnly = true)
+    public GameOverview.Snapshot getStatsOverview() {
+        return gameOverview.snapshot();
     }
 }
@@ -0,0 +1,145 @@
+package com.thonbecker.foosball.service;
+
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.model.BulkGameRequest;
+import com.thonbecker.foosball.model.BulkGameResponse;
+import com.thonbecker.foosball.repository.PlayerDailyStatsRepository;
+import com.thonbecker.foosball.repository.PlayerStatsRepository;
+import com.thonbecker.foosball.repository.TeamStatsRepository;
+import com.thonbecker.foosball.service.player.PlayerDirectory;
+import com.thonbecker.foosball.service.rating.RatingService;
+import com.thonbecker.foosball.service.stats.GameResultTotals;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Bulk game recording for offline clients.
+ * Names are resolved from the player directory; the batch then costs one query to reserve ids from
+ * the games sequence, one JDBC batch of inserts and one upsert per affected aggregate row, all in
+ * one transaction.
+ */
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class GameIngestService {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    // Reserving ids up front is what lets the inserts be batched despite the IDENTITY column
+    private static final String NEXT_GAME_IDS =
+            "SELECT nextval(pg_get_serial_sequence('foosball.games', 'id')) "
+                    + "FROM generate_series(1, ?)";
+
+    private static final String INSERT_GAME =
+            "INSERT INTO foosball.games (id, white_team_player1_id, "
+                    + "white_team_player2_id, black_team_player1_id, black_team_player2_id, "
+                    + "white_team_score, black_team_score, winner, played_at, notes) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PLAYER_GAME = "INSERT INTO foosball.player_games "
+            + "(player_id, played_at, game_id, side, slot) VALUES (?, ?, ?, ?, ?)";
+
+    private final PlayerDirectory playerDirectory;
+    private final PlayerStatsRepository playerStatsRepository;
+    private final TeamStatsRepository teamStatsRepository;
+    private final PlayerDailyStatsRepository dailyStatsRepository;
+    private final RatingService ratingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BulkGameResponse recordGames(List<BulkGameRequest> requests) {
+        final var names = new HashSet<String>();
+        for (var request : requests) {
+            names.add(request.whiteTeamPlayer1());
+            names.add(request.whiteTeamPlayer2());
+            names.add(request.blackTeamPlayer1());
+            names.add(request.blackTeamPlayer2());
+        }
+        final var playerIds = new HashMap<String, Long>();
+        for (var name : names) {
+            playerDirectory
+                    .findByName(name)
+                    .ifPresent(player -> playerIds.put(name, player.getId()));
+        }
+        final var unknown = names.stream()
+                .filter(name -> !playerIds.containsKey(name))
+                .sorted()
+                .toList();
+        if (!unknown.isEmpty()) {
+            return new BulkGameResponse(0, List.of(), unknown);
+        }
+
+        final var gameIds = jdbcTemplate.queryForList(NEXT_GAME_IDS, Long.class, requests.size());
+        final var now = LocalDateTime.now();
+        final var games = new ArrayList<GameRecordedEvent>(requests.size());
+        final var rows = new ArrayList<Object[]>(requests.size());
+        final var seats = new ArrayList<Object[]>(requests.size() * 4);
+        for (int i = 0; i < requests.size(); i++) {
+            final var request = requests.get(i);
+            final var game = new GameRecordedEvent(
+                    gameIds.get(i),
+                    playerIds.get(request.whiteTeamPlayer1()),
+                    playerIds.get(request.whiteTeamPlayer2()),
+                    playerIds.get(request.blackTeamPlayer1()),
+                    playerIds.get(request.blackTeamPlayer2()),
+                    request.whiteTeamScore(),
+                    request.blackTeamScore(),
+                    request.playedAt() != null ? request.playedAt() : now);
+            games.add(game);
+            rows.add(new Object[] {
+                game.gameId(),
+                game.whiteTeamPlayer1Id(),
+                game.whiteTeamPlayer2Id(),
+                game.blackTeamPlayer1Id(),
+                game.blackTeamPlayer2Id(),
+                game.whiteTeamScore(),
+                game.blackTeamScore(),
+                game.isWhiteTeamWinner() ? "WHITE" : game.isBlackTeamWinner() ? "BLACK" : null,
+                Timestamp.valueOf(game.playedAt()),
+                request.notes()
+            });
+            final var playedAt = Timestamp.valueOf(game.playedAt());
+            seats.add(
+                    new Object[] {game.whiteTeamPlayer1Id(), playedAt, game.gameId(), "WHITE", 1});
+            seats.add(
+                    new Object[] {game.whiteTeamPlayer2Id(), playedAt, game.gameId(), "WHITE", 2});
+            seats.add(
+                    new Object[] {game.blackTeamPlayer1Id(), playedAt, game.gameId(), "BLACK", 1});
+            seats.add(
+                    new Object[] {game.blackTeamPlayer2Id(), playedAt, game.gameId(), "BLACK", 2});
+        }
+        jdbcTemplate.batchUpdate(INSERT_GAME, rows);
+        jdbcTemplate.batchUpdate(INSERT_PLAYER_GAME, seats);
+
+        // Ratings are order dependent; the rest are sums
+        games.sort(Comparator.comparing(GameRecordedEvent::playedAt)
+                .thenComparing(GameRecordedEvent::gameId));
+        updateStatistics(games);
+        ratingService.recordGames(games);
+        games.forEach(eventPublisher::publishEvent);
+
+        log.info("Recorded {} games in bulk", games.size());
+        return new BulkGameResponse(games.size(), gameIds, List.of());
+    }
+
+    private void updateStatistics(List<GameRecordedEvent> games) {
+        final var totals = new GameResultTotals(true);
+        games.forEach(totals::add);
+        totals.upsert(playerStatsRepository, dailyStatsRepository, teamStatsRepository);
+    }
+}
@@ -0,0 +1,133 @@
+package com.thonbecker.foosball.service;
+
+import com.thonbecker.foosball.projection.ScoreTally;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Monthly partitions of the games table, for installations that ran the optional
+ * 010-partition-games-by-month changeset. Partitions are named games_pYYYYMM and cover one
+ * calendar month of played_at each; games outside them land in games_default.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GamePartitionService {
+
+    private static final String PREFIX = "games_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String PARTITIONS = "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = 'foosball.games'::regclass";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean isPartitioned() {
+        final var count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = 'foosball.games'::regclass",
+                Long.class);
+        return count != null && count > 0;
+    }
+
+    public List<YearMonth> partitions() {
+        return jdbcTemplate.queryForList(PARTITIONS, String.class).stream()
+                .map(GamePartitionService::month)
+                .flatMap(Optional::stream)
+                .sorted()
+                .toList();
+    }
+
+    // Months that end on or before the cutoff, so every game in them has expired
+    public List<YearMonth> expiredPartitions(LocalDateTime cutoff) {
+        return partitions().stream()
+                .filter(month -> !month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff))
+                .toList();
+    }
+
+    public void createPartitionsThrough(YearMonth last) {
+        final var existing = partitions();
+        for (var month = YearMonth.now(); !month.isAfter(last); month = month.plusMonths(1)) {
+            if (existing.contains(month)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("CREATE TABLE foosball." + name(month)
+                        + " PARTITION OF foosball.games FOR VALUES FROM ('" + month.atDay(1)
+                        + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+                log.info("Created games partition {}", name(month));
+            } catch (DataAccessException e) {
+                // Usually rows for that month already sit in games_default
+                log.warn("Could not create games partition {}", name(month), e);
+            }
+        }
+    }
+
+    /**
+     * Drops one month of games, with their player_games rows, and returns the score tallies of
+     * what was in it.
+     */
+    @Transactional
+    public List<ScoreTally> dropPartition(YearMonth month) {
+        final var table = "foosball." + name(month);
+        // player_games is not partitioned; dropping a partition fires no delete on it
+        jdbcTemplate.update(
+                "DELETE FROM foosball.player_games WHERE played_at >= ? AND played_at < ?",
+                Timestamp.valueOf(month.atDay(1).atStartOfDay()),
+                Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+        final List<ScoreTally> tallies = jdbcTemplate.query(
+                "SELECT white_team_score + black_team_score AS total_score, COUNT(*) AS games, "
+                        + "COUNT(*) FILTER (WHERE winner IS NULL) AS draws FROM " + table
+                        + " GROUP BY 1",
+                (rs, rowNum) -> new Tally(
+                        rs.getInt("total_score"), rs.getLong("games"), rs.getLong("draws")));
+        jdbcTemplate.execute("DROP TABLE " + table);
+        return tallies;
+    }
+
+    private static String name(YearMonth month) {
+        return PREFIX + month.format(SUFFIX);
+    }
+
+    private static Optional<YearMonth> month(String table) {
+        if (!table.startsWith(PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(table.substring(PREFIX.length()), SUFFIX));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private record Tally(int totalScore, long games, long draws) implements ScoreTally {
+
+        @Override
+        public Integer getTotalScore() {
+            return totalScore;
+        }
+
+        @Override
+        public Long getGames() {
+            return games;
+        }
+
+        @Override
+        public Long getDraws() {
+            return draws;
+        }
+    }
+}
@@ -1,22 +1,28 @@
 package com.thonbecker.foosball.service;
 
 import com.thonbecker.foosball.entity.*;
+import com.thonbecker.foosball.event.TournamentChangedEvent;
 import com.thonbecker.foosball.model.*;
 import com.thonbecker.foosball.projection.BracketView;
 import com.thonbecker.foosball.projection.TournamentSummary;
 import com.thonbecker.foosball.repository.*;
+import com.thonbecker.foosball.service.tournament.StandingsRanking;
+import com.thonbecker.foosball.service.tournament.TournamentMatchWriter;
+import com.thonbecker.foosball.service.tournament.algorithm.DoubleEliminationAlgorithm;
+import com.thonbecker.foosball.service.tournament.algorithm.RoundRobinAlgorithm;
 import com.thonbecker.foosball.service.tournament.algorithm.SingleEliminationAlgorithm;
 import com.thonbecker.foosball.service.tournament.algorithm.TournamentAlgorithm;
 
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -32,9 +38,16 @@ public class TournamentService {
     private final TournamentStandingRepository standingRepository;
     private final PlayerRepository playerRepository;
     private final GameRepository gameRepository;
+    private final StandingsRanking standingsRanking;
+    private final TournamentMatchWriter matchWriter;
 
     // Tournament algorithms
     private final SingleEliminationAlgorithm singleEliminationAlgorithm;
+    private final DoubleEliminationAlgorithm doubleEliminationAlgorithm;
+    private final RoundRobinAlgorithm roundRobinAlgorithm;
+
+    // Other nodes hear about writes through the invalidation bus
+    private final ApplicationEventPublisher eventPublisher;
 
     // Tournament CRUD Operations
     public Tournament createTournament(CreateTournamentRequest request, Long createdById) {
@@ -45,11 +58,8 @@ public class TournamentService {
                 .orElseThrow(() ->
                         new EntityNotFoundException("Player not found with id: " + createdById));
 
-        // For now, only support single elimination
-        if (request.tournamentType() != Tournament.TournamentType.SINGLE_ELIMINATION) {
-            throw new UnsupportedOperationException(
-                    "Currently only single elimination tournaments are supported");
-        }
+        // For now, only support the formats with an algorithm
+        requireSupported(request.tournamentType());
 
         var tournament = new Tournament(request.name(), request.tournamentType(), creator);
         tournament.setDescription(request.description());
@@ -59,7 +69,7 @@ public class TournamentService {
         tournament.setStartDate(request.startDate());
         tournament.setSettings(request.settings());
 
-        return tournamentRepository.save(tournament);
+        return changed(tournamentRepository.save(tournament));
     }
 
     public Tournament updateTournament(Long tournamentId, UpdateTournamentRequest request) {
@@ -77,10 +87,7 @@ public class TournamentService {
         if (request.name() != null) tournament.setName(request.name());
         if (request.description() != null) tournament.setDescription(request.description());
         if (request.tournamentType() != null) {
-            if (request.tournamentType() != Tournament.TournamentType.SINGLE_ELIMINATION) {
-                throw new UnsupportedOperationException(
-                        "Currently only single elimination tournaments are supported");
-            }
+            requireSupported(request.tournamentType());
             tournament.setTournamentType(request.tournamentType());
         }
         if (request.maxParticipants() != null)
@@ -92,7 +99,7 @@ public class TournamentService {
         if (request.startDate() != null) tournament.setStartDate(request.startDate());
         if (request.settings() != null) tournament.setSettings(request.settings());
 
-        return tournamentRepository.save(tournament);
+        return changed(tournamentRepository.save(tournament));
     }
 
     public Tournament getTournamentById(Long tournamentId) {
@@ -120,6 +127,7 @@ public class TournamentService {
         return tournamentRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Page<TournamentSummary> getTournamentSummaries(Pageable pageable) {
         return tournamentRepository.findTournamentSummaries(pageable);
     }
@@ -144,6 +152,8 @@ public class TournamentService {
 
         log.info("Deleting tournament: {}", tournamentId);
         tournamentRepository.delete(tournament);
+        standingsRanking.invalidate(tournamentId);
+        eventPublisher.publishEvent(new TournamentChangedEvent(tournamentId));
     }
 
     // Tournament Status Management
@@ -153,7 +163,7 @@ public class TournamentService {
         var tournament = getTournamentById(tournamentId);
         tournament.openRegistration();
 
-        return tournamentRepository.save(tournament);
+        return changed(tournamentRepository.save(tournament));
     }
 
     public Tournament closeRegistration(Long tournamentId) {
@@ -162,7 +172,7 @@ public class TournamentService {
         var tournament = getTournamentById(tournamentId);
         tournament.closeRegistration();
 
-        return tournamentRepository.save(tournament);
+        return changed(tournamentRepository.save(tournament));
     }
 
     public Tournament startTournament(Long tournamentId) {
@@ -179,7 +189,7 @@ public class TournamentService {
         generateBracket(tournament);
 
         tournament.start();
-        return tournamentRepository.save(tournament);
+        return changed(tournamentRepository.save(tournament));
     }
 
     public Tournament cancelTournament(Long tournamentId) {
@@ -188,7 +198,7 @@ public class TournamentService {
         var tournament = getTournamentById(tournamentId);
         tournament.cancel();
 
-        return tournamentRepository.save(tournament);
+        return changed(tournamentRepository.save(tournament));
     }
 
     // Registration Management
@@ -232,7 +242,9 @@ public class TournamentService {
             registration = new TournamentRegistration(tournament, player);
         }
 
-        return registrationRepository.save(registration);
+        final var saved = registrationRepository.save(registration);
+        eventPublisher.publishEvent(new TournamentChangedEvent(tournamentId));
+        return saved;
     }
 
     public void withdrawFromTournament(Long tournamentId, Long playerId) {
@@ -252,6 +264,7 @@ public class TournamentService {
 
         registration.withdraw();
         registrationRepository.save(registration);
+        eventPublisher.publishEvent(new TournamentChangedEvent(tournamentId));
     }
 
     public List<TournamentRegistration> getTournamentRegistrations(Long tournamentId) {
@@ -270,8 +283,12 @@ public class TournamentService {
         var algorithm = getTournamentAlgorithm(tournament.getTournamentType());
         var matches = algorithm.generateBracket(tournament, activeRegistrations);
 
-        // Save all matches
-        matchRepository.saveAll(matches);
+        // Save all matches; unlinked ones go straight to the table
+        if (algorithm.hasLinkedMatches()) {
+            matchRepository.saveAll(matches);
+        } else {
+            matchWriter.insert(matches);
+        }
 
         log.info("Generated {} matches for tournament {}", matches.size(), tournament.getId());
     }
@@ -279,15 +296,28 @@ public class TournamentService {
     private TournamentAlgorithm getTournamentAlgorithm(Tournament.TournamentType type) {
         return switch (type) {
             case SINGLE_ELIMINATION -> singleEliminationAlgorithm;
+            case DOUBLE_ELIMINATION -> doubleEliminationAlgorithm;
+            case ROUND_ROBIN -> roundRobinAlgorithm;
             default ->
                 throw new UnsupportedOperationException("Tournament type not supported: " + type);
         };
     }
 
+    private void requireSupported(Tournament.TournamentType type) {
+        if (type != Tournament.TournamentType.SINGLE_ELIMINATION
+                && type != Tournament.TournamentType.DOUBLE_ELIMINATION
+                && type != Tournament.TournamentType.ROUND_ROBIN) {
+            throw new UnsupportedOperationException(
+                    "Currently only elimination and round robin tournaments are supported");
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<TournamentMatch> getTournamentMatches(Long tournamentId) {
         return matchRepository.findByTournamentIdOrderByRoundNumberAscMatchNumberAsc(tournamentId);
     }
 
+    @Transactional(readOnly = true)
     public List<BracketView> getBracketView(Long tournamentId) {
         return matchRepository.findBracketView(tournamentId);
     }
@@ -328,9 +358,12 @@ public class TournamentService {
             var tournament = match.getTournament();
             tournament.complete();
             tournamentRepository.save(tournament);
+            standingsRanking.invalidate(tournament.getId());
             log.info("Tournament {} completed", tournament.getId());
         }
 
+        eventPublisher.publishEvent(
+                new TournamentChangedEvent(match.getTournament().getId()));
         return match;
     }
 
@@ -359,6 +392,8 @@ public class TournamentService {
         List<TournamentMatch> updatedMatches = algorithm.advanceWinner(match);
         matchRepository.saveAll(updatedMatches);
 
+        eventPublisher.publishEvent(
+                new TournamentChangedEvent(match.getTournament().getId()));
         return match;
     }
 
@@ -404,27 +439,23 @@ public class TournamentService {
         team1Standing.recordMatch(match);
         team2Standing.recordMatch(match);
 
+        // Move the two standings; only positions that changed are written
+        standingsRanking.update(tournament.getId(), List.of(team1Standing, team2Standing));
+
         // Save updated standings
         standingRepository.save(team1Standing);
         standingRepository.save(team2Standing);
 
-        // Recalculate positions for all standings in the tournament
-        recalculateStandingPositions(tournament.getId());
-
         log.info("Successfully updated standings for match {}", match.getId());
     }
 
-    private void recalculateStandingPositions(Long tournamentId) {
-        var standings = standingRepository.findByTournamentIdOrderByPointsDesc(tournamentId);
-
-        for (int i = 0; i < standings.size(); i++) {
-            standings.get(i).setPosition(i + 1);
-        }
-
-        standingRepository.saveAll(standings);
-    }
-
+    @Transactional(readOnly = true)
     public List<TournamentStanding> getTournamentStandings(Long tournamentId) {
         return standingRepository.findByTournamentIdOrderByPointsDesc(tournamentId);
     }
+
+    private Tournament changed(Tournament tournament) {
+        eventPublisher.publishEvent(new TournamentChangedEvent(tournament.getId()));
+        return tournament;
+    }
 }
@@ -0,0 +1,280 @@
+package com.thonbecker.foosball.service.archive;
+
+import com.thonbecker.foosball.event.GameRecordedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Local archive of the games the retention cleanup deletes, one columnar file per month of
+ * played_at (see GameArchiveCodec). The cleanup archives each chunk before deleting it, in a
+ * separate step, so a chunk whose delete failed is both archived and still in the games table
+ * until the next cleanup deletes it. A write replaces the month file atomically and skips ids it
+ * already holds, and a replay skips archived games that are still in the games table, so neither
+ * counts such a game twice. Reading a month maps its file and never touches the database.
+ *
+ * <p>Whichever node holds the cleanup lock writes the files, so the directory must be storage
+ * every node shares. Each written month is recorded in archived_months; a node whose directory
+ * lacks one of them refuses to start, and a rebuild or replay that would read the archive checks
+ * again before it wipes anything.
+ */
+@Slf4j
+@Service
+public class GameArchive {
+
+    private static final String PREFIX = "games-";
+    private static final String SUFFIX = ".fga";
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private static final String COLUMNS =
+            "SELECT id, white_team_player1_id, white_team_player2_id, "
+                    + "black_team_player1_id, black_team_player2_id, white_team_score, black_team_score, played_at "
+                    + "FROM foosball.games ";
+
+    private static final Comparator<GameRecordedEvent> PLAY_ORDER = Comparator.comparing(
+                    GameRecordedEvent::playedAt)
+            .thenComparing(GameRecordedEvent::gameId);
+
+    private static final String RECORD_MONTH =
+            "INSERT INTO foosball.archived_months (month, games) VALUES (?, ?) "
+                    + "ON CONFLICT (month) DO UPDATE SET games = EXCLUDED.games, archived_at = now()";
+
+    private static final RowMapper<GameRecordedEvent> ROW = (rs, rowNum) -> new GameRecordedEvent(
+            rs.getLong("id"),
+            rs.getLong("white_team_player1_id"),
+            rs.getLong("white_team_player2_id"),
+            rs.getLong("black_team_player1_id"),
+            rs.getLong("black_team_player2_id"),
+            rs.getInt("white_team_score"),
+            rs.getInt("black_team_score"),
+            rs.getTimestamp("played_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+    private final boolean enabled;
+
+    @Autowired
+    public GameArchive(
+            JdbcTemplate jdbcTemplate,
+            @Value("${foosball.archive.dir:data/archive}") Path directory,
+            @Value("${foosball.archive.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = directory;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Writing: the expired games of one cleanup chunk, or one month about to be dropped
+
+    public int archiveExpired(LocalDateTime cutoff, long fromId, long toId) {
+        return write(jdbcTemplate.query(
+                COLUMNS + "WHERE id >= ? AND id < ? AND played_at < ?",
+                ROW,
+                fromId,
+                toId,
+                Timestamp.valueOf(cutoff)));
+    }
+
+    public int archiveMonth(YearMonth month) {
+        return write(jdbcTemplate.query(
+                COLUMNS + "WHERE played_at >= ? AND played_at < ?",
+                ROW,
+                Timestamp.valueOf(month.atDay(1).atStartOfDay()),
+                Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay())));
+    }
+
+    /**
+     * Adds games to their month files and returns how many were new. Throws if a file cannot be
+     * written, so the caller never deletes games that are not safely archived.
+     */
+    public synchronized int write(List<GameRecordedEvent> games) {
+        if (!enabled || games.isEmpty()) {
+            return 0;
+        }
+        final var byMonth = new TreeMap<YearMonth, List<GameRecordedEvent>>();
+        games.forEach(game -> byMonth.computeIfAbsent(
+                        YearMonth.from(game.playedAt()), m -> new ArrayList<>())
+                .add(game));
+
+        var added = 0;
+        try {
+            Files.createDirectories(directory);
+            for (var entry : byMonth.entrySet()) {
+                final var merged = new HashMap<Long, GameRecordedEvent>();
+                read(entry.getKey(), game -> merged.put(game.gameId(), game));
+                final var before = merged.size();
+                entry.getValue().forEach(game -> merged.putIfAbsent(game.gameId(), game));
+                if (merged.size() == before) {
+                    continue;
+                }
+                final var rows = new ArrayList<>(merged.values());
+                rows.sort(PLAY_ORDER);
+                replace(file(entry.getKey()), GameArchiveCodec.encode(rows));
+                jdbcTemplate.update(RECORD_MONTH, entry.getKey().atDay(1), rows.size());
+                added += merged.size() - before;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the game archive in " + directory, e);
+        }
+        log.debug("Archived {} games into {} month files", added, byMonth.size());
+        return added;
+    }
+
+    // Reading
+
+    public List<YearMonth> months() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (var files = Files.list(directory)) {
+            return files.map(path -> month(path.getFileName().toString()))
+                    .flatMap(Optional::stream)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list the game archive in " + directory, e);
+        }
+    }
+
+    // Months written by any node that are not in this node's directory
+    public List<YearMonth> missingMonths() {
+        if (!enabled) {
+            return List.of();
+        }
+        final var local = new HashSet<>(months());
+        return jdbcTemplate
+                .queryForList(
+                        "SELECT month FROM foosball.archived_months ORDER BY month",
+                        LocalDate.class)
+                .stream()
+                .map(YearMonth::from)
+                .filter(month -> !local.contains(month))
+                .toList();
+    }
+
+    // Called before anything that would be rebuilt from an incomplete archive is wiped
+    public void requireComplete() {
+        final var missing = missingMonths();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("The game archive in " + directory.toAbsolutePath()
+                    + " lacks " + missing + ", archived by another instance. "
+                    + "foosball.archive.dir must be storage shared by every instance.");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkShared() {
+        requireComplete();
+    }
+
+    // One month in play order; returns the number of games read
+    public long read(YearMonth month, Consumer<GameRecordedEvent> consumer) {
+        final var file = file(month);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel closes and after the file is replaced
+            final ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return GameArchiveCodec.decode(mapped, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + file, e);
+        }
+    }
+
+    /**
+     * Every archived game that is no longer in the games table, oldest month first and in play
+     * order within a month. Archived games are older than the retained ones, so replaying the
+     * archive and then the games table walks the whole history in play order, each game once.
+     */
+    public long replay(Consumer<GameRecordedEvent> consumer) {
+        final var games = new long[1];
+        for (var month : months()) {
+            final var retained = retainedIds(month);
+            read(month, game -> {
+                if (!retained.contains(game.gameId())) {
+                    games[0]++;
+                    consumer.accept(game);
+                }
+            });
+        }
+        return games[0];
+    }
+
+    // Ids of the month's games still in the games table: the cutoff month's retained games, and
+    // any chunk whose delete did not go through
+    private Set<Long> retainedIds(YearMonth month) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM foosball.games WHERE played_at >= ? AND played_at < ?",
+                Long.class,
+                Timestamp.valueOf(month.atDay(1).atStartOfDay()),
+                Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay())));
+    }
+
+    private void replace(Path file, byte[] content) throws IOException {
+        final var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(
+                temp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final var buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path file(YearMonth month) {
+        return directory.resolve(PREFIX + month.format(MONTH) + SUFFIX);
+    }
+
+    private static Optional<YearMonth> month(String fileName) {
+        if (!fileName.startsWith(PREFIX) || !fileName.endsWith(SUFFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(
+                    fileName.substring(PREFIX.length(), fileName.length() - SUFFIX.length()),
+                    MONTH));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
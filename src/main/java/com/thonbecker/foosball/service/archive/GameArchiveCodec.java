@@ -0,0 +1,162 @@
+package com.thonbecker.foosball.service.archive;
+
+import com.thonbecker.foosball.event.GameRecordedEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Columnar encoding of one month of games.
+ *
+ * <pre>
+ * int    magic "FGA1"
+ * int    rows
+ * int    dictionary size, then that many longs: the distinct player ids, ascending
+ * int[8] start offset of each column
+ * column 0   game id, zigzag varint delta from the previous row
+ * column 1   played_at in epoch microseconds (UTC wall clock), zigzag varint delta
+ * column 2-5 the four seats as varint dictionary indexes
+ * column 6-7 white and black score as varints
+ * </pre>
+ *
+ * Rows are stored in play order, so ids and timestamps mostly encode in one or two bytes and a
+ * seat in one; a game costs around 12 bytes instead of a ~100 byte table row.
+ */
+final class GameArchiveCodec {
+
+    private static final int MAGIC = 0x46474131;
+    private static final int COLUMNS = 8;
+
+    private GameArchiveCodec() {}
+
+    // Games must already be in play order
+    static byte[] encode(List<GameRecordedEvent> games) {
+        final var dictionary = games.stream()
+                .flatMap(game -> seats(game).stream())
+                .mapToLong(Long::longValue)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        final var columns = new ByteArrayOutputStream[COLUMNS];
+        Arrays.setAll(columns, i -> new ByteArrayOutputStream());
+        long previousId = 0;
+        long previousMicros = 0;
+        for (var game : games) {
+            writeVarLong(columns[0], zigzag(game.gameId() - previousId));
+            previousId = game.gameId();
+            final var micros = micros(game.playedAt());
+            writeVarLong(columns[1], zigzag(micros - previousMicros));
+            previousMicros = micros;
+            final var seats = seats(game);
+            for (int i = 0; i < seats.size(); i++) {
+                writeVarLong(columns[2 + i], Arrays.binarySearch(dictionary, seats.get(i)));
+            }
+            writeVarLong(columns[6], game.whiteTeamScore());
+            writeVarLong(columns[7], game.blackTeamScore());
+        }
+
+        final var headerSize =
+                3 * Integer.BYTES + dictionary.length * Long.BYTES + COLUMNS * Integer.BYTES;
+        final var size = headerSize
+                + Arrays.stream(columns).mapToInt(ByteArrayOutputStream::size).sum();
+        final var buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(games.size()).putInt(dictionary.length);
+        for (var playerId : dictionary) {
+            buffer.putLong(playerId);
+        }
+        var offset = headerSize;
+        for (var column : columns) {
+            buffer.putInt(offset);
+            offset += column.size();
+        }
+        for (var column : columns) {
+            buffer.put(column.toByteArray());
+        }
+        return buffer.array();
+    }
+
+    // Walks the columns side by side; nothing but the current row is materialised
+    static long decode(ByteBuffer buffer, Consumer<GameRecordedEvent> consumer) {
+        final var data = buffer.duplicate();
+        if (data.remaining() < 3 * Integer.BYTES || data.getInt() != MAGIC) {
+            throw new IllegalStateException("Not a game archive");
+        }
+        final var rows = data.getInt();
+        final var dictionary = new long[data.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = data.getLong();
+        }
+        final var columns = new ByteBuffer[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            columns[i] = buffer.duplicate().position(data.getInt());
+        }
+
+        long id = 0;
+        long micros = 0;
+        for (int row = 0; row < rows; row++) {
+            id += unzigzag(readVarLong(columns[0]));
+            micros += unzigzag(readVarLong(columns[1]));
+            consumer.accept(new GameRecordedEvent(
+                    id,
+                    dictionary[(int) readVarLong(columns[2])],
+                    dictionary[(int) readVarLong(columns[3])],
+                    dictionary[(int) readVarLong(columns[4])],
+                    dictionary[(int) readVarLong(columns[5])],
+                    (int) readVarLong(columns[6]),
+                    (int) readVarLong(columns[7]),
+                    playedAt(micros)));
+        }
+        return rows;
+    }
+
+    private static List<Long> seats(GameRecordedEvent game) {
+        return List.of(
+                game.whiteTeamPlayer1Id(),
+                game.whiteTeamPlayer2Id(),
+                game.blackTeamPlayer1Id(),
+                game.blackTeamPlayer2Id());
+    }
+
+    private static long micros(LocalDateTime playedAt) {
+        return ChronoUnit.MICROS.between(
+                LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), playedAt);
+    }
+
+    private static LocalDateTime playedAt(long micros) {
+        return LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC).plus(micros, ChronoUnit.MICROS);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            final var b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.thonbecker.foosball.service.cluster;
+
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.GamesPurgedEvent;
+import com.thonbecker.foosball.event.PlayerCreatedEvent;
+import com.thonbecker.foosball.event.PlayerRatingsChangedEvent;
+import com.thonbecker.foosball.event.RatingsReplayedEvent;
+import com.thonbecker.foosball.event.StatisticsRebuiltEvent;
+import com.thonbecker.foosball.event.TournamentChangedEvent;
+import com.thonbecker.foosball.model.RatingReplayResponse;
+import com.thonbecker.foosball.model.StatsRebuildResponse;
+import com.thonbecker.foosball.projection.ScoreTally;
+import com.thonbecker.foosball.service.rating.RatingChange;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * One change per line of a NOTIFY payload: a type letter and space separated fields.
+ *
+ * <pre>
+ * P id name              player created (name URL-encoded)
+ * U                      players written through Spring Data REST
+ * G id w1 w2 b1 b2 ws bs playedAt
+ * R gameId player:before:after ...
+ * D totalScore:games:draws ...
+ * S playerRows teamRows dailyRows archivedGames
+ * Q replayedGames ratedPlayers
+ * T tournamentId
+ * *                      anything may have changed
+ * </pre>
+ *
+ * A game is around 60 bytes, so one 8000 byte payload carries a hundred or so changes.
+ */
+final class ChangeCodec {
+
+    // Decoded changes that have no domain event of their own
+    enum Reset {
+        PLAYERS,
+        ALL
+    }
+
+    private ChangeCodec() {}
+
+    // Null for events other nodes do not need
+    static String encode(Object event) {
+        return switch (event) {
+            case PlayerCreatedEvent e ->
+                "P " + e.playerId() + " " + URLEncoder.encode(e.name(), StandardCharsets.UTF_8);
+            case GameRecordedEvent e ->
+                join(
+                        "G",
+                        e.gameId(),
+                        e.whiteTeamPlayer1Id(),
+                        e.whiteTeamPlayer2Id(),
+                        e.blackTeamPlayer1Id(),
+                        e.blackTeamPlayer2Id(),
+                        e.whiteTeamScore(),
+                        e.blackTeamScore(),
+                        e.playedAt());
+            case PlayerRatingsChangedEvent e ->
+                "R " + e.gameId() + " "
+                        + e.changes().stream()
+                                .map(c -> c.playerId() + ":" + c.ratingBefore() + ":"
+                                        + c.ratingAfter())
+                                .collect(Collectors.joining(" "));
+            case GamesPurgedEvent e ->
+                "D "
+                        + e.deleted().stream()
+                                .map(t ->
+                                        t.getTotalScore() + ":" + t.getGames() + ":" + t.getDraws())
+                                .collect(Collectors.joining(" "));
+            case StatisticsRebuiltEvent e ->
+                join(
+                        "S",
+                        e.result().playerStatsRows(),
+                        e.result().teamStatsRows(),
+                        e.result().dailyStatsRows(),
+                        e.result().archivedGames());
+            case RatingsReplayedEvent e ->
+                join("Q", e.result().replayedGames(), e.result().ratedPlayers());
+            case TournamentChangedEvent e -> "T " + e.tournamentId();
+            case Reset reset -> reset == Reset.ALL ? "*" : "U";
+            default -> null;
+        };
+    }
+
+    // The event to publish locally, or a Reset
+    static Object decode(String line) {
+        final var f = line.strip().split(" ");
+        return switch (f[0]) {
+            case "P" ->
+                new PlayerCreatedEvent(
+                        Long.valueOf(f[1]),
+                        f.length > 2 ? URLDecoder.decode(f[2], StandardCharsets.UTF_8) : "");
+            case "G" ->
+                new GameRecordedEvent(
+                        Long.valueOf(f[1]),
+                        Long.valueOf(f[2]),
+                        Long.valueOf(f[3]),
+                        Long.valueOf(f[4]),
+                        Long.valueOf(f[5]),
+                        Integer.parseInt(f[6]),
+                        Integer.parseInt(f[7]),
+                        LocalDateTime.parse(f[8]));
+            case "R" -> {
+                final var changes = new ArrayList<RatingChange>();
+                for (var change : Arrays.copyOfRange(f, 2, f.length)) {
+                    final var c = change.split(":");
+                    changes.add(new RatingChange(
+                            Long.valueOf(c[0]),
+                            Double.parseDouble(c[1]),
+                            Double.parseDouble(c[2])));
+                }
+                yield new PlayerRatingsChangedEvent(Long.valueOf(f[1]), changes);
+            }
+            case "D" -> {
+                final var tallies = new ArrayList<ScoreTally>();
+                for (var tally : Arrays.copyOfRange(f, 1, f.length)) {
+                    final var t = tally.split(":");
+                    tallies.add(new Tally(
+                            Integer.valueOf(t[0]), Long.valueOf(t[1]), Long.valueOf(t[2])));
+                }
+                yield new GamesPurgedEvent(tallies);
+            }
+            case "S" ->
+                new StatisticsRebuiltEvent(new StatsRebuildResponse(
+                        Integer.parseInt(f[1]),
+                        Integer.parseInt(f[2]),
+                        Integer.parseInt(f[3]),
+                        Long.parseLong(f[4])));
+            case "Q" ->
+                new RatingsReplayedEvent(
+                        new RatingReplayResponse(Integer.parseInt(f[1]), Integer.parseInt(f[2])));
+            case "T" -> new TournamentChangedEvent(Long.valueOf(f[1]));
+            case "U" -> Reset.PLAYERS;
+            case "*" -> Reset.ALL;
+            default -> throw new IllegalArgumentException("Unknown change: " + line);
+        };
+    }
+
+    private static String join(String type, Object... fields) {
+        return type + " "
+                + Arrays.stream(fields).map(String::valueOf).collect(Collectors.joining(" "));
+    }
+
+    private record Tally(Integer totalScore, Long games, Long draws) implements ScoreTally {
+
+        @Override
+        public Integer getTotalScore() {
+            return totalScore;
+        }
+
+        @Override
+        public Long getGames() {
+            return games;
+        }
+
+        @Override
+        public Long getDraws() {
+            return draws;
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.thonbecker.foosball.service.cluster;
+
+import com.thonbecker.foosball.config.SecondLevelCache;
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.GamesPurgedEvent;
+import com.thonbecker.foosball.event.PlayerCreatedEvent;
+import com.thonbecker.foosball.event.PlayerRatingsChangedEvent;
+import com.thonbecker.foosball.event.RatingsReplayedEvent;
+import com.thonbecker.foosball.event.StatisticsRebuiltEvent;
+import com.thonbecker.foosball.event.TournamentChangedEvent;
+import com.thonbecker.foosball.service.cluster.ChangeCodec.Reset;
+import com.thonbecker.foosball.service.player.PlayerDirectory;
+import com.thonbecker.foosball.service.stats.GameOverview;
+import com.thonbecker.foosball.service.stats.HeadToHead;
+import com.thonbecker.foosball.service.stats.PlayerLeaderboard;
+import com.thonbecker.foosball.service.tournament.StandingsRanking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Keeps the in-memory views of several nodes in step through Postgres LISTEN/NOTIFY.
+ * After commit, each domain event is encoded as one short line (see ChangeCodec) and queued; a
+ * sender thread packs queued lines into NOTIFY payloads sent in one transaction, so the
+ * committing thread never waits on the database. Every node holds one dedicated connection that
+ * LISTENs on the channel and re-publishes the other nodes' events locally, where the views patch
+ * themselves exactly as they do for their own writes.
+ * A node that could not listen for a while, or that had to drop queued changes, cannot tell what
+ * it missed, so it asks for (or performs) a full invalidation instead.
+ */
+@Slf4j
+@Component
+@RepositoryEventHandler
+public class InvalidationBus {
+
+    static final String CHANNEL = "foosball_changes";
+
+    // NOTIFY payloads must stay below 8000 bytes
+    private static final int MAX_PAYLOAD = 7900;
+    private static final int MAX_QUEUED = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlayerDirectory playerDirectory;
+    private final PlayerLeaderboard playerLeaderboard;
+    private final HeadToHead headToHead;
+    private final GameOverview gameOverview;
+    private final SecondLevelCache secondLevelCache;
+    private final StandingsRanking standingsRanking;
+    private final boolean enabled;
+    private final Duration reconnectDelay;
+
+    // Tells this node's notifications from the others'
+    private final String node = Long.toHexString(new SplittableRandom().nextLong());
+    private final BlockingQueue<String> outbox = new LinkedBlockingQueue<>(MAX_QUEUED);
+    private final Counter sent;
+    private final Counter received;
+    private final Counter resets;
+    private volatile boolean running;
+    private volatile boolean listening;
+    private volatile Thread listener;
+    private volatile Thread sender;
+
+    @Autowired
+    public InvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            DataSourceProperties dataSourceProperties,
+            ApplicationEventPublisher eventPublisher,
+            PlayerDirectory playerDirectory,
+            PlayerLeaderboard playerLeaderboard,
+            HeadToHead headToHead,
+            GameOverview gameOverview,
+            SecondLevelCache secondLevelCache,
+            StandingsRanking standingsRanking,
+            MeterRegistry meterRegistry,
+            @Value("${foosball.invalidation.enabled:true}") boolean enabled,
+            @Value("${foosball.invalidation.reconnect-delay:PT5S}") Duration reconnectDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataSourceProperties = dataSourceProperties;
+        this.eventPublisher = eventPublisher;
+        this.playerDirectory = playerDirectory;
+        this.playerLeaderboard = playerLeaderboard;
+        this.headToHead = headToHead;
+        this.gameOverview = gameOverview;
+        this.secondLevelCache = secondLevelCache;
+        this.standingsRanking = standingsRanking;
+        this.enabled = enabled;
+        this.reconnectDelay = reconnectDelay;
+        this.sent = meterRegistry.counter("foosball.invalidation.changes", "direction", "sent");
+        this.received =
+                meterRegistry.counter("foosball.invalidation.changes", "direction", "received");
+        this.resets = meterRegistry.counter("foosball.invalidation.resets");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        if (!String.valueOf(dataSourceProperties.determineUrl()).startsWith("jdbc:postgresql:")) {
+            log.info("Cross-node invalidation needs PostgreSQL, staying local");
+            return;
+        }
+        running = true;
+        listener = Thread.ofPlatform().name("invalidation-listener").daemon().start(this::listen);
+        sender = Thread.ofPlatform().name("invalidation-sender").daemon().start(this::send);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        for (var thread : new Thread[] {listener, sender}) {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    // Outgoing: this node's committed writes
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlayerCreated(PlayerCreatedEvent event) {
+        publish(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlayerRatingsChanged(PlayerRatingsChangedEvent event) {
+        publish(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGameRecorded(GameRecordedEvent event) {
+        publish(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGamesPurged(GamesPurgedEvent event) {
+        publish(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatisticsRebuilt(StatisticsRebuiltEvent event) {
+        publish(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingsReplayed(RatingsReplayedEvent event) {
+        publish(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTournamentChanged(TournamentChangedEvent event) {
+        publish(event);
+    }
+
+    // Players written through the Spring Data REST endpoints bypass FoosballService
+    @HandleAfterCreate
+    @HandleAfterSave
+    @HandleAfterDelete
+    public void onPlayerChanged(Player player) {
+        publish(Reset.PLAYERS);
+    }
+
+    private void publish(Object event) {
+        if (!running || Thread.currentThread() == listener) {
+            return; // Not listening, or replaying another node's change
+        }
+        final var line = ChangeCodec.encode(event);
+        if (line != null && !outbox.offer(line)) {
+            // Too far behind to send every change; the other nodes reload instead
+            outbox.clear();
+            outbox.offer(ChangeCodec.encode(Reset.ALL));
+        }
+    }
+
+    private void send() {
+        final var lines = new ArrayList<String>();
+        while (running) {
+            try {
+                lines.add(outbox.take());
+                outbox.drainTo(lines);
+                // NOTIFY needs the primary, but as a transaction that writes nothing it does not
+                // hold reads back from the replica
+                transactionTemplate.executeWithoutResult(status -> notify(lines));
+                sent.increment(lines.size());
+                lines.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The lines are lost, so the other nodes must not rely on what they hold
+                log.warn("Could not send {} changes to other nodes", lines.size(), e);
+                lines.clear();
+                outbox.offer(ChangeCodec.encode(Reset.ALL));
+                sleep(reconnectDelay);
+            }
+        }
+    }
+
+    // Packs the lines into as few payloads as fit
+    private void notify(List<String> lines) {
+        final var payload = new StringBuilder(node);
+        var bytes = node.length();
+        for (var line : lines) {
+            final var size = line.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (bytes + size > MAX_PAYLOAD) {
+                jdbcTemplate.queryForObject(
+                        "SELECT pg_notify(?, ?)", String.class, CHANNEL, payload.toString());
+                payload.setLength(0);
+                payload.append(node);
+                bytes = node.length();
+            }
+            payload.append('\n').append(line);
+            bytes += size;
+        }
+        jdbcTemplate.queryForObject(
+                "SELECT pg_notify(?, ?)", String.class, CHANNEL, payload.toString());
+    }
+
+    // Incoming: the other nodes' changes
+
+    private void listen() {
+        var connected = false;
+        while (running) {
+            try (var connection = connect()) {
+                try (var statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                final var notifications = connection.unwrap(PGConnection.class);
+                listening = true;
+                if (connected) {
+                    invalidateAll(); // Whatever was sent while we were away is lost
+                }
+                connected = true;
+                log.info("Listening for changes from other nodes on {}", CHANNEL);
+                while (running) {
+                    final var batch = notifications.getNotifications(1000);
+                    if (batch == null) {
+                        continue;
+                    }
+                    for (var notification : batch) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                listening = false;
+                if (running) {
+                    log.warn("Lost the invalidation connection, reconnecting", e);
+                    sleep(reconnectDelay);
+                }
+            }
+        }
+        listening = false;
+    }
+
+    void receive(String payload) {
+        final var lines = payload.split("\n");
+        if (lines[0].equals(node)) {
+            return;
+        }
+        for (int i = 1; i < lines.length; i++) {
+            try {
+                apply(ChangeCodec.decode(lines[i]));
+                received.increment();
+            } catch (RuntimeException e) {
+                log.warn("Could not apply change '{}' from node {}", lines[i], lines[0], e);
+                invalidateAll();
+            }
+        }
+    }
+
+    private void apply(Object change) {
+        switch (change) {
+            case Reset.PLAYERS -> {
+                playerDirectory.invalidate();
+                playerLeaderboard.invalidate();
+                secondLevelCache.evictPlayers();
+            }
+            case Reset.ALL -> invalidateAll();
+            // Hibernate's cache and the standings ranking only see this node's writes
+            case TournamentChangedEvent changed -> {
+                secondLevelCache.evictTournament(changed.tournamentId());
+                standingsRanking.invalidate(changed.tournamentId());
+                eventPublisher.publishEvent(change);
+            }
+            case PlayerCreatedEvent created -> {
+                secondLevelCache.evictPlayerQueries();
+                eventPublisher.publishEvent(change);
+            }
+            default -> eventPublisher.publishEvent(change);
+        }
+    }
+
+    private void invalidateAll() {
+        resets.increment();
+        playerDirectory.invalidate();
+        playerLeaderboard.invalidate();
+        headToHead.invalidate();
+        gameOverview.invalidate();
+        secondLevelCache.evictAll();
+        standingsRanking.invalidate();
+    }
+
+    // Outside the pool, so a long-lived LISTEN never holds back a request
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.thonbecker.foosball.service.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.LeaderboardChangedEvent;
+import com.thonbecker.foosball.model.LeaderboardDelta;
+import com.thonbecker.foosball.model.LeaderboardDelta.PositionChange;
+import com.thonbecker.foosball.service.stats.PlayerLeaderboard;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-sent events for dashboards: every recorded game ("game") followed by the ranked
+ * leaderboard positions it changed ("leaderboard").
+ * Publishing never blocks the committing thread: each message is serialized once and offered to
+ * every subscriber's bounded buffer, dropping the subscriber's oldest message when it is full.
+ * Each subscriber is drained by its own virtual thread, so thousands of idle connections cost
+ * parked virtual threads rather than platform threads. Event ids are consecutive, so a client
+ * can tell from a gap that it fell behind and should re-read the full leaderboard.
+ */
+@Slf4j
+@Component
+public class LiveFeed {
+
+    private final PlayerLeaderboard playerLeaderboard;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final Duration timeout;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Counter dropped;
+
+    // Last positions sent, by player id; guarded by this
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    @Autowired
+    public LiveFeed(
+            PlayerLeaderboard playerLeaderboard,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${foosball.live.buffer-size:256}") int bufferSize,
+            @Value("${foosball.live.timeout:PT30M}") Duration timeout) {
+        this.playerLeaderboard = playerLeaderboard;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.dropped = meterRegistry.counter("foosball.live.dropped");
+        meterRegistry.gaugeCollectionSize("foosball.live.subscribers", Tags.empty(), subscribers);
+    }
+
+    public SseEmitter subscribe() {
+        // Clients reconnect on timeout; EventSource does so by itself
+        return subscribe(new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        final var subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        synchronized (this) {
+            if (subscribers.isEmpty()) {
+                positions.clear();
+                final var ranked = playerLeaderboard.ranked(1, Integer.MAX_VALUE);
+                for (int i = 0; i < ranked.size(); i++) {
+                    positions.put(ranked.get(i).getId(), i + 1);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        Thread.ofVirtual().name("live-feed-subscriber").start(subscriber);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // Ahead of the leaderboard's own listener, so a game always precedes its delta
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGameRecorded(GameRecordedEvent event) {
+        if (!subscribers.isEmpty()) {
+            broadcast("game", event);
+        }
+    }
+
+    @EventListener
+    public synchronized void onLeaderboardChanged(LeaderboardChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            positions.clear(); // The next subscriber starts from a fresh snapshot
+            return;
+        }
+        // Only the positions the game moved are compared, not the whole board
+        final var moved = playerLeaderboard.ranked(event.fromRank(), event.toRank());
+        final var changes = new ArrayList<PositionChange>();
+        for (int i = 0; i < moved.size(); i++) {
+            final var player = moved.get(i);
+            final var position = event.fromRank() + i;
+            final var previous = positions.put(player.getId(), position);
+            if (!Objects.equals(previous, position)) {
+                changes.add(new PositionChange(
+                        player.getId(), player.getName(), previous, position, player.getRating()));
+            }
+        }
+        if (!changes.isEmpty()) {
+            broadcast("leaderboard", new LeaderboardDelta(event.gameId(), changes));
+        }
+    }
+
+    // Keeps proxies from closing idle streams and notices clients that went away
+    @Scheduled(fixedRateString = "${foosball.live.heartbeat:PT25S}")
+    public void heartbeat() {
+        final var message = new Message(0, null, null);
+        subscribers.forEach(subscriber -> subscriber.offer(message));
+    }
+
+    // Synchronized so every subscriber sees the ids in order
+    private synchronized void broadcast(String name, Object payload) {
+        final String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize live {} event", name, e);
+            return;
+        }
+        final var message = new Message(sequence.incrementAndGet(), name, json);
+        subscribers.forEach(subscriber -> subscriber.offer(message));
+    }
+
+    // name is null for a heartbeat
+    private record Message(long id, String name, String json) {
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment("keep-alive");
+            }
+            return SseEmitter.event()
+                    .id(Long.toString(id))
+                    .name(name)
+                    .data(json, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private final ArrayDeque<Message> buffer = new ArrayDeque<>();
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(Message message) {
+            lock.lock();
+            try {
+                if (closed || (message.name() == null && !buffer.isEmpty())) {
+                    return; // A subscriber with messages queued needs no heartbeat
+                }
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    dropped.increment();
+                }
+                buffer.addLast(message);
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                final Message message;
+                lock.lock();
+                try {
+                    while (buffer.isEmpty() && !closed) {
+                        available.await();
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    message = buffer.pollFirst();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    emitter.send(message.toEvent());
+                } catch (IOException | IllegalStateException e) {
+                    // Client gone or emitter already completed
+                    close();
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            subscribers.remove(this);
+            lock.lock();
+            try {
+                closed = true;
+                buffer.clear();
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.thonbecker.foosball.service.player;
+
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.event.PlayerCreatedEvent;
+import com.thonbecker.foosball.repository.PlayerRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Node-local directory of players: an id map, a name map and a prefix index over every suffix of
+ * every case-folded name, so name resolution is a hash probe and a substring search is one range
+ * scan of a sorted map. Loaded from the players table on first use and dropped whenever
+ * a player is created, changed or deleted.
+ */
+@Slf4j
+@Component
+@RepositoryEventHandler
+@RequiredArgsConstructor
+public class PlayerDirectory {
+
+    private static final Comparator<Entry> BY_NAME =
+            Comparator.comparing(Entry::name).thenComparingLong(Entry::id);
+
+    private final PlayerRepository playerRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> byId = new HashMap<>();
+    private final Map<String, Entry> byName = new HashMap<>();
+    private final NavigableMap<String, List<Entry>> bySuffix = new TreeMap<>();
+    // A load that overlaps an invalidation must not mark itself current
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile long loadedAt = -1;
+
+    // Queries
+
+    /**
+     * The player with exactly this name; case is only ignored by search, so a recorded game never
+     * lands on a player whose name merely looks alike.
+     * The player is a detached copy without its game collections.
+     */
+    public Optional<Player> findByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(byName.get(name)).map(Entry::toPlayer);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long playerId) {
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            return byId.containsKey(playerId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the players whose name contains the fragment, ignoring case, in name order.
+     */
+    public List<Long> search(String fragment) {
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            final var folded = fold(fragment);
+            final var matches = new HashSet<Entry>();
+            if (folded.isEmpty()) {
+                matches.addAll(byId.values());
+            } else {
+                bySuffix.subMap(folded, true, folded + Character.MAX_VALUE, false)
+                        .values()
+                        .forEach(matches::addAll);
+            }
+            return matches.stream().sorted(BY_NAME).map(Entry::id).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Maintenance
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlayerCreated(PlayerCreatedEvent event) {
+        invalidate();
+    }
+
+    // Players written through the Spring Data REST endpoints bypass FoosballService
+    @HandleAfterCreate
+    @HandleAfterSave
+    @HandleAfterDelete
+    public void onPlayerChanged(Player player) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        invalidations.incrementAndGet();
+    }
+
+    private void ensureFresh() {
+        if (loadedAt == invalidations.get()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            final var target = invalidations.get();
+            if (loadedAt != target) {
+                reload();
+                loadedAt = target;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reload() {
+        byId.clear();
+        byName.clear();
+        bySuffix.clear();
+        for (var player : playerRepository.findAll()) {
+            final var entry = new Entry(
+                    player.getId(), player.getName(), player.getEmail(), player.getCreatedAt());
+            final var folded = fold(entry.name());
+            byId.put(entry.id(), entry);
+            byName.put(entry.name(), entry);
+            // A name is indexed once per suffix, so "contains" becomes a prefix range
+            final Set<String> suffixes = new HashSet<>();
+            for (int i = 0; i < folded.length(); i++) {
+                suffixes.add(folded.substring(i));
+            }
+            for (var suffix : suffixes) {
+                bySuffix.computeIfAbsent(suffix, key -> new ArrayList<>(1)).add(entry);
+            }
+        }
+        log.debug(
+                "Player directory loaded: {} players, {} name suffixes",
+                byId.size(),
+                bySuffix.size());
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(long id, String name, String email, LocalDateTime createdAt) {
+
+        private Player toPlayer() {
+            final var player = new Player(name, email);
+            player.setId(id);
+            player.setCreatedAt(createdAt);
+            return player;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.thonbecker.foosball.service.rating;
+
+/**
+ * Doubles-aware Elo.
+ * A team plays at the average rating of its two players and both players receive the team's
+ * rating change, so every game is zero-sum across the four seats.
+ */
+public final class EloRatingCalculator {
+
+    public static final double INITIAL_RATING = 1500.0;
+    public static final double DEFAULT_K_FACTOR = 32.0;
+
+    private final double kFactor;
+
+    public EloRatingCalculator(double kFactor) {
+        if (kFactor <= 0) {
+            throw new IllegalArgumentException("K-factor must be positive");
+        }
+        this.kFactor = kFactor;
+    }
+
+    public static double teamRating(double player1Rating, double player2Rating) {
+        return (player1Rating + player2Rating) / 2.0;
+    }
+
+    public static double expectedScore(double teamRating, double opponentRating) {
+        return 1.0 / (1.0 + Math.pow(10.0, (opponentRating - teamRating) / 400.0));
+    }
+
+    /**
+     * Rating change for each white team player; black team players receive the negation.
+     */
+    public double whiteTeamDelta(
+            double whiteTeamRating, double blackTeamRating, int whiteScore, int blackScore) {
+        final double actual;
+        if (whiteScore > blackScore) {
+            actual = 1.0;
+        } else if (whiteScore < blackScore) {
+            actual = 0.0;
+        } else {
+            actual = 0.5;
+        }
+        return kFactor * (actual - expectedScore(whiteTeamRating, blackTeamRating));
+    }
+}
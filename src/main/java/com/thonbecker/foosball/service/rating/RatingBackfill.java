@@ -0,0 +1,33 @@
+package com.thonbecker.foosball.service.rating;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes ratings for existing games the first time the application starts with an empty
+ * player_ratings table. Kept outside RatingService so a failed replay rolls back on its own
+ * without failing startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RatingBackfill {
+
+    private final RatingService ratingService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRatings() {
+        try {
+            if (ratingService.needsBackfill()) {
+                final var result = ratingService.replayAll();
+                log.info("Backfilled player ratings: {}", result);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not backfill player ratings, run the replay endpoint manually", e);
+        }
+    }
+}
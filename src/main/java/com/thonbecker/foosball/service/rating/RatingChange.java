@@ -0,0 +1,8 @@
+package com.thonbecker.foosball.service.rating;
+
+public record RatingChange(Long playerId, double ratingBefore, double ratingAfter) {
+
+    public double delta() {
+        return ratingAfter - ratingBefore;
+    }
+}
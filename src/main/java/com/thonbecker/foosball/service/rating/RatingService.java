@@ -0,0 +1,309 @@
+package com.thonbecker.foosball.service.rating;
+
+import com.thonbecker.foosball.entity.Game;
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.PlayerRatingsChangedEvent;
+import com.thonbecker.foosball.event.RatingsReplayedEvent;
+import com.thonbecker.foosball.model.RatingReplayResponse;
+import com.thonbecker.foosball.projection.PlayerRating;
+import com.thonbecker.foosball.projection.RatingHistory;
+import com.thonbecker.foosball.repository.GameRepository;
+import com.thonbecker.foosball.repository.PlayerRatingRepository;
+import com.thonbecker.foosball.service.archive.GameArchive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains player ratings: four incremental updates per recorded game, and a full replay that
+ * reads the game archive and then streams the games table once, in play order.
+ */
+@Service
+@Transactional
+public class RatingService {
+
+    private static final int REPLAY_BATCH_SIZE = 1000;
+
+    private static final String GAMES_IN_PLAY_ORDER = "SELECT id, white_team_player1_id, "
+            + "white_team_player2_id, black_team_player1_id, black_team_player2_id, "
+            + "white_team_score, black_team_score, played_at "
+            + "FROM foosball.games ORDER BY played_at, id";
+
+    private static final String INSERT_HISTORY = "INSERT INTO foosball.rating_history "
+            + "(game_id, player_id, rating_before, rating_after, played_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_RATING =
+            "INSERT INTO foosball.player_ratings (player_id, rating, games_rated) VALUES (?, ?, ?)";
+
+    private final PlayerRatingRepository ratingRepository;
+    private final GameRepository gameRepository;
+    private final GameArchive gameArchive;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EloRatingCalculator calculator;
+
+    @Autowired
+    public RatingService(
+            PlayerRatingRepository ratingRepository,
+            GameRepository gameRepository,
+            GameArchive gameArchive,
+            JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${foosball.rating.k-factor:32}") double kFactor) {
+        this.ratingRepository = ratingRepository;
+        this.gameRepository = gameRepository;
+        this.gameArchive = gameArchive;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.calculator = new EloRatingCalculator(kFactor);
+    }
+
+    // Incremental update, called in the recordGame transaction
+    public List<RatingChange> recordGame(Game game) {
+        final var playerIds = List.of(
+                game.getWhiteTeamPlayer1().getId(),
+                game.getWhiteTeamPlayer2().getId(),
+                game.getBlackTeamPlayer1().getId(),
+                game.getBlackTeamPlayer2().getId());
+
+        final var current = new HashMap<Long, Double>();
+        lockRatings(playerIds)
+                .forEach(rating -> current.put(rating.getPlayerId(), rating.getRating()));
+
+        final var before = new double[playerIds.size()];
+        for (int i = 0; i < before.length; i++) {
+            before[i] = current.getOrDefault(playerIds.get(i), EloRatingCalculator.INITIAL_RATING);
+        }
+        final var whiteDelta = calculator.whiteTeamDelta(
+                EloRatingCalculator.teamRating(before[0], before[1]),
+                EloRatingCalculator.teamRating(before[2], before[3]),
+                game.getWhiteTeamScore(),
+                game.getBlackTeamScore());
+
+        final var changes = new ArrayList<RatingChange>(playerIds.size());
+        for (int i = 0; i < before.length; i++) {
+            final var delta = i < 2 ? whiteDelta : -whiteDelta;
+            final var change = new RatingChange(playerIds.get(i), before[i], before[i] + delta);
+            ratingRepository.applyChange(
+                    change.playerId(), EloRatingCalculator.INITIAL_RATING, delta, 1);
+            ratingRepository.insertHistory(
+                    game.getId(),
+                    change.playerId(),
+                    change.ratingBefore(),
+                    change.ratingAfter(),
+                    game.getPlayedAt());
+            changes.add(change);
+        }
+
+        eventPublisher.publishEvent(new PlayerRatingsChangedEvent(game.getId(), changes));
+        return changes;
+    }
+
+    /**
+     * Rates a batch of already inserted games in the given order: one query for the current
+     * ratings, one upsert per player for the summed delta, and one JDBC batch for the history.
+     */
+    public void recordGames(List<GameRecordedEvent> games) {
+        final var playerIds = new LinkedHashSet<Long>();
+        for (var game : games) {
+            playerIds.addAll(List.of(
+                    game.whiteTeamPlayer1Id(),
+                    game.whiteTeamPlayer2Id(),
+                    game.blackTeamPlayer1Id(),
+                    game.blackTeamPlayer2Id()));
+        }
+        if (playerIds.isEmpty()) {
+            return;
+        }
+
+        final var ratings = new HashMap<Long, MutableRating>();
+        lockRatings(playerIds).forEach(rating -> {
+            final var current = new MutableRating();
+            current.value = rating.getRating();
+            ratings.put(rating.getPlayerId(), current);
+        });
+        final var deltaSums = new HashMap<Long, Double>();
+        final var gameCounts = new HashMap<Long, Integer>();
+        final var history = new ArrayList<Object[]>(games.size() * 4);
+
+        for (var game : games) {
+            final long[] seats = {
+                game.whiteTeamPlayer1Id(),
+                game.whiteTeamPlayer2Id(),
+                game.blackTeamPlayer1Id(),
+                game.blackTeamPlayer2Id()
+            };
+            final var before = new double[seats.length];
+            for (int i = 0; i < seats.length; i++) {
+                before[i] = ratings.computeIfAbsent(seats[i], id -> new MutableRating()).value;
+            }
+            final var whiteDelta = calculator.whiteTeamDelta(
+                    EloRatingCalculator.teamRating(before[0], before[1]),
+                    EloRatingCalculator.teamRating(before[2], before[3]),
+                    game.whiteTeamScore(),
+                    game.blackTeamScore());
+
+            final var changes = new ArrayList<RatingChange>(seats.length);
+            for (int i = 0; i < seats.length; i++) {
+                final var delta = i < 2 ? whiteDelta : -whiteDelta;
+                ratings.get(seats[i]).value += delta;
+                deltaSums.merge(seats[i], delta, Double::sum);
+                gameCounts.merge(seats[i], 1, Integer::sum);
+                changes.add(new RatingChange(seats[i], before[i], before[i] + delta));
+                history.add(new Object[] {
+                    game.gameId(),
+                    seats[i],
+                    before[i],
+                    before[i] + delta,
+                    Timestamp.valueOf(game.playedAt())
+                });
+            }
+            eventPublisher.publishEvent(new PlayerRatingsChangedEvent(game.gameId(), changes));
+        }
+
+        deltaSums.forEach((playerId, delta) -> ratingRepository.applyChange(
+                playerId, EloRatingCalculator.INITIAL_RATING, delta, gameCounts.get(playerId)));
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, history);
+    }
+
+    /*
+     * Another game's transaction may be rating the same players. The rows are locked before the
+     * ratings are read, so every game starts from the ratings the previous one committed and the
+     * history chains exactly as a replay would write it.
+     */
+    private List<PlayerRating> lockRatings(Collection<Long> playerIds) {
+        ratingRepository.insertMissing(playerIds, EloRatingCalculator.INITIAL_RATING);
+        return ratingRepository.lockByPlayerIds(playerIds);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RatingHistory> getRatingHistory(Long playerId, int limit) {
+        return ratingRepository.findHistoryByPlayerId(playerId, limit);
+    }
+
+    /**
+     * Rebuilds every rating and the history in one streaming pass: first the games the retention
+     * cleanup archived, then the retained games. With the archive enabled, ratings come out the
+     * same as the incremental updates left them, cleanups or not, as long as games were recorded
+     * in play order. With foosball.archive.enabled=false a cleanup deletes games for good, so a
+     * replay rates only the retained games and its ratings move away from the incremental ones.
+     */
+    public RatingReplayResponse replayAll() {
+        gameArchive.requireComplete();
+        ratingRepository.deleteAllHistory();
+        ratingRepository.deleteAllRatings();
+
+        final var replay = new Replay();
+        gameArchive.replay(replay::replayArchived);
+        jdbcTemplate.query(
+                connection -> {
+                    final var statement = connection.prepareStatement(GAMES_IN_PLAY_ORDER);
+                    // Postgres only streams with a fetch size inside a transaction
+                    statement.setFetchSize(REPLAY_BATCH_SIZE);
+                    return statement;
+                },
+                replay);
+        replay.flushHistory();
+
+        final var ratingRows = new ArrayList<Object[]>(replay.ratings.size());
+        replay.ratings.forEach((playerId, rating) ->
+                ratingRows.add(new Object[] {playerId, rating.value, rating.games}));
+        jdbcTemplate.batchUpdate(INSERT_RATING, ratingRows);
+
+        final var result = new RatingReplayResponse(replay.games, ratingRows.size());
+        eventPublisher.publishEvent(new RatingsReplayedEvent(result));
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean needsBackfill() {
+        return ratingRepository.countRatings() == 0
+                && (gameRepository.count() > 0 || !gameArchive.months().isEmpty());
+    }
+
+    private static final class MutableRating {
+        private double value = EloRatingCalculator.INITIAL_RATING;
+        private int games;
+    }
+
+    private final class Replay implements RowCallbackHandler {
+        private final Map<Long, MutableRating> ratings = new HashMap<>();
+        private final List<Object[]> history = new ArrayList<>(REPLAY_BATCH_SIZE);
+        private final long[] seats = new long[4];
+        private final MutableRating[] seatRatings = new MutableRating[4];
+        private final double[] before = new double[4];
+        private int games;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            seats[0] = rs.getLong("white_team_player1_id");
+            seats[1] = rs.getLong("white_team_player2_id");
+            seats[2] = rs.getLong("black_team_player1_id");
+            seats[3] = rs.getLong("black_team_player2_id");
+            replay(
+                    rs.getLong("id"),
+                    rs.getInt("white_team_score"),
+                    rs.getInt("black_team_score"),
+                    rs.getTimestamp("played_at"));
+        }
+
+        private void replayArchived(GameRecordedEvent game) {
+            seats[0] = game.whiteTeamPlayer1Id();
+            seats[1] = game.whiteTeamPlayer2Id();
+            seats[2] = game.blackTeamPlayer1Id();
+            seats[3] = game.blackTeamPlayer2Id();
+            replay(
+                    game.gameId(),
+                    game.whiteTeamScore(),
+                    game.blackTeamScore(),
+                    Timestamp.valueOf(game.playedAt()));
+        }
+
+        private void replay(long gameId, int whiteScore, int blackScore, Timestamp playedAt) {
+            for (int i = 0; i < seats.length; i++) {
+                seatRatings[i] = ratings.computeIfAbsent(seats[i], id -> new MutableRating());
+                before[i] = seatRatings[i].value;
+            }
+            final var whiteDelta = calculator.whiteTeamDelta(
+                    EloRatingCalculator.teamRating(before[0], before[1]),
+                    EloRatingCalculator.teamRating(before[2], before[3]),
+                    whiteScore,
+                    blackScore);
+
+            for (int i = 0; i < seats.length; i++) {
+                final var delta = i < 2 ? whiteDelta : -whiteDelta;
+                // Same accumulation as the incremental upsert, so a repeated seat counts twice
+                seatRatings[i].value += delta;
+                seatRatings[i].games++;
+                history.add(
+                        new Object[] {gameId, seats[i], before[i], before[i] + delta, playedAt});
+            }
+            games++;
+            if (history.size() >= REPLAY_BATCH_SIZE) {
+                flushHistory();
+            }
+        }
+
+        private void flushHistory() {
+            if (!history.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_HISTORY, history);
+                history.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.thonbecker.foosball.service.stats;
+
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.GamesPurgedEvent;
+import com.thonbecker.foosball.event.StatisticsRebuiltEvent;
+import com.thonbecker.foosball.model.StatsOverviewResponse;
+import com.thonbecker.foosball.projection.ScoreTally;
+import com.thonbecker.foosball.repository.GameRepository;
+import com.thonbecker.foosball.service.player.PlayerDirectory;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Running totals behind /stats/overview.
+ * Games are kept as a histogram of total score, so count, goal sum, draws, min and max all stay
+ * exact as games are recorded, without going back to the games table. A purge or a rebuild
+ * reloads the histogram in one aggregate query. Every change bumps the version the ETag is
+ * derived from. A recorded game at or below the newest id the load saw may already be counted,
+ * so it marks the totals stale instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GameOverview {
+
+    public record Snapshot(String etag, StatsOverviewResponse overview) {}
+
+    private final GameRepository gameRepository;
+    private final PlayerDirectory playerDirectory;
+
+    // Distinguishes this instance's versions from those of a previous run or another node
+    private final String instance = Long.toHexString(new SplittableRandom().nextLong());
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Integer, Long> byTotalScore = new TreeMap<>();
+    private long games;
+    private long draws;
+    private long goals;
+    private long version;
+    private long loadedThroughGameId;
+    private volatile boolean stale = true;
+
+    public Snapshot snapshot() {
+        ensureFresh();
+        // Read outside the lock; the directory has its own
+        final var players = playerDirectory.size();
+        lock.readLock().lock();
+        try {
+            final var overview = new StatsOverviewResponse(
+                    games,
+                    players,
+                    games - draws,
+                    draws,
+                    games == 0 ? null : (double) goals / games,
+                    byTotalScore.isEmpty() ? null : byTotalScore.lastKey(),
+                    byTotalScore.isEmpty() ? null : byTotalScore.firstKey());
+            return new Snapshot("\"" + instance + "-" + version + "-" + players + "\"", overview);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Maintenance
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGameRecorded(GameRecordedEvent event) {
+        lock.writeLock().lock();
+        try {
+            // Checked under the lock, so a load in progress is either finished or not yet begun
+            if (stale) {
+                return; // The next load reads the committed game
+            }
+            if (event.gameId() <= loadedThroughGameId) {
+                stale = true; // Ids are not committed in order, so the load may or may not have it
+                return;
+            }
+            final var draw = event.isDraw() ? 1 : 0;
+            apply(event.whiteTeamScore() + event.blackTeamScore(), 1, draw);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A purge commits before its event, so a load in between has already left the games out;
+    // with no way to tell, the totals are reloaded rather than reduced by the deleted tallies
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGamesPurged(GamesPurgedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatisticsRebuilt(StatisticsRebuiltEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        stale = true;
+    }
+
+    private void ensureFresh() {
+        if (!stale) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (stale) {
+                reload(gameRepository.countGamesByTotalScore());
+                // Read after the tallies, so every game they counted is at or below it
+                loadedThroughGameId = gameRepository.findLastGameId();
+                stale = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reload(List<ScoreTally> tallies) {
+        byTotalScore.clear();
+        games = 0;
+        draws = 0;
+        goals = 0;
+        for (var tally : tallies) {
+            apply(tally.getTotalScore(), tally.getGames(), tally.getDraws());
+        }
+        version++;
+        log.debug(
+                "Game overview loaded: {} games over {} distinct totals",
+                games,
+                byTotalScore.size());
+    }
+
+    private void apply(int totalScore, long gameDelta, long drawDelta) {
+        if (byTotalScore.merge(totalScore, gameDelta, Long::sum) <= 0) {
+            byTotalScore.remove(totalScore);
+        }
+        games += gameDelta;
+        draws += drawDelta;
+        goals += gameDelta * totalScore;
+    }
+}
@@ -0,0 +1,118 @@
+package com.thonbecker.foosball.service.stats;
+
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.repository.PlayerDailyStatsRepository;
+import com.thonbecker.foosball.repository.PlayerStatsRepository;
+import com.thonbecker.foosball.repository.TeamStatsRepository;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sums game results per player, per player and day, and per pair, so a batch of games costs one
+ * upsert per aggregate row rather than one per game. Used for single games too, so every path
+ * counts a game the same way as the rebuild queries.
+ */
+public final class GameResultTotals {
+
+    private final Map<Long, Totals> players = new HashMap<>();
+    private final Map<PlayerDay, Totals> days = new HashMap<>();
+    private final Map<Pair, Totals> pairs = new HashMap<>();
+    private final boolean daily;
+    private long games;
+
+    // Daily buckets are left out for games older than the retention window
+    public GameResultTotals(boolean daily) {
+        this.daily = daily;
+    }
+
+    public void add(GameRecordedEvent game) {
+        final var day = game.playedAt().toLocalDate();
+        final var white = game.whiteTeamScore();
+        final var black = game.blackTeamScore();
+        final var whiteWon = game.isWhiteTeamWinner();
+        final var blackWon = game.isBlackTeamWinner();
+        final var draw = game.isDraw();
+        final var whiteTeam = List.of(game.whiteTeamPlayer1Id(), game.whiteTeamPlayer2Id());
+        final var blackTeam = List.of(game.blackTeamPlayer1Id(), game.blackTeamPlayer2Id());
+
+        // As the old views counted: a player in two seats plays the game once and wins if either
+        // seat won, and a pair on both sides plays together once
+        final var players = new LinkedHashSet<Long>(whiteTeam);
+        players.addAll(blackTeam);
+        for (var playerId : players) {
+            final var onWhite = whiteTeam.contains(playerId);
+            final var won = onWhite && whiteWon || blackTeam.contains(playerId) && blackWon;
+            addPlayer(playerId, day, won, draw, onWhite ? white : black, onWhite ? black : white);
+        }
+        final var samePair = pair(whiteTeam).equals(pair(blackTeam));
+        addPair(whiteTeam, samePair ? !draw : whiteWon, white);
+        if (!samePair) {
+            addPair(blackTeam, blackWon, black);
+        }
+        games++;
+    }
+
+    public long games() {
+        return games;
+    }
+
+    public void upsert(
+            PlayerStatsRepository playerStatsRepository,
+            PlayerDailyStatsRepository dailyStatsRepository,
+            TeamStatsRepository teamStatsRepository) {
+        players.forEach((playerId, t) -> playerStatsRepository.recordResult(
+                playerId, t.games, t.wins, t.draws, t.goalsFor, t.goalsAgainst));
+        days.forEach((key, t) -> dailyStatsRepository.recordResult(
+                key.playerId(), key.day(), t.games, t.wins, t.draws, t.goalsFor, t.goalsAgainst));
+        pairs.forEach((key, t) -> teamStatsRepository.recordResult(
+                key.player1Id(), key.player2Id(), t.games, t.wins, t.goalsFor));
+    }
+
+    private void addPlayer(
+            Long playerId, LocalDate day, boolean won, boolean draw, int scored, int conceded) {
+        total(players, playerId).add(won, draw, scored, conceded);
+        if (daily) {
+            total(days, new PlayerDay(playerId, day)).add(won, draw, scored, conceded);
+        }
+    }
+
+    private void addPair(List<Long> team, boolean won, int teamScore) {
+        final var key = pair(team);
+        if (key.player1Id() == key.player2Id()) {
+            return; // One player in both seats is not a pair
+        }
+        total(pairs, key).add(won, false, teamScore, 0);
+    }
+
+    private static Pair pair(List<Long> team) {
+        return new Pair(Math.min(team.get(0), team.get(1)), Math.max(team.get(0), team.get(1)));
+    }
+
+    private static <K> Totals total(Map<K, Totals> totals, K key) {
+        return totals.computeIfAbsent(key, k -> new Totals());
+    }
+
+    private record PlayerDay(long playerId, LocalDate day) {}
+
+    private record Pair(long player1Id, long player2Id) {}
+
+    private static final class Totals {
+        private int games;
+        private int wins;
+        private int draws;
+        private int goalsFor;
+        private int goalsAgainst;
+
+        private void add(boolean won, boolean draw, int scored, int conceded) {
+            games++;
+            wins += won ? 1 : 0;
+            draws += draw ? 1 : 0;
+            goalsFor += scored;
+            goalsAgainst += conceded;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.thonbecker.foosball.service.stats;
+
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.GamesPurgedEvent;
+import com.thonbecker.foosball.event.StatisticsRebuiltEvent;
+import com.thonbecker.foosball.model.RivalryResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sparse head-to-head matrix, player vs player and pair vs pair.
+ * Both matrices are hash maps keyed by two 32-bit ids packed into one long (lower id in the high
+ * half), so a lookup is one hash probe. Pairs are first mapped to a dense int through a pair
+ * dictionary so that pair-vs-pair keys fit the same packing. Built from the retained games in one
+ * pass on first use, then updated as games are recorded. A recorded game at or below the newest id
+ * the pass saw may already be counted, so it marks the matrix stale instead.
+ */
+@Slf4j
+@Component
+public class HeadToHead {
+
+    // Two ids are packed into one long key
+    public static final long MAX_PLAYER_ID = 0xFFFFFFFFL;
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String GAMES = "SELECT id, white_team_player1_id, white_team_player2_id, "
+            + "black_team_player1_id, black_team_player2_id, white_team_score, black_team_score "
+            + "FROM foosball.games";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnly;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Tally> playerMatchups = new HashMap<>();
+    private final Map<Long, Tally> pairMatchups = new HashMap<>();
+    private final Map<Long, Integer> pairIndex = new HashMap<>();
+    private long loadedThroughGameId;
+    private volatile boolean stale = true;
+
+    public HeadToHead(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Read-only, so the pass may go to the replica, and streams with the fetch size
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    // Queries
+    public RivalryResponse players(long player1Id, long player2Id) {
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            final var tally = player1Id == player2Id
+                    ? null
+                    : playerMatchups.get(
+                            pack(Math.min(player1Id, player2Id), Math.max(player1Id, player2Id)));
+            return response(List.of(player1Id), List.of(player2Id), tally, player1Id > player2Id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RivalryResponse pairs(
+            long team1Player1Id, long team1Player2Id, long team2Player1Id, long team2Player2Id) {
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            final var side1 = List.of(team1Player1Id, team1Player2Id);
+            final var side2 = List.of(team2Player1Id, team2Player2Id);
+            final var pair1 = pairIndex.get(pairKey(team1Player1Id, team1Player2Id));
+            final var pair2 = pairIndex.get(pairKey(team2Player1Id, team2Player2Id));
+            if (pair1 == null || pair2 == null || pair1.equals(pair2)) {
+                return response(side1, side2, null, false);
+            }
+            final var tally =
+                    pairMatchups.get(pack(Math.min(pair1, pair2), Math.max(pair1, pair2)));
+            return response(side1, side2, tally, pair1 > pair2);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Maintenance
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGameRecorded(GameRecordedEvent event) {
+        lock.writeLock().lock();
+        try {
+            // Checked under the lock, so a load in progress is either finished or not yet begun
+            if (stale) {
+                return; // The next load reads the committed game
+            }
+            if (event.gameId() <= loadedThroughGameId) {
+                stale = true; // Ids are not committed in order, so the load may or may not have it
+                return;
+            }
+            apply(
+                    event.whiteTeamPlayer1Id(),
+                    event.whiteTeamPlayer2Id(),
+                    event.blackTeamPlayer1Id(),
+                    event.blackTeamPlayer2Id(),
+                    event.whiteTeamScore(),
+                    event.blackTeamScore());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The matrix covers the retained games only, so purged games leave it
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGamesPurged(GamesPurgedEvent event) {
+        stale = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatisticsRebuilt(StatisticsRebuiltEvent event) {
+        stale = true;
+    }
+
+    public void invalidate() {
+        stale = true;
+    }
+
+    private void ensureFresh() {
+        if (!stale) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (stale) {
+                reload();
+                stale = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reload() {
+        playerMatchups.clear();
+        pairMatchups.clear();
+        pairIndex.clear();
+        loadedThroughGameId = 0;
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    final var statement = connection.prepareStatement(GAMES);
+                    statement.setFetchSize(FETCH_SIZE);
+                    return statement;
+                },
+                (RowCallbackHandler) rs -> {
+                    loadedThroughGameId = Math.max(loadedThroughGameId, rs.getLong("id"));
+                    apply(
+                            rs.getLong("white_team_player1_id"),
+                            rs.getLong("white_team_player2_id"),
+                            rs.getLong("black_team_player1_id"),
+                            rs.getLong("black_team_player2_id"),
+                            rs.getInt("white_team_score"),
+                            rs.getInt("black_team_score"));
+                }));
+        log.debug(
+                "Head-to-head loaded: {} player matchups, {} pair matchups",
+                playerMatchups.size(),
+                pairMatchups.size());
+    }
+
+    private void apply(
+            long white1, long white2, long black1, long black2, int whiteScore, int blackScore) {
+        // Each distinct white player against each distinct black player
+        recordPlayers(white1, black1, whiteScore, blackScore);
+        if (black2 != black1) {
+            recordPlayers(white1, black2, whiteScore, blackScore);
+        }
+        if (white2 != white1) {
+            recordPlayers(white2, black1, whiteScore, blackScore);
+            if (black2 != black1) {
+                recordPlayers(white2, black2, whiteScore, blackScore);
+            }
+        }
+
+        final var whitePair =
+                pairIndex.computeIfAbsent(pairKey(white1, white2), key -> pairIndex.size());
+        final var blackPair =
+                pairIndex.computeIfAbsent(pairKey(black1, black2), key -> pairIndex.size());
+        if (!whitePair.equals(blackPair)) {
+            record(pairMatchups, whitePair, blackPair, whiteScore, blackScore);
+        }
+    }
+
+    private void recordPlayers(long player, long opponent, int score, int opponentScore) {
+        if (player != opponent) {
+            record(playerMatchups, player, opponent, score, opponentScore);
+        }
+    }
+
+    private static void record(
+            Map<Long, Tally> matchups, long side, long opponent, int score, int opponentScore) {
+        if (side < opponent) {
+            matchups.computeIfAbsent(pack(side, opponent), key -> new Tally())
+                    .record(score, opponentScore);
+        } else {
+            matchups.computeIfAbsent(pack(opponent, side), key -> new Tally())
+                    .record(opponentScore, score);
+        }
+    }
+
+    private static RivalryResponse response(
+            List<Long> side1, List<Long> side2, Tally tally, boolean swapped) {
+        if (tally == null) {
+            return new RivalryResponse(side1, side2, 0, 0, 0, 0, 0, 0);
+        }
+        final var draws = tally.games - tally.lowerWins - tally.higherWins;
+        return swapped
+                ? new RivalryResponse(
+                        side1,
+                        side2,
+                        tally.games,
+                        tally.higherWins,
+                        tally.lowerWins,
+                        draws,
+                        tally.higherGoals,
+                        tally.lowerGoals)
+                : new RivalryResponse(
+                        side1,
+                        side2,
+                        tally.games,
+                        tally.lowerWins,
+                        tally.higherWins,
+                        draws,
+                        tally.lowerGoals,
+                        tally.higherGoals);
+    }
+
+    private static long pairKey(long player1Id, long player2Id) {
+        return pack(Math.min(player1Id, player2Id), Math.max(player1Id, player2Id));
+    }
+
+    static long pack(long low, long high) {
+        if (low < 0 || high < 0 || low > MAX_PLAYER_ID || high > MAX_PLAYER_ID) {
+            throw new IllegalArgumentException("Ids must fit in 32 bits to be packed");
+        }
+        return (low << 32) | high;
+    }
+
+    // Results from the point of view of the lower key
+    private static final class Tally {
+        private int games;
+        private int lowerWins;
+        private int higherWins;
+        private int lowerGoals;
+        private int higherGoals;
+
+        private void record(int lowerScore, int higherScore) {
+            games++;
+            if (lowerScore > higherScore) {
+                lowerWins++;
+            } else if (higherScore > lowerScore) {
+                higherWins++;
+            }
+            lowerGoals += lowerScore;
+            higherGoals += higherScore;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.thonbecker.foosball.service.stats;
+
+import com.thonbecker.foosball.projection.PlayerStats;
+import com.thonbecker.foosball.service.rating.EloRatingCalculator;
+
+/**
+ * Immutable, primitive-backed player record held by {@link PlayerLeaderboard}.
+ * Implements the same projection the SQL queries return so callers and JSON output are unchanged.
+ */
+public final class LeaderboardEntry implements PlayerStats {
+
+    private final long id;
+    private final String name;
+    private final int totalGames;
+    private final int wins;
+    private final double rating;
+
+    LeaderboardEntry(long id, String name, int totalGames, int wins, double rating) {
+        this.id = id;
+        this.name = name;
+        this.totalGames = totalGames;
+        this.wins = wins;
+        this.rating = rating;
+    }
+
+    static LeaderboardEntry from(PlayerStats stats) {
+        return new LeaderboardEntry(
+                stats.getId(),
+                stats.getName(),
+                stats.getTotalGames() == null ? 0 : stats.getTotalGames().intValue(),
+                stats.getWins() == null ? 0 : stats.getWins().intValue(),
+                stats.getRating() == null ? EloRatingCalculator.INITIAL_RATING : stats.getRating());
+    }
+
+    LeaderboardEntry withResult(boolean won) {
+        return new LeaderboardEntry(id, name, totalGames + 1, won ? wins + 1 : wins, rating);
+    }
+
+    LeaderboardEntry withRatingDelta(double delta) {
+        return new LeaderboardEntry(id, name, totalGames, wins, rating + delta);
+    }
+
+    long id() {
+        return id;
+    }
+
+    int totalGames() {
+        return totalGames;
+    }
+
+    int wins() {
+        return wins;
+    }
+
+    double rating() {
+        return rating;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Long getTotalGames() {
+        return (long) totalGames;
+    }
+
+    @Override
+    public Long getWins() {
+        return (long) wins;
+    }
+
+    @Override
+    public Double getWinPercentage() {
+        return totalGames == 0 ? null : wins * 100.0 / totalGames;
+    }
+
+    @Override
+    public Double getRating() {
+        return rating;
+    }
+
+    @Override
+    public String toString() {
+        return "LeaderboardEntry{id=" + id + ", name=" + name + ", totalGames=" + totalGames
+                + ", wins=" + wins + ", rating=" + rating + "}";
+    }
+}
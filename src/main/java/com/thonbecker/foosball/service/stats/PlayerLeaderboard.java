@@ -0,0 +1,398 @@
+package com.thonbecker.foosball.service.stats;
+
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.LeaderboardChangedEvent;
+import com.thonbecker.foosball.event.PlayerCreatedEvent;
+import com.thonbecker.foosball.event.PlayerRatingsChangedEvent;
+import com.thonbecker.foosball.event.RatingsReplayedEvent;
+import com.thonbecker.foosball.event.StatisticsRebuiltEvent;
+import com.thonbecker.foosball.model.PlayerRankResponse;
+import com.thonbecker.foosball.projection.PlayerStats;
+import com.thonbecker.foosball.repository.GameRepository;
+import com.thonbecker.foosball.repository.PlayerStatsRepository;
+import com.thonbecker.foosball.service.rating.EloRatingCalculator;
+import com.thonbecker.foosball.util.OrderStatisticTree;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory player leaderboard.
+ * Keeps one order-statistic index per leaderboard ordering, plus one for the ranked board, so a
+ * recorded game costs O(log n) per index, top-K / minGames queries never hit the database and a
+ * single player's rank is a positional lookup. Loaded from player_stats on first use and reloaded
+ * whenever the aggregates are rebuilt.
+ *
+ * <p>A load remembers the newest game id it may have counted. An event for a game at or below it
+ * may already be in the load, and ids are not committed in order, so such an event marks the
+ * board stale instead of being applied twice or lost.
+ */
+@Slf4j
+@Component
+@RepositoryEventHandler
+@RequiredArgsConstructor
+public class PlayerLeaderboard {
+
+    // The overall ranking has always hidden players with fewer games than this
+    public static final int RANKED_MIN_GAMES = 5;
+
+    public enum Ordering {
+        WIN_PERCENTAGE(
+                PlayerLeaderboard::compareWinPercentage, PlayerLeaderboard::compareTotalGames),
+        RATING(PlayerLeaderboard::compareRating, PlayerLeaderboard::compareTotalGames),
+        TOTAL_GAMES(PlayerLeaderboard::compareTotalGames, PlayerLeaderboard::compareWinPercentage),
+        WINS(PlayerLeaderboard::compareWins, PlayerLeaderboard::compareWinPercentage);
+
+        private final Comparator<LeaderboardEntry> comparator;
+
+        Ordering(Comparator<LeaderboardEntry> primary, Comparator<LeaderboardEntry> secondary) {
+            // Player id as the final tie-break keeps every entry distinct inside the index
+            this.comparator =
+                    primary.thenComparing(secondary).thenComparingLong(LeaderboardEntry::id);
+        }
+    }
+
+    private final PlayerStatsRepository playerStatsRepository;
+    private final GameRepository gameRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, LeaderboardEntry> entries = new HashMap<>();
+    private final Map<Ordering, OrderStatisticTree<LeaderboardEntry>> indexes =
+            new EnumMap<>(Ordering.class);
+    // Players with RANKED_MIN_GAMES or more, in rating order
+    private final OrderStatisticTree<LeaderboardEntry> ranked =
+            new OrderStatisticTree<>(Ordering.RATING.comparator);
+    private long loadedThroughGameId;
+    private volatile boolean stale = true;
+    // Zero-based span of ranked positions moved since the last LeaderboardChangedEvent
+    private int movedFrom = Integer.MAX_VALUE;
+    private int movedTo = -1;
+
+    // Queries
+    public List<PlayerStats> top(Ordering ordering, int minGames, int limit) {
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            // The ranked board already excludes players below the threshold
+            final var index = ordering == Ordering.RATING && minGames >= RANKED_MIN_GAMES
+                    ? ranked
+                    : indexes.get(ordering);
+            final var result =
+                    new ArrayList<PlayerStats>(Math.max(0, Math.min(limit, entries.size())));
+            for (var entry : index) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (entry.totalGames() >= minGames) {
+                    result.add(entry);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<PlayerStats> all(Ordering ordering) {
+        return top(ordering, 0, Integer.MAX_VALUE);
+    }
+
+    public Optional<PlayerRankResponse> rankOf(Long playerId, int neighbours) {
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            final var entry = entries.get(playerId);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            final var rankedPlayers = ranked.size();
+            final var index = ranked.rankOf(entry);
+            if (index < 0) {
+                return Optional.of(new PlayerRankResponse(
+                        entry.getId(),
+                        entry.getName(),
+                        entry.getRating(),
+                        entry.getTotalGames(),
+                        null,
+                        rankedPlayers,
+                        null,
+                        RANKED_MIN_GAMES - entry.totalGames(),
+                        List.of(),
+                        List.of()));
+            }
+
+            final var above = new ArrayList<PlayerStats>(neighbours);
+            for (int i = Math.max(0, index - neighbours); i < index; i++) {
+                above.add(ranked.get(i));
+            }
+            final var below = new ArrayList<PlayerStats>(neighbours);
+            for (int i = index + 1; i <= Math.min(rankedPlayers - 1, index + neighbours); i++) {
+                below.add(ranked.get(i));
+            }
+            final var rank = index + 1;
+            return Optional.of(new PlayerRankResponse(
+                    entry.getId(),
+                    entry.getName(),
+                    entry.getRating(),
+                    entry.getTotalGames(),
+                    rank,
+                    rankedPlayers,
+                    (rankedPlayers - rank) * 100.0 / rankedPlayers,
+                    0,
+                    above,
+                    below));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ranked players at the 1-based positions fromRank to toRank, both inclusive
+    public List<PlayerStats> ranked(int fromRank, int toRank) {
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            final var to = Math.min(toRank, ranked.size());
+            final var result = new ArrayList<PlayerStats>(Math.max(0, to - fromRank + 1));
+            for (int rank = Math.max(1, fromRank); rank <= to; rank++) {
+                result.add(ranked.get(rank - 1));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Maintenance
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            ensureFresh();
+            log.info("Player leaderboard loaded with {} players", entries.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not preload player leaderboard, will load on first request", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlayerCreated(PlayerCreatedEvent event) {
+        if (stale) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!entries.containsKey(event.playerId())) {
+                put(new LeaderboardEntry(
+                        event.playerId(), event.name(), 0, 0, EloRatingCalculator.INITIAL_RATING));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGameRecorded(GameRecordedEvent event) {
+        final LeaderboardChangedEvent changed;
+        lock.writeLock().lock();
+        try {
+            // Checked under the lock, so a load in progress is either finished or not yet begun
+            if (stale || coveredByLoad(event.gameId())) {
+                return; // The next reload reads the committed aggregates
+            }
+            // Counted as player_stats counts it: once per player, won if either seat won
+            final var white = List.of(event.whiteTeamPlayer1Id(), event.whiteTeamPlayer2Id());
+            final var black = List.of(event.blackTeamPlayer1Id(), event.blackTeamPlayer2Id());
+            final var players = new LinkedHashSet<Long>(white);
+            players.addAll(black);
+            for (var playerId : players) {
+                recordResult(
+                        playerId,
+                        white.contains(playerId) && event.isWhiteTeamWinner()
+                                || black.contains(playerId) && event.isBlackTeamWinner());
+            }
+            // Rating changes are published before the game, so their moves are included
+            changed = new LeaderboardChangedEvent(
+                    event.gameId(),
+                    movedFrom == Integer.MAX_VALUE ? Integer.MAX_VALUE : movedFrom + 1,
+                    movedTo == Integer.MAX_VALUE ? Integer.MAX_VALUE : movedTo + 1);
+            movedFrom = Integer.MAX_VALUE;
+            movedTo = -1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        eventPublisher.publishEvent(changed);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlayerRatingsChanged(PlayerRatingsChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (stale || coveredByLoad(event.gameId())) {
+                return;
+            }
+            for (var change : event.changes()) {
+                final var current = entries.get(change.playerId());
+                if (current == null) {
+                    stale = true;
+                    return;
+                }
+                replace(current, current.withRatingDelta(change.delta()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatisticsRebuilt(StatisticsRebuiltEvent event) {
+        invalidate();
+    }
+
+    // Players written through the Spring Data REST endpoints bypass FoosballService, so a renamed
+    // or deleted player would otherwise linger in every index
+    @HandleAfterCreate
+    @HandleAfterSave
+    @HandleAfterDelete
+    public void onPlayerChanged(Player player) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingsReplayed(RatingsReplayedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        stale = true;
+    }
+
+    private boolean coveredByLoad(long gameId) {
+        if (gameId > loadedThroughGameId) {
+            return false;
+        }
+        log.debug("Game {} may already be in the leaderboard, scheduling reload", gameId);
+        stale = true;
+        return true;
+    }
+
+    private void recordResult(Long playerId, boolean won) {
+        final var current = entries.get(playerId);
+        if (current == null) {
+            // Player created elsewhere (e.g. another node); fall back to a full reload
+            log.debug("Player {} not in leaderboard, scheduling reload", playerId);
+            stale = true;
+            return;
+        }
+        replace(current, current.withResult(won));
+    }
+
+    private void ensureFresh() {
+        if (!stale) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (stale) {
+                reload();
+                stale = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reload() {
+        entries.clear();
+        ranked.clear();
+        for (var ordering : Ordering.values()) {
+            indexes.put(ordering, new OrderStatisticTree<>(ordering.comparator));
+        }
+        for (var stats : playerStatsRepository.findAllPlayerStats()) {
+            put(LeaderboardEntry.from(stats));
+        }
+        loadedThroughGameId = gameRepository.findLastGameId();
+        // Any position may have moved, so the next change covers the whole board
+        movedFrom = 0;
+        movedTo = Integer.MAX_VALUE;
+    }
+
+    private void replace(LeaderboardEntry current, LeaderboardEntry updated) {
+        final var from = ranked.rankOf(current);
+        remove(current);
+        put(updated);
+        final var to = ranked.rankOf(updated);
+        if (from == to) {
+            return; // Everyone else is back where they were
+        }
+        // Entering or leaving the ranked board moves everyone below by one
+        movedFrom = Math.min(movedFrom, from < 0 ? to : to < 0 ? from : Math.min(from, to));
+        movedTo = Math.max(movedTo, from < 0 || to < 0 ? Integer.MAX_VALUE : Math.max(from, to));
+    }
+
+    private void put(LeaderboardEntry entry) {
+        entries.put(entry.id(), entry);
+        indexes.values().forEach(index -> index.add(entry));
+        if (entry.totalGames() >= RANKED_MIN_GAMES) {
+            ranked.add(entry);
+        }
+    }
+
+    private void remove(LeaderboardEntry entry) {
+        entries.remove(entry.id());
+        indexes.values().forEach(index -> index.remove(entry));
+        ranked.remove(entry);
+    }
+
+    // Comparators (all descending; players without games sort last on win percentage)
+    private static int compareWinPercentage(LeaderboardEntry a, LeaderboardEntry b) {
+        if (a.totalGames() == 0 || b.totalGames() == 0) {
+            return Boolean.compare(a.totalGames() == 0, b.totalGames() == 0);
+        }
+        // Cross-multiplied so equal ratios compare equal without floating point error
+        return Long.compare((long) b.wins() * a.totalGames(), (long) a.wins() * b.totalGames());
+    }
+
+    private static int compareRating(LeaderboardEntry a, LeaderboardEntry b) {
+        return Double.compare(b.rating(), a.rating());
+    }
+
+    private static int compareTotalGames(LeaderboardEntry a, LeaderboardEntry b) {
+        return Integer.compare(b.totalGames(), a.totalGames());
+    }
+
+    private static int compareWins(LeaderboardEntry a, LeaderboardEntry b) {
+        return Integer.compare(b.wins(), a.wins());
+    }
+}
@@ -0,0 +1,78 @@
+package com.thonbecker.foosball.service.stats;
+
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.GamesPurgedEvent;
+import com.thonbecker.foosball.event.PlayerCreatedEvent;
+import com.thonbecker.foosball.event.StatisticsRebuiltEvent;
+import com.thonbecker.foosball.util.SingleFlight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical stats queries that still go to the database. When a game ends every
+ * dashboard refreshes at once; the first caller runs the query and everyone asking for the same
+ * method and arguments meanwhile, or within the time to live, gets its result. Any write that
+ * changes the aggregates drops what is held, so the time to live only matters between writes.
+ */
+@Component
+public class StatsQueries {
+
+    private final SingleFlight flights;
+    private final Counter queried;
+    private final Counter shared;
+
+    @Autowired
+    public StatsQueries(
+            MeterRegistry meterRegistry,
+            @Value("${foosball.stats.shared-for:PT2S}") Duration sharedFor) {
+        this.flights = new SingleFlight(sharedFor);
+        this.queried = meterRegistry.counter("foosball.stats.queries", "outcome", "queried");
+        this.shared = meterRegistry.counter("foosball.stats.queries", "outcome", "shared");
+        meterRegistry.gauge("foosball.stats.queries.held", flights, SingleFlight::size);
+    }
+
+    public <T> T share(String method, List<?> arguments, Supplier<T> query) {
+        final var key = new ArrayList<Object>(arguments.size() + 1);
+        key.add(method);
+        key.addAll(arguments);
+        final var ran = new boolean[1];
+        final var result = flights.get(key, () -> {
+            ran[0] = true;
+            return query.get();
+        });
+        (ran[0] ? queried : shared).increment();
+        return result;
+    }
+
+    // Maintenance
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGameRecorded(GameRecordedEvent event) {
+        flights.invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlayerCreated(PlayerCreatedEvent event) {
+        flights.invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGamesPurged(GamesPurgedEvent event) {
+        flights.invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatisticsRebuilt(StatisticsRebuiltEvent event) {
+        flights.invalidate();
+    }
+}
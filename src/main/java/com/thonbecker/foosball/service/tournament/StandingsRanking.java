@@ -0,0 +1,185 @@
+package com.thonbecker.foosball.service.tournament;
+
+import com.thonbecker.foosball.entity.TournamentStanding;
+import com.thonbecker.foosball.entity.TournamentStanding.RankingKey;
+import com.thonbecker.foosball.repository.TournamentStandingRepository;
+import com.thonbecker.foosball.util.OrderStatisticTree;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps each tournament's standings ranked in memory, in compareByPoints order, so a result only
+ * re-ranks the standings it changed. A standing moving from one place to another shifts only the
+ * places in between; those are the only ones compared, and only rows whose position actually
+ * changed are written. A tournament's ranking is loaded in one query the first time it is needed
+ * and dropped when the tournament completes, is deleted, is changed by another node, or when a
+ * transaction that touched it rolls back.
+ */
+@Slf4j
+@Component
+public class StandingsRanking {
+
+    private static final String UPDATE_POSITION =
+            "UPDATE foosball.tournament_standings SET position = ? WHERE id = ?";
+
+    private final TournamentStandingRepository standingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, Ranking> rankings = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StandingsRanking(
+            TournamentStandingRepository standingRepository, JdbcTemplate jdbcTemplate) {
+        this.standingRepository = standingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Re-ranks the tournament after the given standings changed, or were created. They get their
+     * new position set on the entity; any other standing that moved is updated by id. Must run
+     * in the transaction that saves the standings.
+     */
+    public void update(Long tournamentId, Collection<TournamentStanding> changed) {
+        final var loaded = new boolean[1];
+        final var ranking = rankings.computeIfAbsent(tournamentId, id -> {
+            loaded[0] = true;
+            return load(id);
+        });
+        dropOnRollback(tournamentId);
+        synchronized (ranking) {
+            if (loaded[0]) {
+                // The stored positions are whatever the last full recalculation left
+                reposition(ranking, changed, 0, ranking.order.size() - 1);
+                return;
+            }
+            var from = Integer.MAX_VALUE;
+            var to = -1;
+            final var previous = new ArrayList<Entry>(changed.size());
+            for (var standing : changed) {
+                final var entry = ranking.byId.get(standing.getId());
+                if (entry == null) {
+                    to = Integer.MAX_VALUE; // A new standing pushes down everyone below it
+                } else {
+                    final var rank = ranking.order.rankOf(entry);
+                    from = Math.min(from, rank);
+                    to = Math.max(to, rank);
+                    previous.add(entry);
+                }
+            }
+            previous.forEach(ranking.order::remove);
+            for (var standing : changed) {
+                final var entry = ranking.byId.get(standing.getId());
+                final var moved = new Entry(
+                        standing.getId(),
+                        standing.rankingKey(),
+                        entry == null ? 0 : entry.position);
+                ranking.byId.put(moved.id, moved);
+                ranking.order.add(moved);
+                final var rank = ranking.order.rankOf(moved);
+                from = Math.min(from, rank);
+                to = Math.max(to, rank);
+            }
+            reposition(ranking, changed, from, Math.min(to, ranking.order.size() - 1));
+        }
+    }
+
+    public void invalidate(Long tournamentId) {
+        rankings.remove(tournamentId);
+    }
+
+    public void invalidate() {
+        rankings.clear();
+    }
+
+    // Places outside from..to are exactly as before, so only these can have moved
+    private void reposition(
+            Ranking ranking, Collection<TournamentStanding> changed, int from, int to) {
+        final var entities = new HashMap<Long, TournamentStanding>();
+        changed.forEach(standing -> entities.put(standing.getId(), standing));
+        final var updates = new ArrayList<Object[]>();
+        for (int rank = from; rank <= to; rank++) {
+            final var entry = ranking.order.get(rank);
+            final var position = rank + 1;
+            final var entity = entities.get(entry.id);
+            if (entity != null) {
+                entity.setPosition(position); // Written with the rest of its changes
+            } else if (entry.position != position) {
+                updates.add(new Object[] {position, entry.id});
+            }
+            entry.position = position;
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_POSITION, updates);
+        }
+        log.debug(
+                "Re-ranked places {}..{}, {} other standings moved",
+                from + 1,
+                to + 1,
+                updates.size());
+    }
+
+    private Ranking load(Long tournamentId) {
+        final var ranking = new Ranking();
+        for (var standing : standingRepository.findForRanking(tournamentId)) {
+            final var entry = new Entry(
+                    standing.getId(),
+                    standing.rankingKey(),
+                    standing.getPosition() == null ? 0 : standing.getPosition());
+            ranking.byId.put(entry.id, entry);
+            ranking.order.add(entry);
+        }
+        log.info(
+                "Loaded ranking of {} standings for tournament {}",
+                ranking.byId.size(),
+                tournamentId);
+        return ranking;
+    }
+
+    private void dropOnRollback(Long tournamentId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            if (status != STATUS_COMMITTED) {
+                                invalidate(tournamentId);
+                            }
+                        }
+                    });
+        }
+    }
+
+    private static final class Ranking {
+
+        // compareByPoints order; the id keeps standings with identical keys apart
+        private final OrderStatisticTree<Entry> order = new OrderStatisticTree<>(
+                Comparator.comparing((Entry entry) -> entry.key, RankingKey.ORDER)
+                        .thenComparingLong(entry -> entry.id));
+        private final Map<Long, Entry> byId = new HashMap<>();
+    }
+
+    private static final class Entry {
+
+        private final long id;
+        private final RankingKey key;
+        private int position; // As last written, 0 if never
+
+        private Entry(long id, RankingKey key, int position) {
+            this.id = id;
+            this.key = key;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.thonbecker.foosball.service.tournament;
+
+import com.thonbecker.foosball.entity.TournamentMatch;
+import com.thonbecker.foosball.entity.TournamentRegistration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes matches that don't link to other matches straight to the table, in JDBC batches, so a
+ * large schedule is neither held in the persistence context nor inserted one row at a time. The
+ * matches are read one batch at a time, so a lazily created schedule stays lazy.
+ */
+@Component
+public class TournamentMatchWriter {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_MATCH = "INSERT INTO foosball.tournament_matches "
+            + "(tournament_id, round_number, match_number, bracket_type, "
+            + "team1_registration_id, team2_registration_id, status) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TournamentMatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Must run in the transaction that generates the bracket
+    public void insert(List<TournamentMatch> matches) {
+        final var rows = new ArrayList<Object[]>(Math.min(matches.size(), BATCH_SIZE));
+        for (var match : matches) {
+            rows.add(new Object[] {
+                match.getTournament().getId(),
+                match.getRoundNumber(),
+                match.getMatchNumber(),
+                match.getBracketType().name(),
+                idOf(match.getTeam1()),
+                idOf(match.getTeam2()),
+                match.getStatus().name()
+            });
+            if (rows.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_MATCH, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MATCH, rows);
+        }
+    }
+
+    private static Long idOf(TournamentRegistration registration) {
+        return registration == null ? null : registration.getId();
+    }
+}
@@ -0,0 +1,289 @@
+package com.thonbecker.foosball.service.tournament.algorithm;
+
+import com.thonbecker.foosball.entity.Tournament;
+import com.thonbecker.foosball.entity.TournamentMatch;
+import com.thonbecker.foosball.entity.TournamentRegistration;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Double Elimination Tournament Algorithm
+ * Teams drop into the losers bracket after their first loss and are eliminated after their
+ * second. The winners bracket champion meets the losers bracket champion in the grand final;
+ * if the winners bracket champion loses it, the bracket reset decides the tournament.
+ *
+ * <p>Every route is linked when the bracket is generated: a match's winner goes to its next
+ * match and its loser to its consolation match. The grand final is the one match whose next and
+ * consolation match are both the bracket reset, the last match of all.
+ */
+@Component
+public class DoubleEliminationAlgorithm implements TournamentAlgorithm {
+
+    @Override
+    public List<TournamentMatch> generateBracket(
+            Tournament tournament, List<TournamentRegistration> registrations) {
+        if (registrations.size() < getMinimumParticipants()) {
+            throw new IllegalArgumentException(
+                    "Not enough participants for double elimination tournament");
+        }
+
+        var seeded = SingleEliminationAlgorithm.seedOrder(registrations);
+
+        // Calculate number of winners bracket rounds needed: ceil(log2(participantCount))
+        var roundCount = Integer.SIZE - Integer.numberOfLeadingZeros(seeded.size() - 1);
+
+        var grandFinal = new TournamentMatch(tournament, roundCount + 1, 1);
+        var reset = new TournamentMatch(tournament, roundCount + 2, 1);
+        grandFinal.setNextMatch(reset);
+        grandFinal.setConsolationMatch(reset);
+
+        var winners = createWinnersBracket(tournament, roundCount, grandFinal);
+        var losers = createLosersBracket(tournament, roundCount, grandFinal);
+        linkLosers(winners, losers, grandFinal);
+
+        assignTeamsToFirstRound(winners[0], seeded);
+        skipEmptyLosersMatches(winners, losers);
+
+        var matches = new ArrayList<TournamentMatch>(2 * (1 << roundCount));
+        for (var round : winners) {
+            matches.addAll(List.of(round));
+        }
+        for (var round : losers) {
+            matches.addAll(List.of(round));
+        }
+        matches.add(grandFinal);
+        matches.add(reset);
+        return matches;
+    }
+
+    /**
+     * Winners bracket rounds; round r has 2^(roundCount - r) matches and match m feeds match
+     * m / 2 of the next round, the final feeding the grand final.
+     */
+    private TournamentMatch[][] createWinnersBracket(
+            Tournament tournament, int roundCount, TournamentMatch grandFinal) {
+        var winners = new TournamentMatch[roundCount][];
+        for (var round = roundCount; round >= 1; round--) {
+            var roundMatches = new TournamentMatch[1 << (roundCount - round)];
+            for (var index = 0; index < roundMatches.length; index++) {
+                var match = new TournamentMatch(tournament, round, index + 1);
+                match.setBracketType(TournamentMatch.BracketType.MAIN);
+                match.setNextMatch(round < roundCount ? winners[round][index / 2] : grandFinal);
+                roundMatches[index] = match;
+            }
+            winners[round - 1] = roundMatches;
+        }
+        return winners;
+    }
+
+    /**
+     * Losers bracket rounds, two for each winners bracket round after the first. Odd rounds play
+     * off the survivors among themselves (round 1 pairs the first round's losers), so half of
+     * them move on; even rounds match each survivor with a team just dropped from the winners
+     * bracket, so all of them move on. The last round is the losers final.
+     */
+    private TournamentMatch[][] createLosersBracket(
+            Tournament tournament, int roundCount, TournamentMatch grandFinal) {
+        var losers = new TournamentMatch[2 * (roundCount - 1)][];
+        for (var round = losers.length; round >= 1; round--) {
+            var roundMatches = new TournamentMatch[1 << (roundCount - 1 - (round + 1) / 2)];
+            for (var index = 0; index < roundMatches.length; index++) {
+                var match = new TournamentMatch(tournament, round, index + 1);
+                match.setBracketType(TournamentMatch.BracketType.LOSERS);
+                if (round == losers.length) {
+                    match.setNextMatch(grandFinal);
+                } else {
+                    match.setNextMatch(losers[round][round % 2 == 1 ? index : index / 2]);
+                }
+                roundMatches[index] = match;
+            }
+            losers[round - 1] = roundMatches;
+        }
+        return losers;
+    }
+
+    /**
+     * First round losers pair up in losers round 1; losers of winners round r meet the survivors
+     * in losers round 2(r - 1). Every other round drops in reverse order, so teams that met in
+     * the winners bracket don't meet again straight away.
+     */
+    private void linkLosers(
+            TournamentMatch[][] winners, TournamentMatch[][] losers, TournamentMatch grandFinal) {
+        if (losers.length == 0) {
+            winners[0][0].setConsolationMatch(grandFinal); // Two teams: the final is a rematch
+            return;
+        }
+        for (var index = 0; index < winners[0].length; index++) {
+            winners[0][index].setConsolationMatch(losers[0][index / 2]);
+        }
+        for (var round = 2; round <= winners.length; round++) {
+            var roundMatches = winners[round - 1];
+            for (var index = 0; index < roundMatches.length; index++) {
+                roundMatches[index].setConsolationMatch(
+                        losers[2 * round - 3][dropIndex(round, index, roundMatches.length)]);
+            }
+        }
+    }
+
+    private static int dropIndex(int winnersRound, int index, int matchesInRound) {
+        return winnersRound % 2 == 0 ? matchesInRound - 1 - index : index;
+    }
+
+    /**
+     * Seed 1 meets the last seed, seed 2 the second to last and so on, so byes go to the top
+     * seeds and no first round match is left without a team.
+     */
+    private void assignTeamsToFirstRound(
+            TournamentMatch[] firstRoundMatches, List<TournamentRegistration> registrations) {
+        var slots = 2 * firstRoundMatches.length;
+        for (var index = 0; index < firstRoundMatches.length; index++) {
+            var match = firstRoundMatches[index];
+            match.setTeam1(registrations.get(index));
+            var opponent = slots - 1 - index;
+            if (opponent < registrations.size()) {
+                match.setTeam2(registrations.get(opponent));
+            }
+            match.updateStatus();
+
+            // Handle byes - automatically advance team to next round
+            if (match.hasBye()) {
+                match.walkover(match.getTeam1());
+                place(match.getNextMatch(), match.getTeam1(), true);
+            }
+        }
+    }
+
+    /**
+     * A bye leaves no loser, so some losers bracket matches would only ever get one team. Those
+     * are cancelled up front and the team is routed straight past them. Only the first two
+     * losers rounds can be affected, as every later winners round is full.
+     */
+    private void skipEmptyLosersMatches(TournamentMatch[][] winners, TournamentMatch[][] losers) {
+        if (losers.length == 0) {
+            return;
+        }
+        var firstRound = winners[0];
+        for (var index = 0; index < losers[0].length; index++) {
+            var match = losers[0][index];
+            var upper = firstRound[2 * index];
+            var lower = firstRound[2 * index + 1];
+            var played = (hasLoser(upper) ? 1 : 0) + (hasLoser(lower) ? 1 : 0);
+            if (played == 2) {
+                continue;
+            }
+            match.cancel();
+            if (played == 1) {
+                (hasLoser(upper) ? upper : lower).setConsolationMatch(match.getNextMatch());
+            } else {
+                // Only the team dropping from winners round 2 is left for the next match too
+                var next = match.getNextMatch();
+                next.cancel();
+                winners[1][dropIndex(2, index, winners[1].length)].setConsolationMatch(
+                        next.getNextMatch());
+            }
+        }
+    }
+
+    private static boolean hasLoser(TournamentMatch firstRoundMatch) {
+        return firstRoundMatch.getTeam2() != null;
+    }
+
+    @Override
+    public List<TournamentMatch> advanceWinner(TournamentMatch completedMatch) {
+        var updatedMatches = new ArrayList<TournamentMatch>();
+
+        if (completedMatch.getWinner() == null || !completedMatch.isCompleted()) {
+            return updatedMatches;
+        }
+
+        var winner = completedMatch.getWinner();
+        var loser = winner.equals(completedMatch.getTeam1())
+                ? completedMatch.getTeam2()
+                : completedMatch.getTeam1();
+
+        if (isGrandFinal(completedMatch)) {
+            var reset = completedMatch.getNextMatch();
+            if (winner.equals(completedMatch.getTeam1())) {
+                // The winners bracket champion is still unbeaten
+                reset.cancel();
+            } else {
+                reset.setTeam1(completedMatch.getTeam1());
+                reset.setTeam2(winner);
+                reset.updateStatus();
+            }
+            updatedMatches.add(reset);
+            return updatedMatches;
+        }
+
+        var fromWinnersBracket =
+                completedMatch.getBracketType() == TournamentMatch.BracketType.MAIN;
+        var nextMatch = completedMatch.getNextMatch();
+        if (nextMatch != null) {
+            place(nextMatch, winner, fromWinnersBracket);
+            updatedMatches.add(nextMatch);
+        }
+
+        var consolationMatch = completedMatch.getConsolationMatch();
+        if (consolationMatch != null && loser != null) {
+            place(consolationMatch, loser, false);
+            if (consolationMatch != nextMatch) {
+                updatedMatches.add(consolationMatch);
+            }
+        }
+
+        return updatedMatches;
+    }
+
+    // The winners bracket champion always takes the first slot of the grand final
+    private static void place(
+            TournamentMatch match, TournamentRegistration team, boolean winnersBracketWinner) {
+        if (isGrandFinal(match)) {
+            if (winnersBracketWinner) {
+                match.setTeam1(team);
+            } else {
+                match.setTeam2(team);
+            }
+        } else if (match.getTeam1() == null) {
+            match.setTeam1(team);
+        } else if (match.getTeam2() == null) {
+            match.setTeam2(team);
+        }
+        match.updateStatus();
+    }
+
+    private static boolean isGrandFinal(TournamentMatch match) {
+        var reset = match.getNextMatch();
+        return reset != null
+                && reset == match.getConsolationMatch()
+                && reset.getNextMatch() == null;
+    }
+
+    @Override
+    public boolean isTournamentComplete(Tournament tournament) {
+        return tournament.getMatches().stream()
+                .filter(DoubleEliminationAlgorithm::isGrandFinal)
+                .map(TournamentMatch::getNextMatch)
+                .findFirst()
+                .map(reset -> reset.isCompleted()
+                        || reset.getStatus() == TournamentMatch.MatchStatus.CANCELLED)
+                .orElse(false);
+    }
+
+    @Override
+    public int getMinimumParticipants() {
+        return 2;
+    }
+
+    @Override
+    public boolean isValidParticipantCount(int participantCount) {
+        return participantCount >= getMinimumParticipants();
+    }
+
+    @Override
+    public Tournament.TournamentType getTournamentType() {
+        return Tournament.TournamentType.DOUBLE_ELIMINATION;
+    }
+}
@@ -0,0 +1,142 @@
+package com.thonbecker.foosball.service.tournament.algorithm;
+
+import com.thonbecker.foosball.entity.Tournament;
+import com.thonbecker.foosball.entity.TournamentMatch;
+import com.thonbecker.foosball.entity.TournamentRegistration;
+import com.thonbecker.foosball.repository.TournamentRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Round Robin Tournament Algorithm
+ * Every team plays every other team once, scheduled with the circle method: one team stays put
+ * while the others rotate one place per round, so nobody plays twice in a round. With an odd
+ * number of teams the fixed place is empty and whoever is drawn against it sits the round out.
+ *
+ * <p>The schedule is a view that creates each match when it is read, so a league of 200 teams
+ * never holds its 19,900 matches at once. Completion is counted down on the tournament, one
+ * decrement per result.
+ */
+@Component
+public class RoundRobinAlgorithm implements TournamentAlgorithm {
+
+    private final TournamentRepository tournamentRepository;
+
+    @Autowired
+    public RoundRobinAlgorithm(TournamentRepository tournamentRepository) {
+        this.tournamentRepository = tournamentRepository;
+    }
+
+    @Override
+    public List<TournamentMatch> generateBracket(
+            Tournament tournament, List<TournamentRegistration> registrations) {
+        if (registrations.size() < getMinimumParticipants()) {
+            throw new IllegalArgumentException(
+                    "Not enough participants for round robin tournament");
+        }
+
+        var schedule =
+                new Schedule(tournament, SingleEliminationAlgorithm.seedOrder(registrations));
+        tournament.setMatchesRemaining(schedule.size());
+        return schedule;
+    }
+
+    @Override
+    public boolean hasLinkedMatches() {
+        return false;
+    }
+
+    @Override
+    public List<TournamentMatch> advanceWinner(TournamentMatch completedMatch) {
+        if (completedMatch.isCompleted()) {
+            var tournament = completedMatch.getTournament();
+            tournament.setMatchesRemaining(
+                    tournamentRepository.countDownMatchesRemaining(tournament.getId()));
+        }
+
+        // Nobody advances; every match was scheduled up front
+        return List.of();
+    }
+
+    @Override
+    public boolean isTournamentComplete(Tournament tournament) {
+        var remaining = tournament.getMatchesRemaining();
+        return remaining != null && remaining <= 0;
+    }
+
+    @Override
+    public int getMinimumParticipants() {
+        return 3;
+    }
+
+    @Override
+    public boolean isValidParticipantCount(int participantCount) {
+        return participantCount >= getMinimumParticipants();
+    }
+
+    @Override
+    public Tournament.TournamentType getTournamentType() {
+        return Tournament.TournamentType.ROUND_ROBIN;
+    }
+
+    /**
+     * Matches in round order. Places 0..places-1 sit in a circle; place 0 is fixed and place p
+     * holds rotating team (p - 1 + round) mod (places - 1). Pairing i matches place i against
+     * place places-1-i, and with an odd number of teams pairing 0 is the bye and is left out.
+     */
+    private static final class Schedule extends AbstractList<TournamentMatch>
+            implements RandomAccess {
+
+        private final Tournament tournament;
+        private final List<TournamentRegistration> teams;
+        private final int places;
+        private final int firstPairing;
+        private final int matchesPerRound;
+        private final int size;
+
+        private Schedule(Tournament tournament, List<TournamentRegistration> teams) {
+            this.tournament = tournament;
+            this.teams = teams;
+            var odd = teams.size() % 2 == 1;
+            this.places = odd ? teams.size() + 1 : teams.size();
+            this.firstPairing = odd ? 1 : 0;
+            this.matchesPerRound = places / 2 - firstPairing;
+            this.size = (places - 1) * matchesPerRound;
+        }
+
+        @Override
+        public TournamentMatch get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            var round = index / matchesPerRound;
+            var pairing = firstPairing + index % matchesPerRound;
+            var match = new TournamentMatch(
+                    tournament,
+                    round + 1,
+                    index % matchesPerRound + 1,
+                    teamAt(pairing, round),
+                    teamAt(places - 1 - pairing, round));
+            match.setBracketType(TournamentMatch.BracketType.MAIN);
+            return match;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private TournamentRegistration teamAt(int place, int round) {
+            var rotating = places - 1;
+            if (place == 0) {
+                return teams.get(rotating); // Only reached with an even number of teams
+            }
+            return teams.get((place - 1 + round) % rotating);
+        }
+    }
+}
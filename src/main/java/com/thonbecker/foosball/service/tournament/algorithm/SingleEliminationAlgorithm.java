@@ -7,6 +7,7 @@ import com.thonbecker.foosball.entity.TournamentRegistration;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -25,89 +26,71 @@ public class SingleEliminationAlgorithm implements TournamentAlgorithm {
                     "Not enough participants for single elimination tournament");
         }
 
-        var matches = new ArrayList<TournamentMatch>();
-        var shuffledRegistrations = new ArrayList<>(registrations);
+        var shuffledRegistrations = seedOrder(registrations);
+
+        // Calculate number of rounds needed: ceil(log2(participantCount))
+        var participantCount = shuffledRegistrations.size();
+        var roundCount = Integer.SIZE - Integer.numberOfLeadingZeros(participantCount - 1);
+
+        // Create bracket structure
+        var matches = createBracketStructure(tournament, roundCount);
+
+        // Assign teams to first round, which comes first in the list
+        assignTeamsToFirstRound(matches.subList(0, 1 << (roundCount - 1)), shuffledRegistrations);
+
+        return matches;
+    }
+
+    /**
+     * Registrations by seed (unseeded last), or shuffled when nobody is seeded.
+     */
+    static List<TournamentRegistration> seedOrder(List<TournamentRegistration> registrations) {
+        var ordered = new ArrayList<>(registrations);
 
         // Shuffle if no seeding
         if (registrations.stream().noneMatch(r -> r.getSeed() != null)) {
-            Collections.shuffle(shuffledRegistrations);
+            Collections.shuffle(ordered);
         } else {
             // Sort by seed (nulls last)
-            shuffledRegistrations.sort((r1, r2) -> {
+            ordered.sort((r1, r2) -> {
                 if (r1.getSeed() == null && r2.getSeed() == null) return 0;
                 if (r1.getSeed() == null) return 1;
                 if (r2.getSeed() == null) return -1;
                 return Integer.compare(r1.getSeed(), r2.getSeed());
             });
         }
-
-        // Calculate number of rounds needed
-        var participantCount = shuffledRegistrations.size();
-        var roundCount = (int) Math.ceil(Math.log(participantCount) / Math.log(2));
-
-        // Create bracket structure
-        matches.addAll(createBracketStructure(tournament, participantCount, roundCount));
-
-        // Assign teams to first round
-        assignTeamsToFirstRound(matches, shuffledRegistrations, participantCount);
-
-        return matches;
+        return ordered;
     }
 
-    private List<TournamentMatch> createBracketStructure(
-            Tournament tournament, int participantCount, int roundCount) {
-        var matches = new ArrayList<TournamentMatch>();
-
-        for (var round = 1; round <= roundCount; round++) {
-            var matchesInRound = (int) Math.pow(2, roundCount - round);
-
-            for (var matchNum = 1; matchNum <= matchesInRound; matchNum++) {
-                var match = new TournamentMatch(tournament, round, matchNum);
+    /**
+     * All matches in round order, each linked to the match its winner goes to. Round r has
+     * 2^(roundCount - r) matches; match m (zero-based) of a round feeds match m / 2 of the next,
+     * so filling the bracket from the final backwards finds every next match already created.
+     */
+    private List<TournamentMatch> createBracketStructure(Tournament tournament, int roundCount) {
+        var bracket = new TournamentMatch[(1 << roundCount) - 1];
+        var nextRoundStart = bracket.length;
+
+        for (var round = roundCount; round >= 1; round--) {
+            var matchesInRound = 1 << (roundCount - round);
+            var roundStart = nextRoundStart - matchesInRound;
+
+            for (var index = 0; index < matchesInRound; index++) {
+                var match = new TournamentMatch(tournament, round, index + 1);
                 match.setBracketType(TournamentMatch.BracketType.MAIN);
-                matches.add(match);
+                if (round < roundCount) {
+                    match.setNextMatch(bracket[nextRoundStart + index / 2]);
+                }
+                bracket[roundStart + index] = match;
             }
+            nextRoundStart = roundStart;
         }
 
-        // Set up advancement paths
-        setupAdvancementPaths(matches, roundCount);
-
-        return matches;
-    }
-
-    private void setupAdvancementPaths(List<TournamentMatch> matches, int roundCount) {
-        for (var match : matches) {
-            var currentRound = match.getRoundNumber();
-            var currentMatch = match.getMatchNumber();
-
-            // Skip final match
-            if (currentRound == roundCount) continue;
-
-            // Find next match for winner
-            var nextRound = currentRound + 1;
-            var nextMatch = (currentMatch + 1) / 2; // Integer division for pairing
-
-            var nextTournamentMatch = matches.stream()
-                    .filter(m -> m.getRoundNumber().equals(nextRound)
-                            && m.getMatchNumber().equals(nextMatch))
-                    .findFirst()
-                    .orElse(null);
-
-            if (nextTournamentMatch != null) {
-                match.setNextMatch(nextTournamentMatch);
-            }
-        }
+        return new ArrayList<>(Arrays.asList(bracket));
     }
 
     private void assignTeamsToFirstRound(
-            List<TournamentMatch> matches,
-            List<TournamentRegistration> registrations,
-            int participantCount) {
-
-        // Get first round matches
-        var firstRoundMatches = matches.stream()
-                .filter(m -> m.getRoundNumber() == 1)
-                .sorted((m1, m2) -> Integer.compare(m1.getMatchNumber(), m2.getMatchNumber()))
-                .toList();
+            List<TournamentMatch> firstRoundMatches, List<TournamentRegistration> registrations) {
 
         // Assign teams with byes going to lower seeds
         var registrationIndex = 0;
@@ -20,6 +20,15 @@ public interface TournamentAlgorithm {
     List<TournamentMatch> generateBracket(
             Tournament tournament, List<TournamentRegistration> registrations);
 
+    /**
+     * Whether the generated matches link to each other (next or consolation match), so they have
+     * to be saved as entities; unlinked matches are written to the table in batches instead
+     * @return true if matches reference other matches of the bracket
+     */
+    default boolean hasLinkedMatches() {
+        return true;
+    }
+
     /**
      * Advance winners to next round after a match is completed
      * @param completedMatch The match that was just completed
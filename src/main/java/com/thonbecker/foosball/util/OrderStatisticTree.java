@@ -0,0 +1,212 @@
+package com.thonbecker.foosball.util;
+
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted set with positional access: a treap whose nodes carry subtree sizes.
+ * add, remove, contains, rankOf and get are all expected O(log n). Elements that compare equal
+ * are treated as the same element, like a TreeSet. Not thread-safe.
+ */
+public class OrderStatisticTree<E> extends AbstractCollection<E> {
+
+    private final Comparator<? super E> comparator;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<E> root;
+
+    public OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public boolean add(E element) {
+        if (find(element) != null) {
+            return false;
+        }
+        final var split = split(root, element, false);
+        root = merge(merge(split.left(), new Node<>(element, random.nextInt())), split.right());
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object o) {
+        final var element = (E) o;
+        if (find(element) == null) {
+            return false;
+        }
+        final var lower = split(root, element, false);
+        final var upper = split(lower.right(), element, true);
+        root = merge(lower.left(), upper.right());
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        return find((E) o) != null;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * Zero-based position of the element in sort order, or -1 if it is not in the tree.
+     */
+    public int rankOf(E element) {
+        var rank = 0;
+        var node = root;
+        while (node != null) {
+            final var c = comparator.compare(element, node.value);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Element at the zero-based position in sort order.
+     */
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(
+                    "Index " + index + " out of bounds for size " + size());
+        }
+        var remaining = index;
+        var node = root;
+        while (true) {
+            final var leftSize = size(node.left);
+            if (remaining < leftSize) {
+                node = node.left;
+            } else if (remaining > leftSize) {
+                remaining -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    /**
+     * In-order iterator; the tree must not be modified while iterating.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private final ArrayDeque<Node<E>> stack = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node<E> node) {
+                for (var n = node; n != null; n = n.left) {
+                    stack.push(n);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                final var node = stack.pop();
+                pushLeft(node.right);
+                return node.value;
+            }
+        };
+    }
+
+    private Node<E> find(E element) {
+        var node = root;
+        while (node != null) {
+            final var c = comparator.compare(element, node.value);
+            if (c == 0) {
+                return node;
+            }
+            node = c < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    // Splits into (< key, >= key), or (<= key, > key) when keyGoesLeft
+    private Split<E> split(Node<E> node, E key, boolean keyGoesLeft) {
+        if (node == null) {
+            return new Split<>(null, null);
+        }
+        final var c = comparator.compare(node.value, key);
+        if (c < 0 || (keyGoesLeft && c == 0)) {
+            final var rest = split(node.right, key, keyGoesLeft);
+            node.right = rest.left();
+            node.updateSize();
+            return new Split<>(node, rest.right());
+        }
+        final var rest = split(node.left, key, keyGoesLeft);
+        node.left = rest.right();
+        node.updateSize();
+        return new Split<>(rest.left(), node);
+    }
+
+    // Every element of left sorts before every element of right
+    private Node<E> merge(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.updateSize();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.updateSize();
+        return right;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private record Split<E>(Node<E> left, Node<E> right) {}
+
+    private static final class Node<E> {
+        private final E value;
+        private final int priority;
+        private int size = 1;
+        private Node<E> left;
+        private Node<E> right;
+
+        private Node(E value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+
+        private void updateSize() {
+            size = 1 + size(left) + size(right);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.thonbecker.foosball.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one computation per key at a time: callers arriving while it runs wait for it and
+ * share its result, which is then reused for the time to live. A failure is handed to everyone
+ * waiting and never kept. invalidate() makes later callers start afresh; a computation that was
+ * already running still answers its own callers but is not reused. Thread-safe.
+ */
+public class SingleFlight {
+
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Object, Flight> flights = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public SingleFlight(Duration ttl) {
+        this(ttl, System::nanoTime);
+    }
+
+    SingleFlight(Duration ttl, LongSupplier clock) {
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the in-flight or recent result for the key, or computes it. Keys must have value
+     * semantics (e.g. a List of the method name and its arguments).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Supplier<T> computation) {
+        while (true) {
+            final var current = flights.get(key);
+            if (current != null && current.isReusable()) {
+                return (T) current.join();
+            }
+            final var flight = new Flight(generation.get());
+            final var won = current == null
+                    ? flights.putIfAbsent(key, flight) == null
+                    : flights.replace(key, current, flight);
+            if (won) {
+                return (T) flight.run(key, computation);
+            }
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        flights.clear();
+    }
+
+    public int size() {
+        return flights.size();
+    }
+
+    private final class Flight {
+        private final long generation;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        private Flight(long generation) {
+            this.generation = generation;
+        }
+
+        private boolean isReusable() {
+            if (generation != SingleFlight.this.generation.get()) {
+                return false;
+            }
+            return !result.isDone() || clock.getAsLong() - completedAt < ttlNanos;
+        }
+
+        private Object run(Object key, Supplier<?> computation) {
+            final Object value;
+            try {
+                value = computation.get();
+            } catch (RuntimeException | Error e) {
+                flights.remove(key, this);
+                result.completeExceptionally(e);
+                throw e;
+            }
+            completedAt = clock.getAsLong();
+            result.complete(value);
+            return value;
+        }
+
+        private Object join() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.thonbecker.foosball.config;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class ReplicaLagTest {
+
+    private static final String CURRENT = "SELECT pg_current_wal_lsn()::text";
+    private static final String REPLAYED = "SELECT pg_last_wal_replay_lsn()::text";
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaLag lag;
+
+    @BeforeEach
+    void setUp() {
+        primary = mock(JdbcTemplate.class);
+        replica = mock(JdbcTemplate.class);
+        lag = new ReplicaLag(primary, replica, 1024);
+    }
+
+    @Test
+    void shouldParseLogSequenceNumbers() {
+        assertThat(ReplicaLag.lsn("16/B374D848")).isEqualTo(0x16B374D848L);
+        assertThat(ReplicaLag.lsn("0/0")).isZero();
+    }
+
+    @Test
+    void shouldUseTheReplicaOnlyOnceItHasReplayedTheLastWrite() {
+        // Given
+        positions("0/100", "0/100");
+        lag.check();
+        assertThat(lag.isReplicaUsable()).isTrue();
+
+        // When
+        lag.markWritten();
+
+        // Then
+        assertThat(lag.isReplicaUsable()).isFalse();
+        positions("0/200", "0/180");
+        lag.check();
+        assertThat(lag.isReplicaUsable()).isFalse();
+        positions("0/240", "0/200");
+        lag.check();
+        assertThat(lag.isReplicaUsable()).isTrue();
+        assertThat(lag.lagBytes()).isEqualTo(0x40);
+    }
+
+    @Test
+    void shouldBypassAReplicaThatIsTooFarBehind() {
+        // When
+        positions("0/10000", "0/100");
+        lag.check();
+
+        // Then
+        assertThat(lag.isReplicaUsable()).isFalse();
+    }
+
+    @Test
+    void shouldBypassAReplicaThatCannotBeReached() {
+        // Given
+        positions("0/100", "0/100");
+        lag.check();
+
+        // When
+        when(replica.queryForObject(REPLAYED, String.class))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        lag.check();
+
+        // Then
+        assertThat(lag.isReplicaUsable()).isFalse();
+        assertThat(lag.lagBytes()).isEqualTo(-1);
+    }
+
+    private void positions(String current, String replayed) {
+        when(primary.queryForObject(CURRENT, String.class)).thenReturn(current);
+        when(replica.queryForObject(REPLAYED, String.class)).thenReturn(replayed);
+    }
+}
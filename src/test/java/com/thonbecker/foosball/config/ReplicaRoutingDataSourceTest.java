@@ -0,0 +1,106 @@
+package com.thonbecker.foosball.config;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+class ReplicaRoutingDataSourceTest {
+
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ResultSet wrote;
+    private ReplicaLag replicaLag;
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        final var statement = mock(Statement.class);
+        wrote = mock(ResultSet.class);
+        when(primaryConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(wrote);
+        when(wrote.next()).thenReturn(true);
+
+        final var primary = mock(DataSource.class);
+        final var replica = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        replicaLag = mock(ReplicaLag.class);
+        when(replicaLag.isReplicaUsable()).thenReturn(true);
+        dataSource = new ReplicaRoutingDataSource(
+                primary, replica, replicaLag, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void shouldMarkTheReplicaBehindOnceATransactionThatWroteCommits() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        when(wrote.getBoolean(1)).thenReturn(true);
+        final var connection = dataSource.getConnection();
+        verify(replicaLag, never()).markWritten();
+
+        // When
+        connection.commit();
+
+        // Then
+        verify(primaryConnection).commit();
+        verify(replicaLag).markWritten();
+    }
+
+    @Test
+    void shouldNotMarkTheReplicaForATransactionThatOnlyRead() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        when(wrote.getBoolean(1)).thenReturn(false);
+
+        // When
+        dataSource.getConnection().commit();
+
+        // Then
+        verify(primaryConnection).commit();
+        verify(replicaLag, never()).markWritten();
+    }
+
+    @Test
+    void shouldMarkTheReplicaWhenAConnectionIsUsedOutsideATransaction() throws SQLException {
+        // When
+        final var connection = dataSource.getConnection();
+
+        // Then
+        assertThat(connection).isSameAs(primaryConnection);
+        verify(replicaLag).markWritten();
+    }
+
+    @Test
+    void shouldSendReadOnlyTransactionsToTheReplica() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        final var connection = dataSource.getConnection();
+
+        // Then
+        assertThat(connection).isSameAs(replicaConnection);
+        verify(replicaLag, never()).markWritten();
+    }
+}
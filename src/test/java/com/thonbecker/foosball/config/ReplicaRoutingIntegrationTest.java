@@ -0,0 +1,151 @@
+package com.thonbecker.foosball.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.thonbecker.foosball.service.FoosballService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+/**
+ * Two local Postgres instances in streaming replication: the primary, and a standby cloned from
+ * it with pg_basebackup that follows its WAL.
+ */
+@SpringBootTest
+@Testcontainers
+@TestPropertySource(
+        properties = {"spring.jpa.hibernate.ddl-auto=none", "foosball.replica.lag-check=PT0.1S"})
+class ReplicaRoutingIntegrationTest {
+
+    private static final Network NETWORK = Network.newNetwork();
+
+    @Container
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("testuser")
+            .withPassword("testpass")
+            .withNetwork(NETWORK)
+            .withNetworkAliases("primary")
+            .withCopyToContainer(
+                    Transferable.of(
+                            "echo 'host replication all all trust' >> \"$PGDATA/pg_hba.conf\""),
+                    "/docker-entrypoint-initdb.d/replication.sh")
+            .withCommand("postgres", "-c", "wal_level=replica", "-c", "max_wal_senders=4");
+
+    @Container
+    static GenericContainer<?> replica = new GenericContainer<>("postgres:16-alpine")
+            .dependsOn(primary)
+            .withNetwork(NETWORK)
+            .withExposedPorts(5432)
+            .withCreateContainerCmdModifier(cmd -> cmd.withEntrypoint(
+                    "sh",
+                    "-c",
+                    "mkdir -p /tmp/standby && chown postgres /tmp/standby && "
+                            + "su-exec postgres pg_basebackup -h primary -U testuser "
+                            + "-D /tmp/standby -R -X stream && chmod 0700 /tmp/standby && "
+                            + "exec su-exec postgres postgres -D /tmp/standby"))
+            .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(1)));
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("spring.liquibase.user", primary::getUsername);
+        registry.add("spring.liquibase.password", primary::getPassword);
+        registry.add(
+                "foosball.replica.url",
+                () -> "jdbc:postgresql://" + replica.getHost() + ":" + replica.getMappedPort(5432)
+                        + "/testdb");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaLag replicaLag;
+
+    @Autowired
+    private FoosballService foosballService;
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToTheReplicaOnceItHasCaughtUp() throws Exception {
+        // Given
+        awaitReplica();
+
+        // When
+        final var readOnly = inRecovery(true);
+        final var readWrite = inRecovery(false);
+
+        // Then
+        assertThat(readOnly).isTrue();
+        assertThat(readWrite).isFalse();
+    }
+
+    @Test
+    void shouldKeepTheReplicaAfterAReadWriteTransactionThatWroteNothing() throws Exception {
+        // Given
+        awaitReplica();
+
+        // When
+        inRecovery(false);
+
+        // Then
+        assertThat(replicaLag.isReplicaUsable()).isTrue();
+        assertThat(inRecovery(true)).isTrue();
+    }
+
+    @Test
+    void shouldReadItsOwnWritesFromThePrimaryUntilTheReplicaHasThem() throws Exception {
+        // Given
+        awaitReplica();
+        final var players = IntStream.rangeClosed(1, 4)
+                .mapToObj(i -> foosballService.createPlayer("Replica Player " + i))
+                .toList();
+
+        // When
+        foosballService.recordGame(
+                players.get(0), players.get(1), players.get(2), players.get(3), 10, 4);
+
+        // Then: read-only, yet it sees the game however far behind the replica is
+        assertThat(foosballService.getTopTeamsByWinPercentage(0))
+                .anySatisfy(team -> assertThat(team.getPlayer1Name()).startsWith("Replica Player"));
+        awaitReplica();
+        assertThat(inRecovery(true)).isTrue();
+    }
+
+    private boolean inRecovery(boolean readOnly) {
+        final var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT pg_is_in_recovery()", Boolean.class)));
+    }
+
+    private void awaitReplica() throws InterruptedException {
+        for (int i = 0; i < 100 && !replicaLag.isReplicaUsable(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(replicaLag.isReplicaUsable()).isTrue();
+    }
+}
@@ -0,0 +1,147 @@
+package com.thonbecker.foosball.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.thonbecker.foosball.AbstractIntegrationTest;
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.entity.Tournament;
+import com.thonbecker.foosball.model.CreateTournamentRequest;
+import com.thonbecker.foosball.model.TournamentRegistrationRequest;
+import com.thonbecker.foosball.repository.PlayerRepository;
+import com.thonbecker.foosball.service.FoosballService;
+import com.thonbecker.foosball.service.TournamentService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@TestPropertySource(properties = {"spring.jpa.hibernate.ddl-auto=none"})
+class SecondLevelCacheIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private FoosballService foosballService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void shouldRegisterWithFewerStatementsOnceTournamentAndPlayersAreCached() {
+        // Given
+        final var organiser = foosballService.createPlayer("Cache Organiser");
+        final var first = foosballService.createPlayer("Cache First");
+        final var second = foosballService.createPlayer("Cache Second");
+        final var tournament = openTournament(organiser);
+
+        // When: once from the database, once from the cache
+        secondLevelCache.evictAll();
+        final var cold = statementsFor(() -> register(tournament, first));
+        playerRepository.findById(second.getId()); // Inserts are not cached, loads are
+        final var warm = statementsFor(() -> register(tournament, second));
+
+        // Then
+        assertThat(warm).isLessThan(cold);
+        assertThat(statistics.getDomainDataRegionStatistics("tournaments").getHitCount())
+                .isPositive();
+        assertThat(statistics.getDomainDataRegionStatistics("players").getHitCount())
+                .isPositive();
+        assertThat(meterRegistry
+                        .get("foosball.cache.gets")
+                        .tag("region", "players")
+                        .tag("result", "hit")
+                        .functionCounter()
+                        .count())
+                .isPositive();
+    }
+
+    @Test
+    void shouldKeepPlayersCachedWhileRecordingGames() {
+        // Given
+        final var p1 = foosballService.createPlayer("Cached Alice");
+        final var p2 = foosballService.createPlayer("Cached Bob");
+        final var p3 = foosballService.createPlayer("Cached Carol");
+        final var p4 = foosballService.createPlayer("Cached Dave");
+        final var cache = entityManagerFactory.getCache();
+        playerRepository.findAllById(List.of(p1.getId(), p4.getId()));
+        assertThat(cache.contains(Player.class, p1.getId())).isTrue();
+
+        // When: the stats upserts declare their tables, so they no longer flush every region
+        foosballService.recordGame(p1, p2, p3, p4, 10, 7);
+
+        // Then
+        assertThat(cache.contains(Player.class, p1.getId())).isTrue();
+        assertThat(cache.contains(Player.class, p4.getId())).isTrue();
+    }
+
+    @Test
+    void shouldAnswerRepeatedNameLookupsFromTheQueryCacheUntilPlayersChange() {
+        // Given
+        assertThat(playerRepository.findByName("Query Cache Quinn")).isEmpty();
+        final var hitsBefore = statistics.getQueryCacheHitCount();
+
+        // When
+        assertThat(playerRepository.findByName("Query Cache Quinn")).isEmpty();
+        final var player = foosballService.createPlayer("Query Cache Quinn");
+
+        // Then: a cached miss does not outlive the insert
+        assertThat(statistics.getQueryCacheHitCount()).isGreaterThan(hitsBefore);
+        assertThat(playerRepository.findByName("Query Cache Quinn"))
+                .get()
+                .extracting(Player::getId)
+                .isEqualTo(player.getId());
+    }
+
+    private Tournament openTournament(Player organiser) {
+        final var tournament = tournamentService.createTournament(
+                new CreateTournamentRequest(
+                        "Cache Cup",
+                        null,
+                        Tournament.TournamentType.SINGLE_ELIMINATION,
+                        8,
+                        LocalDateTime.now().minusDays(1),
+                        LocalDateTime.now().plusDays(1),
+                        LocalDateTime.now().plusDays(2),
+                        null),
+                organiser.getId());
+        return tournamentService.openRegistration(tournament.getId());
+    }
+
+    private void register(Tournament tournament, Player player) {
+        tournamentService.registerForTournament(
+                tournament.getId(), new TournamentRegistrationRequest(player.getId(), null, null));
+    }
+
+    private long statementsFor(Runnable work) {
+        final var before = statistics.getPrepareStatementCount();
+        work.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+}
@@ -0,0 +1,240 @@
+package com.thonbecker.foosball.controller;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thonbecker.foosball.AbstractIntegrationTest;
+import com.thonbecker.foosball.entity.Game;
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.model.CreatePlayerRequest;
+import com.thonbecker.foosball.repository.GameRepository;
+import com.thonbecker.foosball.repository.PlayerRepository;
+import com.thonbecker.foosball.service.FoosballService;
+import com.thonbecker.foosball.service.player.PlayerDirectory;
+import com.thonbecker.foosball.service.stats.GameOverview;
+import com.thonbecker.foosball.service.stats.HeadToHead;
+import com.thonbecker.foosball.service.stats.PlayerLeaderboard;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Arrays;
+import java.util.List;
+
+@TestPropertySource(
+        properties = {
+            "spring.jpa.hibernate.ddl-auto=none",
+            "spring.jpa.properties.hibernate.generate_statistics=true"
+        })
+class FoosballControllerIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private FoosballController controller;
+
+    @Autowired
+    private FoosballService foosballService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlayerDirectory playerDirectory;
+
+    @Autowired
+    private PlayerLeaderboard playerLeaderboard;
+
+    @Autowired
+    private HeadToHead headToHead;
+
+    @Autowired
+    private GameOverview gameOverview;
+
+    private List<Player> players;
+
+    @BeforeEach
+    void setUp() {
+        gameRepository.deleteAll();
+        playerRepository.deleteAll();
+        // The deletes bypass FoosballService, so nothing tells the in-memory views
+        playerDirectory.invalidate();
+        playerLeaderboard.invalidate();
+        headToHead.invalidate();
+        gameOverview.invalidate();
+        players = List.of(
+                foosballService.createPlayer("Alice"),
+                foosballService.createPlayer("Bob"),
+                foosballService.createPlayer("Charlie"),
+                foosballService.createPlayer("Diana"));
+    }
+
+    @Test
+    void shouldListPlayersWithConstantStatementCountAsHistoryGrows() throws Exception {
+        // Given
+        recordGames(2);
+        var withShortHistory = statementsToListPlayers();
+
+        // When
+        recordGames(50);
+        var withLongHistory = statementsToListPlayers();
+
+        // Then
+        assertThat(withShortHistory).isEqualTo(1L);
+        assertThat(withLongHistory).isEqualTo(withShortHistory);
+    }
+
+    @Test
+    void shouldReportGameCountsWithoutGameCollections() throws Exception {
+        // Given
+        recordGames(3);
+
+        // When
+        var json = objectMapper.writeValueAsString(controller.getAllPlayers().getBody());
+
+        // Then
+        assertThat(json).contains("\"gamesPlayed\":3").doesNotContain("Games\"");
+    }
+
+    @Test
+    void shouldSerializeCreatedPlayerWithoutGameCollections() throws Exception {
+        // When
+        var json = objectMapper.writeValueAsString(controller
+                .createPlayer(new CreatePlayerRequest("Eve", "eve@example.com"))
+                .getBody());
+
+        // Then
+        assertThat(json).contains("\"name\":\"Eve\"").doesNotContain("whiteTeamPlayer1Games");
+    }
+
+    @Test
+    void shouldSerializeGamesWithTheirPlayerIdsWithoutLoadingThePlayers() throws Exception {
+        // Given
+        final var eve = foosballService.createPlayer("Eve");
+        foosballService.recordGame(players.get(0), eve, players.get(2), players.get(3), 5, 3);
+        playerDirectory.contains(eve.getId()); // Loads the directory's own copies first
+        final var statistics = statistics();
+        statistics.clear();
+
+        // When
+        final var page =
+                objectMapper.writeValueAsString(controller.getGames(null, 10).getBody());
+        final var playerPage = objectMapper.writeValueAsString(
+                controller.getPlayerGames(eve.getId(), null, 10).getBody());
+
+        // Then
+        final var seats = "\"whiteTeamPlayer1Id\":" + players.get(0).getId()
+                + ",\"whiteTeamPlayer2Id\":" + eve.getId()
+                + ",\"blackTeamPlayer1Id\":" + players.get(2).getId()
+                + ",\"blackTeamPlayer2Id\":" + players.get(3).getId();
+        assertThat(page).contains(seats);
+        assertThat(playerPage).contains(seats);
+        assertThat(statistics.getEntityStatistics(Player.class.getName()).getLoadCount())
+                .isZero();
+    }
+
+    @Test
+    void shouldPageThroughOnePlayersGamesNewestFirst() {
+        // Given
+        final var eve = foosballService.createPlayer("Eve");
+        recordGames(3);
+        // Eve in each seat once, plus a game with her in two seats
+        foosballService.recordGame(eve, players.get(1), players.get(2), players.get(3), 5, 1);
+        foosballService.recordGame(players.get(0), eve, players.get(2), players.get(3), 5, 2);
+        foosballService.recordGame(players.get(0), players.get(1), eve, players.get(3), 5, 3);
+        foosballService.recordGame(players.get(0), players.get(1), players.get(2), eve, 5, 4);
+        foosballService.recordGame(eve, eve, players.get(2), players.get(3), 0, 5);
+
+        // When
+        final var first = controller.getPlayerGames(eve.getId(), null, 3).getBody();
+        final var second =
+                controller.getPlayerGames(eve.getId(), first.nextCursor(), 3).getBody();
+
+        // Then
+        assertThat(first.games()).extracting(Game::getBlackTeamScore).containsExactly(5, 4, 3);
+        assertThat(second.games()).extracting(Game::getBlackTeamScore).containsExactly(2, 1);
+        assertThat(second.nextCursor()).isNull();
+        assertThat(gameRepository.findByPlayer(eve)).hasSize(5);
+        assertThat(gameRepository.findByPlayer(players.get(0))).hasSize(6);
+        assertThat(controller.getPlayerGames(-1L, null, 3).getStatusCode().value())
+                .isEqualTo(404);
+    }
+
+    @Test
+    void shouldListEveryPlayerWithoutALimitAndRejectANegativeOne() {
+        // Given
+        recordGames(3);
+
+        // When
+        final var form = controller.getPlayerFormStats(30, 1, null);
+        final var top = controller.getTopPlayersByTotalGames(1, null);
+
+        // Then
+        assertThat(form.getBody()).hasSize(4);
+        assertThat(top.getBody()).hasSize(4);
+        assertThat(controller.getPlayerFormStats(30, 1, -1).getStatusCode().value())
+                .isEqualTo(400);
+        assertThat(controller.getTopPlayersByWins(1, -1).getStatusCode().value())
+                .isEqualTo(400);
+    }
+
+    @Test
+    void shouldRejectRivalryIdsThatCannotBelongToAPlayer() {
+        // Given
+        final var alice = players.get(0).getId();
+        final var bob = players.get(1).getId();
+
+        // When / Then
+        assertThat(controller
+                        .getRivalry(List.of(alice), List.of(bob))
+                        .getStatusCode()
+                        .value())
+                .isEqualTo(200);
+        assertThat(controller
+                        .getRivalry(List.of(-1L), List.of(bob))
+                        .getStatusCode()
+                        .value())
+                .isEqualTo(400);
+        assertThat(controller
+                        .getRivalry(List.of(alice, 1L << 32), List.of(bob, alice))
+                        .getStatusCode()
+                        .value())
+                .isEqualTo(400);
+        assertThat(controller
+                        .getRivalry(Arrays.asList(alice, null), List.of(bob, alice))
+                        .getStatusCode()
+                        .value())
+                .isEqualTo(400);
+    }
+
+    private long statementsToListPlayers() throws Exception {
+        var statistics = statistics();
+        statistics.clear();
+        objectMapper.writeValueAsString(controller.getAllPlayers().getBody());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void recordGames(int count) {
+        for (int i = 0; i < count; i++) {
+            foosballService.recordGame(
+                    players.get(0), players.get(1), players.get(2), players.get(3), 5, i % 5);
+        }
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
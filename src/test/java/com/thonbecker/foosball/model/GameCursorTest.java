@@ -0,0 +1,32 @@
+package com.thonbecker.foosball.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+class GameCursorTest {
+
+    @Test
+    void shouldRoundTripThroughOpaqueString() {
+        // Given
+        var cursor = new GameCursor(LocalDateTime.of(2025, 3, 14, 18, 30, 5, 123_456_000), 42L);
+
+        // When
+        var encoded = cursor.encode();
+
+        // Then
+        assertThat(encoded).doesNotContain("2025").doesNotContain("=");
+        assertThat(GameCursor.decode(encoded)).contains(cursor);
+    }
+
+    @Test
+    void shouldRejectTamperedCursors() {
+        assertThat(GameCursor.decode("not a cursor!")).isEmpty();
+        assertThat(GameCursor.decode(
+                        new GameCursor(LocalDateTime.now(), 1L).encode().substring(3)))
+                .isEmpty();
+        assertThat(GameCursor.decode("")).isEmpty();
+    }
+}
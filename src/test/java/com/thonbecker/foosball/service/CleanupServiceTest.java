@@ -0,0 +1,184 @@
+package com.thonbecker.foosball.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.thonbecker.foosball.event.GamesPurgedEvent;
+import com.thonbecker.foosball.projection.GameIdRange;
+import com.thonbecker.foosball.projection.ScoreTally;
+import com.thonbecker.foosball.repository.GameRepository;
+import com.thonbecker.foosball.repository.PlayerDailyStatsRepository;
+import com.thonbecker.foosball.service.archive.GameArchive;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+
+class CleanupServiceTest {
+
+    private GameRepository gameRepository;
+    private GamePartitionService gamePartitionService;
+    private GameArchive gameArchive;
+    private FoosballService foosballService;
+    private ApplicationEventPublisher eventPublisher;
+    private SimpleMeterRegistry meterRegistry;
+    private CleanupService cleanupService;
+
+    @BeforeEach
+    void setUp() {
+        gameRepository = mock(GameRepository.class);
+        gamePartitionService = mock(GamePartitionService.class);
+        gameArchive = mock(GameArchive.class);
+        when(gameArchive.isEnabled()).thenReturn(true);
+        foosballService = mock(FoosballService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cleanupService = new CleanupService(
+                gameRepository,
+                mock(PlayerDailyStatsRepository.class),
+                gamePartitionService,
+                gameArchive,
+                foosballService,
+                eventPublisher,
+                meterRegistry);
+        ReflectionTestUtils.setField(cleanupService, "retentionDays", 90);
+        ReflectionTestUtils.setField(cleanupService, "chunkSize", 100);
+        ReflectionTestUtils.setField(cleanupService, "rowsPerSecond", 0);
+        ReflectionTestUtils.setField(cleanupService, "maxDuration", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(cleanupService, "partitionsAhead", 3);
+        cleanupService.registerMetrics();
+    }
+
+    @Test
+    void shouldArchiveAndDeleteExpiredGamesChunkByChunk() {
+        // Given
+        final var range = range(1L, 250L, 7L);
+        final var first = List.of(tally(10, 3, 1));
+        final var third = List.of(tally(12, 4, 0));
+        when(gameRepository.findIdRangeOlderThan(any())).thenReturn(range);
+        when(gameRepository.deleteGamesOlderThan(any(), anyLong(), anyLong()))
+                .thenReturn(first)
+                .thenReturn(List.of())
+                .thenReturn(third);
+
+        // When
+        cleanupService.cleanupOldGames();
+
+        // Then
+        verify(gameRepository).deleteGamesOlderThan(any(), eq(1L), eq(101L));
+        verify(gameRepository).deleteGamesOlderThan(any(), eq(101L), eq(201L));
+        verify(gameRepository).deleteGamesOlderThan(any(), eq(201L), eq(251L));
+        final var order = inOrder(gameArchive, gameRepository);
+        order.verify(gameArchive).archiveExpired(any(), eq(1L), eq(101L));
+        order.verify(gameRepository).deleteGamesOlderThan(any(), eq(1L), eq(101L));
+        verify(gameArchive).archiveExpired(any(), eq(201L), eq(251L));
+        verify(eventPublisher, times(3)).publishEvent(any(GamesPurgedEvent.class));
+        // The archived games keep counting, so the totals are left alone
+        verify(foosballService, never()).rebuildStatistics(anyBoolean());
+        verify(gamePartitionService, never()).dropPartition(any());
+        assertThat(meterRegistry
+                        .get("foosball.retention.purge.remaining")
+                        .gauge()
+                        .value())
+                .isZero();
+        assertThat(meterRegistry
+                        .get("foosball.retention.purged.games")
+                        .tag("method", "chunk")
+                        .counter()
+                        .count())
+                .isEqualTo(7);
+        assertThat(meterRegistry.get("foosball.retention.purge.chunk").timer().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void shouldLeaveTheRestForTheNextRunOnceTheTimeBudgetIsUsedUp() {
+        // Given
+        ReflectionTestUtils.setField(cleanupService, "maxDuration", Duration.ZERO);
+        final var range = range(1L, 250L, 7L);
+        when(gameRepository.findIdRangeOlderThan(any())).thenReturn(range);
+
+        // When
+        cleanupService.cleanupOldGames();
+
+        // Then
+        verify(gameRepository, never()).deleteGamesOlderThan(any(), anyLong(), anyLong());
+        verify(foosballService, never()).rebuildStatistics(anyBoolean());
+        assertThat(meterRegistry
+                        .get("foosball.retention.purge.remaining")
+                        .gauge()
+                        .value())
+                .isEqualTo(7);
+    }
+
+    @Test
+    void shouldDropExpiredPartitionsBeforeChunking() {
+        // Given
+        final var month = YearMonth.now().minusMonths(6);
+        final var dropped = List.of(tally(8, 5, 2));
+        final var nothingLeft = range(null, null, 0L);
+        when(gamePartitionService.isPartitioned()).thenReturn(true);
+        when(gamePartitionService.expiredPartitions(any())).thenReturn(List.of(month));
+        when(gamePartitionService.dropPartition(month)).thenReturn(dropped);
+        when(gameRepository.findIdRangeOlderThan(any())).thenReturn(nothingLeft);
+
+        // When
+        cleanupService.cleanupOldGames();
+
+        // Then
+        final var order = inOrder(gameArchive, gamePartitionService);
+        order.verify(gameArchive).archiveMonth(month);
+        order.verify(gamePartitionService).dropPartition(month);
+        verify(gamePartitionService).createPartitionsThrough(YearMonth.now().plusMonths(3));
+        verify(gameRepository, never()).deleteGamesOlderThan(any(), anyLong(), anyLong());
+        verify(eventPublisher).publishEvent(any(GamesPurgedEvent.class));
+        verify(foosballService, never()).rebuildStatistics(anyBoolean());
+        assertThat(meterRegistry
+                        .get("foosball.retention.purged.games")
+                        .tag("method", "partition")
+                        .counter()
+                        .count())
+                .isEqualTo(5);
+    }
+
+    @Test
+    void shouldRebuildFromTheRetainedGamesWithoutTheArchive() {
+        // Given
+        final var range = range(1L, 50L, 3L);
+        final var deleted = List.of(tally(10, 3, 0));
+        when(gameArchive.isEnabled()).thenReturn(false);
+        when(gameRepository.findIdRangeOlderThan(any())).thenReturn(range);
+        when(gameRepository.deleteGamesOlderThan(any(), anyLong(), anyLong())).thenReturn(deleted);
+
+        // When
+        cleanupService.cleanupOldGames();
+
+        // Then
+        verify(gameArchive, never()).archiveExpired(any(), anyLong(), anyLong());
+        verify(foosballService).rebuildStatistics(false);
+    }
+
+    private static GameIdRange range(Long minId, Long maxId, Long games) {
+        final var range = mock(GameIdRange.class);
+        when(range.getMinId()).thenReturn(minId);
+        when(range.getMaxId()).thenReturn(maxId);
+        when(range.getGames()).thenReturn(games);
+        return range;
+    }
+
+    private static ScoreTally tally(int totalScore, long games, long draws) {
+        final var tally = mock(ScoreTally.class);
+        when(tally.getTotalScore()).thenReturn(totalScore);
+        when(tally.getGames()).thenReturn(games);
+        when(tally.getDraws()).thenReturn(draws);
+        return tally;
+    }
+}
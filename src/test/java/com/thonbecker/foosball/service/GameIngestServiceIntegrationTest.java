@@ -0,0 +1,154 @@
+package com.thonbecker.foosball.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.thonbecker.foosball.AbstractIntegrationTest;
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.model.BulkGameRequest;
+import com.thonbecker.foosball.projection.PlayerStats;
+import com.thonbecker.foosball.repository.GameRepository;
+import com.thonbecker.foosball.repository.PlayerRepository;
+import com.thonbecker.foosball.repository.PlayerStatsRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@TestPropertySource(properties = {"spring.jpa.hibernate.ddl-auto=none"})
+class GameIngestServiceIntegrationTest extends AbstractIntegrationTest {
+
+    private static final int LARGE_BATCH = 600;
+
+    @Autowired
+    private GameIngestService gameIngestService;
+
+    @Autowired
+    private FoosballService foosballService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private PlayerStatsRepository playerStatsRepository;
+
+    private List<Player> players;
+
+    @BeforeEach
+    void setUp() {
+        gameRepository.deleteAll();
+        playerRepository.deleteAll();
+        players = new ArrayList<>();
+        for (var name : List.of("Alice", "Bob", "Charlie", "Diana", "Eve", "Frank")) {
+            players.add(foosballService.createPlayer(name));
+        }
+        foosballService.rebuildStatistics(false);
+    }
+
+    @Test
+    void shouldRecordBatchWithSameStatisticsAsSingleGamePath() {
+        // Given: played in request order, as the batch is rated in playedAt order
+        var playedAt = LocalDateTime.now().minusHours(2);
+        var requests = List.of(
+                new BulkGameRequest("Alice", "Bob", "Charlie", "Diana", 5, 3, null, playedAt),
+                new BulkGameRequest(
+                        "Eve", "Frank", "Alice", "Bob", 4, 4, "draw", playedAt.plusMinutes(5)),
+                new BulkGameRequest(
+                        "Charlie", "Eve", "Diana", "Frank", 2, 5, null, playedAt.plusMinutes(10)));
+
+        // When
+        var result = gameIngestService.recordGames(requests);
+        var bulkStats = statsByName();
+
+        gameRepository.deleteAll();
+        foosballService.rebuildStatistics(false);
+        foosballService.replayRatings(); // No games left, so every rating starts over
+        for (var request : requests) {
+            foosballService.recordGame(
+                    player(request.whiteTeamPlayer1()),
+                    player(request.whiteTeamPlayer2()),
+                    player(request.blackTeamPlayer1()),
+                    player(request.blackTeamPlayer2()),
+                    request.whiteTeamScore(),
+                    request.blackTeamScore());
+        }
+
+        // Then
+        assertThat(result.recorded()).isEqualTo(3);
+        assertThat(result.gameIds()).hasSize(3).doesNotHaveDuplicates();
+        assertThat(result.unknownPlayers()).isEmpty();
+        assertThat(bulkStats).isEqualTo(statsByName());
+    }
+
+    @Test
+    void shouldRejectBatchWithUnknownPlayers() {
+        // When
+        var result = gameIngestService.recordGames(
+                List.of(new BulkGameRequest("Alice", "Bob", "Zed", "Diana", 5, 3, null, null)));
+
+        // Then
+        assertThat(result.recorded()).isZero();
+        assertThat(result.unknownPlayers()).containsExactly("Zed");
+        assertThat(gameRepository.count()).isZero();
+    }
+
+    // GameIngestBenchmark compares the time both paths take
+    @Test
+    void shouldRecordLargeBatchAlongsideSingleGames() {
+        // Given
+        var requests = new ArrayList<BulkGameRequest>(LARGE_BATCH);
+        for (int i = 0; i < LARGE_BATCH; i++) {
+            requests.add(new BulkGameRequest(
+                    players.get(i % 6).getName(),
+                    players.get((i + 1) % 6).getName(),
+                    players.get((i + 2) % 6).getName(),
+                    players.get((i + 3) % 6).getName(),
+                    5,
+                    i % 5,
+                    null,
+                    null));
+        }
+
+        // When
+        for (var request : requests) {
+            foosballService.recordGame(
+                    player(request.whiteTeamPlayer1()),
+                    player(request.whiteTeamPlayer2()),
+                    player(request.blackTeamPlayer1()),
+                    player(request.blackTeamPlayer2()),
+                    request.whiteTeamScore(),
+                    request.blackTeamScore());
+        }
+        var result = gameIngestService.recordGames(requests);
+
+        // Then
+        assertThat(result.recorded()).isEqualTo(LARGE_BATCH);
+        assertThat(gameRepository.count()).isEqualTo(2L * LARGE_BATCH);
+        assertThat(playerStatsRepository.findAllPlayerStats())
+                .extracting(PlayerStats::getTotalGames)
+                .containsOnly(2L * LARGE_BATCH * 4 / 6);
+    }
+
+    private Player player(String name) {
+        return foosballService.findPlayerByName(name).orElseThrow();
+    }
+
+    private Map<String, String> statsByName() {
+        return playerStatsRepository.findAllPlayerStats().stream()
+                .sorted(Comparator.comparing(PlayerStats::getName))
+                .collect(Collectors.toMap(
+                        PlayerStats::getName,
+                        stats -> stats.getTotalGames() + "/" + stats.getWins() + "/"
+                                + stats.getRating()));
+    }
+}
@@ -0,0 +1,269 @@
+package com.thonbecker.foosball.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.thonbecker.foosball.AbstractIntegrationTest;
+import com.thonbecker.foosball.controller.FoosballController;
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.model.BulkGameRequest;
+import com.thonbecker.foosball.projection.PlayerStats;
+import com.thonbecker.foosball.repository.GameRepository;
+import com.thonbecker.foosball.repository.PlayerRepository;
+import com.thonbecker.foosball.service.player.PlayerDirectory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The stats tables against the views they replaced (001 and 002), whose queries are run here
+ * as they were, with the counts cast alike so the rows compare equal.
+ */
+@TestPropertySource(properties = {"spring.jpa.hibernate.ddl-auto=none"})
+class StatsAggregatesIntegrationTest extends AbstractIntegrationTest {
+
+    private static final String PLAYER_VIEW = "SELECT p.id, "
+            + "COUNT(DISTINCT g.id) AS total_games, "
+            + "COUNT(CASE WHEN g.winner = 'WHITE' AND (g.white_team_player1_id = p.id "
+            + "OR g.white_team_player2_id = p.id) THEN 1 END) + "
+            + "COUNT(CASE WHEN g.winner = 'BLACK' AND (g.black_team_player1_id = p.id "
+            + "OR g.black_team_player2_id = p.id) THEN 1 END) AS wins, "
+            + "ROUND((COUNT(CASE WHEN g.winner = 'WHITE' AND (g.white_team_player1_id = p.id "
+            + "OR g.white_team_player2_id = p.id) THEN 1 END) + "
+            + "COUNT(CASE WHEN g.winner = 'BLACK' AND (g.black_team_player1_id = p.id "
+            + "OR g.black_team_player2_id = p.id) THEN 1 END)) * 100.0 / "
+            + "NULLIF(COUNT(DISTINCT g.id), 0), 4) AS win_percentage "
+            + "FROM foosball.players p "
+            + "LEFT JOIN foosball.games g ON p.id IN (g.white_team_player1_id, "
+            + "g.white_team_player2_id, g.black_team_player1_id, g.black_team_player2_id) "
+            + "GROUP BY p.id, p.name ORDER BY p.id";
+
+    private static final String PLAYER_TABLE = "SELECT p.id, "
+            + "COALESCE(s.total_games, 0)::bigint AS total_games, "
+            + "COALESCE(s.wins, 0)::bigint AS wins, "
+            + "ROUND(s.win_percentage, 4) AS win_percentage "
+            + "FROM foosball.players p "
+            + "LEFT JOIN foosball.player_stats s ON s.player_id = p.id ORDER BY p.id";
+
+    private static final String PAIR_PLAYED =
+            "(g.white_team_player1_id = p1.id AND g.white_team_player2_id = p2.id) "
+                    + "OR (g.black_team_player1_id = p1.id AND g.black_team_player2_id = p2.id) "
+                    + "OR (g.white_team_player1_id = p2.id AND g.white_team_player2_id = p1.id) "
+                    + "OR (g.black_team_player1_id = p2.id AND g.black_team_player2_id = p1.id)";
+
+    private static final String PAIR_WINS = "COUNT(CASE WHEN g.winner = 'WHITE' AND "
+            + "(g.white_team_player1_id = p1.id AND g.white_team_player2_id = p2.id) THEN 1 END) + "
+            + "COUNT(CASE WHEN g.winner = 'BLACK' AND "
+            + "(g.black_team_player1_id = p1.id AND g.black_team_player2_id = p2.id) THEN 1 END) + "
+            + "COUNT(CASE WHEN g.winner = 'WHITE' AND "
+            + "(g.white_team_player1_id = p2.id AND g.white_team_player2_id = p1.id) THEN 1 END) + "
+            + "COUNT(CASE WHEN g.winner = 'BLACK' AND "
+            + "(g.black_team_player1_id = p2.id AND g.black_team_player2_id = p1.id) THEN 1 END)";
+
+    private static final String TEAM_VIEW = "SELECT p1.id AS player1_id, p2.id AS player2_id, "
+            + "COUNT(DISTINCT g.id) AS games_played_together, "
+            + PAIR_WINS + " AS wins, "
+            + "ROUND((" + PAIR_WINS + ") * 100.0 / NULLIF(COUNT(DISTINCT g.id), 0), 4) "
+            + "AS win_percentage, "
+            + "SUM(CASE "
+            + "WHEN g.white_team_player1_id = p1.id AND g.white_team_player2_id = p2.id "
+            + "THEN g.white_team_score "
+            + "WHEN g.black_team_player1_id = p1.id AND g.black_team_player2_id = p2.id "
+            + "THEN g.black_team_score "
+            + "WHEN g.white_team_player1_id = p2.id AND g.white_team_player2_id = p1.id "
+            + "THEN g.white_team_score "
+            + "WHEN g.black_team_player1_id = p2.id AND g.black_team_player2_id = p1.id "
+            + "THEN g.black_team_score "
+            + "ELSE 0 END) / NULLIF(COUNT(DISTINCT g.id), 0) AS avg_team_score "
+            + "FROM foosball.players p1 CROSS JOIN foosball.players p2 "
+            + "LEFT JOIN foosball.games g ON " + PAIR_PLAYED + " "
+            + "WHERE p1.id < p2.id GROUP BY p1.id, p1.name, p2.id, p2.name "
+            + "HAVING COUNT(DISTINCT g.id) > 0 ORDER BY p1.id, p2.id";
+
+    private static final String TEAM_TABLE = "SELECT player1_id, player2_id, "
+            + "games_played_together::bigint AS games_played_together, wins::bigint AS wins, "
+            + "ROUND(win_percentage, 4) AS win_percentage, "
+            + "avg_team_score::bigint AS avg_team_score "
+            + "FROM foosball.team_stats ORDER BY player1_id, player2_id";
+
+    // The player view over the games in a window, as the form stats read the daily buckets
+    private static final String PLAYER_VIEW_SINCE = "SELECT p.id, "
+            + "COUNT(DISTINCT g.id) AS total_games, "
+            + "COUNT(CASE WHEN g.winner = 'WHITE' AND (g.white_team_player1_id = p.id "
+            + "OR g.white_team_player2_id = p.id) THEN 1 END) + "
+            + "COUNT(CASE WHEN g.winner = 'BLACK' AND (g.black_team_player1_id = p.id "
+            + "OR g.black_team_player2_id = p.id) THEN 1 END) AS wins "
+            + "FROM foosball.players p "
+            + "JOIN foosball.games g ON p.id IN (g.white_team_player1_id, "
+            + "g.white_team_player2_id, g.black_team_player1_id, g.black_team_player2_id) "
+            + "AND g.played_at >= ? GROUP BY p.id";
+
+    private static final String PLAYER_ROWS = "SELECT player_id, total_games, wins, draws, "
+            + "goals_for, goals_against FROM foosball.player_stats ORDER BY player_id";
+
+    private static final String DAILY_ROWS = "SELECT player_id, day, games, wins, draws, "
+            + "goals_for, goals_against FROM foosball.player_daily_stats ORDER BY player_id, day";
+
+    private static final String DAILY_TOTALS = "SELECT player_id, SUM(games) AS total_games, "
+            + "SUM(wins) AS wins, SUM(draws) AS draws, SUM(goals_for) AS goals_for, "
+            + "SUM(goals_against) AS goals_against "
+            + "FROM foosball.player_daily_stats GROUP BY player_id ORDER BY player_id";
+
+    private static final String PLAYER_TOTALS = "SELECT player_id, total_games::bigint, "
+            + "wins::bigint, draws::bigint, goals_for::bigint, goals_against::bigint "
+            + "FROM foosball.player_stats ORDER BY player_id";
+
+    @Autowired
+    private FoosballService foosballService;
+
+    @Autowired
+    private GameIngestService gameIngestService;
+
+    @Autowired
+    private FoosballController controller;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private PlayerDirectory playerDirectory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Player alice;
+    private Player bob;
+    private Player charlie;
+    private Player diana;
+    private Player eve;
+
+    @BeforeEach
+    void setUp() {
+        gameRepository.deleteAll();
+        playerRepository.deleteAll();
+        // The deletes bypass FoosballService, so nothing tells the directory
+        playerDirectory.invalidate();
+        foosballService.rebuildStatistics(false);
+        alice = foosballService.createPlayer("Alice");
+        bob = foosballService.createPlayer("Bob");
+        charlie = foosballService.createPlayer("Charlie");
+        diana = foosballService.createPlayer("Diana");
+        eve = foosballService.createPlayer("Eve");
+    }
+
+    @Test
+    void shouldRecordTheSameTotalsAsTheOldViews() {
+        // Given
+        recordGames();
+
+        // Then
+        assertThat(jdbcTemplate.queryForList(PLAYER_TABLE))
+                .isEqualTo(jdbcTemplate.queryForList(PLAYER_VIEW));
+        assertThat(jdbcTemplate.queryForList(TEAM_TABLE))
+                .isEqualTo(jdbcTemplate.queryForList(TEAM_VIEW));
+        assertThat(jdbcTemplate.queryForList(DAILY_TOTALS))
+                .isEqualTo(jdbcTemplate.queryForList(PLAYER_TOTALS));
+    }
+
+    @Test
+    void shouldCountAPlayerOnceInAGameTheyPlayTwoSeatsOf() {
+        // Given
+        foosballService.recordGame(alice, alice, bob, charlie, 10, 8);
+        foosballService.recordGame(alice, bob, alice, charlie, 4, 10);
+
+        // Then: two games won, the second from a black seat, with the goals of the white seats
+        assertThat(jdbcTemplate.queryForMap(
+                        "SELECT total_games, wins, draws, goals_for, goals_against "
+                                + "FROM foosball.player_stats WHERE player_id = ?",
+                        alice.getId()))
+                .containsExactly(
+                        entry("total_games", 2),
+                        entry("wins", 2),
+                        entry("draws", 0),
+                        entry("goals_for", 14),
+                        entry("goals_against", 18));
+    }
+
+    @Test
+    void shouldRebuildTheSameTotalsAsRecorded() {
+        // Given
+        recordGames();
+        final var players = jdbcTemplate.queryForList(PLAYER_ROWS);
+        final var teams = jdbcTemplate.queryForList(TEAM_TABLE);
+        final var daily = jdbcTemplate.queryForList(DAILY_ROWS);
+
+        // When
+        controller.rebuildStatistics(false);
+
+        // Then
+        assertThat(jdbcTemplate.queryForList(PLAYER_ROWS)).isEqualTo(players);
+        assertThat(jdbcTemplate.queryForList(TEAM_TABLE)).isEqualTo(teams);
+        assertThat(jdbcTemplate.queryForList(DAILY_ROWS)).isEqualTo(daily);
+        assertThat(jdbcTemplate.queryForList(PLAYER_TABLE))
+                .isEqualTo(jdbcTemplate.queryForList(PLAYER_VIEW));
+        assertThat(jdbcTemplate.queryForList(TEAM_TABLE))
+                .isEqualTo(jdbcTemplate.queryForList(TEAM_VIEW));
+    }
+
+    @Test
+    void shouldReportTheFormOfAWindowAsTheOldViewOverItsGames() {
+        // Given
+        recordGames();
+
+        // Then: before and after a rebuild, for windows with and without the older games
+        for (var days : List.of(1, 15, 30)) {
+            assertThat(formStats(days)).as("%d days", days).isEqualTo(viewSince(days));
+        }
+        controller.rebuildStatistics(false);
+        for (var days : List.of(1, 15, 30)) {
+            assertThat(formStats(days)).as("%d days", days).isEqualTo(viewSince(days));
+        }
+    }
+
+    private void recordGames() {
+        foosballService.recordGame(alice, bob, charlie, diana, 10, 4);
+        foosballService.recordGame(alice, alice, bob, charlie, 10, 8);
+        foosballService.recordGame(charlie, diana, alice, bob, 7, 7);
+        foosballService.recordGame(alice, bob, alice, charlie, 10, 6);
+        foosballService.recordGame(alice, bob, bob, alice, 5, 10);
+        foosballService.recordGame(diana, eve, eve, diana, 6, 6);
+
+        final var tenDaysAgo = LocalDateTime.now().minusDays(10);
+        final var twentyDaysAgo = LocalDateTime.now().minusDays(20);
+        gameIngestService.recordGames(List.of(
+                new BulkGameRequest(
+                        "Charlie", "Alice", "Alice", "Diana", 10, 1, null, twentyDaysAgo),
+                new BulkGameRequest("Bob", "Charlie", "Diana", "Eve", 10, 2, null, tenDaysAgo),
+                new BulkGameRequest(
+                        "Eve", "Eve", "Alice", "Bob", 3, 3, null, tenDaysAgo.plusMinutes(5))));
+    }
+
+    private Map<Long, List<Long>> formStats(int days) {
+        return foosballService.getPlayerFormStats(days, 1, 100).stream()
+                .collect(Collectors.toMap(
+                        PlayerStats::getId, s -> List.of(s.getTotalGames(), s.getWins())));
+    }
+
+    private Map<Long, List<Long>> viewSince(int days) {
+        // Today counts as day one, as in FoosballService
+        final var fromDay = LocalDate.now().minusDays(days - 1L).atStartOfDay();
+        return jdbcTemplate.queryForList(PLAYER_VIEW_SINCE, Timestamp.valueOf(fromDay)).stream()
+                .collect(Collectors.toMap(
+                        row -> ((Number) row.get("id")).longValue(),
+                        row -> List.of(
+                                ((Number) row.get("total_games")).longValue(),
+                                ((Number) row.get("wins")).longValue())));
+    }
+}
@@ -308,13 +308,52 @@ class TournamentServiceIntegrationTest extends AbstractIntegrationTest {
         assertThat(semiFinalists).hasSize(2);
     }
 
+    @Test
+    void shouldCompleteRoundRobinWhenEveryMatchIsPlayed() {
+        // Given - Four teams, so six matches over three rounds
+        tournament = createAndStartTournament(Tournament.TournamentType.ROUND_ROBIN);
+        var matches = matchRepository.findByTournamentIdOrderByRoundNumberAscMatchNumberAsc(
+                tournament.getId());
+        assertThat(matches).hasSize(6);
+        assertThat(matches).allMatch(m -> m.getStatus() == TournamentMatch.MatchStatus.READY);
+        assertThat(tournamentRepository.findById(tournament.getId()).orElseThrow())
+                .extracting(Tournament::getMatchesRemaining)
+                .isEqualTo(6);
+
+        // When - Every match is played
+        for (var match : matches) {
+            var game = createGame(
+                    match.getTeam1().getPlayer(),
+                    match.getTeam1().getPartner(),
+                    match.getTeam2().getPlayer(),
+                    match.getTeam2().getPartner(),
+                    10,
+                    7);
+            tournamentService.completeMatch(match.getId(), game.getId());
+        }
+
+        // Then
+        var completedTournament =
+                tournamentRepository.findById(tournament.getId()).orElseThrow();
+        assertThat(completedTournament.getMatchesRemaining()).isZero();
+        assertThat(completedTournament.getStatus())
+                .isEqualTo(Tournament.TournamentStatus.COMPLETED);
+        assertThat(standingRepository.findByTournamentIdOrderByPointsDesc(tournament.getId()))
+                .hasSize(4)
+                .allMatch(s -> s.getGamesPlayed() == 3);
+    }
+
     // Helper methods
 
     private Tournament createAndStartTournament() {
+        return createAndStartTournament(Tournament.TournamentType.SINGLE_ELIMINATION);
+    }
+
+    private Tournament createAndStartTournament(Tournament.TournamentType type) {
         var request = new CreateTournamentRequest(
                 "Test Tournament",
                 "Test Description",
-                Tournament.TournamentType.SINGLE_ELIMINATION,
+                type,
                 4,
                 LocalDateTime.now().minusDays(1),
                 LocalDateTime.now().plusDays(1),
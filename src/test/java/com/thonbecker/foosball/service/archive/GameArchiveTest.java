@@ -0,0 +1,161 @@
+package com.thonbecker.foosball.service.archive;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.thonbecker.foosball.event.GameRecordedEvent;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+class GameArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate jdbcTemplate;
+    private GameArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        archive = new GameArchive(jdbcTemplate, directory, true);
+    }
+
+    @Test
+    void shouldReadBackWhatWasWrittenOneFilePerMonthInPlayOrder() {
+        // Given
+        final var march = game(
+                7L, 1L, 2L, 3L, 4L, 10, 8, LocalDateTime.of(2026, 3, 31, 23, 59, 59, 123_456_000));
+        final var early = game(12L, 4L, 3L, 2L, 1L, 5, 10, LocalDateTime.of(2026, 4, 2, 9, 0));
+        // Recorded later but played earlier: the id goes backwards in play order
+        final var backdated = game(9L, 1L, 1L, 900L, 2L, 6, 6, LocalDateTime.of(2026, 4, 1, 12, 0));
+
+        // When
+        final var written = archive.write(List.of(early, march, backdated));
+
+        // Then
+        assertThat(written).isEqualTo(3);
+        assertThat(archive.months()).containsExactly(YearMonth.of(2026, 3), YearMonth.of(2026, 4));
+        final var replayed = new ArrayList<GameRecordedEvent>();
+        assertThat(archive.replay(replayed::add)).isEqualTo(3);
+        assertThat(replayed).containsExactly(march, backdated, early);
+    }
+
+    @Test
+    void shouldNotReplayArchivedGamesThatAreStillInTheGamesTable() {
+        // Given: the delete of the chunk holding game 2 did not go through
+        final var deleted = game(1L, 1L, 2L, 3L, 4L, 10, 2, LocalDateTime.of(2026, 5, 1, 10, 0));
+        final var retained = game(2L, 1L, 3L, 2L, 4L, 3, 10, LocalDateTime.of(2026, 5, 2, 10, 0));
+        archive.write(List.of(deleted, retained));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(), any()))
+                .thenReturn(List.of(2L));
+
+        // When
+        final var replayed = new ArrayList<GameRecordedEvent>();
+        final var games = archive.replay(replayed::add);
+
+        // Then
+        assertThat(games).isEqualTo(1);
+        assertThat(replayed).containsExactly(deleted);
+    }
+
+    @Test
+    void shouldRecordEachWrittenMonthAndRefuseAnArchiveMissingOne() {
+        // Given: another instance archived June into its own directory
+        final var may = game(1L, 1L, 2L, 3L, 4L, 10, 2, LocalDateTime.of(2026, 5, 1, 10, 0));
+        archive.write(List.of(may));
+        when(jdbcTemplate.queryForList(anyString(), eq(LocalDate.class)))
+                .thenReturn(List.of(LocalDate.of(2026, 5, 1), LocalDate.of(2026, 6, 1)));
+
+        // When/Then
+        verify(jdbcTemplate).update(anyString(), eq(LocalDate.of(2026, 5, 1)), eq(1));
+        assertThat(archive.missingMonths()).containsExactly(YearMonth.of(2026, 6));
+        assertThatThrownBy(archive::requireComplete)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("2026-06")
+                .hasMessageContaining("shared");
+    }
+
+    @Test
+    void shouldSkipGamesThatAreAlreadyArchived() {
+        // Given
+        final var first = game(1L, 1L, 2L, 3L, 4L, 10, 2, LocalDateTime.of(2026, 5, 1, 10, 0));
+        final var second = game(2L, 1L, 3L, 2L, 4L, 3, 10, LocalDateTime.of(2026, 5, 2, 10, 0));
+        archive.write(List.of(first));
+
+        // When
+        final var written = archive.write(List.of(first, second));
+
+        // Then
+        assertThat(written).isEqualTo(1);
+        final var replayed = new ArrayList<GameRecordedEvent>();
+        archive.read(YearMonth.of(2026, 5), replayed::add);
+        assertThat(replayed).containsExactly(first, second);
+    }
+
+    @Test
+    void shouldStoreAGameInAFewBytes() throws Exception {
+        // Given
+        final var games = new ArrayList<GameRecordedEvent>();
+        final var start = LocalDateTime.of(2026, 6, 1, 8, 0);
+        for (int i = 0; i < 1000; i++) {
+            games.add(game(
+                    10_000L + i,
+                    i % 8 + 1L,
+                    (i + 1) % 8 + 1L,
+                    (i + 2) % 8 + 1L,
+                    (i + 3) % 8 + 1L,
+                    10,
+                    i % 10,
+                    start.plusMinutes(15L * i)));
+        }
+
+        // When
+        archive.write(games);
+
+        // Then
+        final var size = Files.size(directory.resolve("games-2026-06.fga"));
+        assertThat(size).isLessThan(16L * games.size());
+        final var replayed = new ArrayList<GameRecordedEvent>();
+        archive.read(YearMonth.of(2026, 6), replayed::add);
+        assertThat(replayed).isEqualTo(games);
+    }
+
+    @Test
+    void shouldWriteNothingWhenDisabled() {
+        // Given
+        final var disabled = new GameArchive(mock(JdbcTemplate.class), directory, false);
+
+        // When
+        final var written = disabled.write(
+                List.of(game(1L, 1L, 2L, 3L, 4L, 10, 2, LocalDateTime.of(2026, 5, 1, 10, 0))));
+
+        // Then
+        assertThat(written).isZero();
+        assertThat(disabled.months()).isEmpty();
+    }
+
+    private static GameRecordedEvent game(
+            Long id,
+            Long white1,
+            Long white2,
+            Long black1,
+            Long black2,
+            int whiteScore,
+            int blackScore,
+            LocalDateTime playedAt) {
+        return new GameRecordedEvent(
+                id, white1, white2, black1, black2, whiteScore, blackScore, playedAt);
+    }
+}
@@ -0,0 +1,93 @@
+package com.thonbecker.foosball.service.cluster;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.GamesPurgedEvent;
+import com.thonbecker.foosball.event.LeaderboardChangedEvent;
+import com.thonbecker.foosball.event.PlayerCreatedEvent;
+import com.thonbecker.foosball.event.PlayerRatingsChangedEvent;
+import com.thonbecker.foosball.event.StatisticsRebuiltEvent;
+import com.thonbecker.foosball.event.TournamentChangedEvent;
+import com.thonbecker.foosball.model.StatsRebuildResponse;
+import com.thonbecker.foosball.projection.ScoreTally;
+import com.thonbecker.foosball.service.cluster.ChangeCodec.Reset;
+import com.thonbecker.foosball.service.rating.RatingChange;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class ChangeCodecTest {
+
+    @Test
+    void shouldRoundTripEveryForwardedEvent() {
+        // Given
+        final var events = List.of(
+                new PlayerCreatedEvent(7L, "Zoë van der Berg\nJr."),
+                new GameRecordedEvent(
+                        42L,
+                        1L,
+                        2L,
+                        3L,
+                        4L,
+                        10,
+                        7,
+                        LocalDateTime.of(2026, 5, 1, 12, 0, 1, 123_456_000)),
+                new PlayerRatingsChangedEvent(
+                        42L, List.of(new RatingChange(1L, 1500.0, 1516.123456789))),
+                new StatisticsRebuiltEvent(new StatsRebuildResponse(4, 3, 20, 1000L)),
+                new TournamentChangedEvent(9L),
+                Reset.PLAYERS,
+                Reset.ALL);
+
+        for (var event : events) {
+            // When
+            final var line = ChangeCodec.encode(event);
+
+            // Then
+            assertThat(line).doesNotContain("\n");
+            assertThat(ChangeCodec.decode(line)).isEqualTo(event);
+        }
+    }
+
+    @Test
+    void shouldRoundTripPurgedScoreTallies() {
+        // Given
+        final var event = new GamesPurgedEvent(List.of(tally(15, 3L, 1L), tally(18, 10L, 0L)));
+
+        // When
+        final var decoded = (GamesPurgedEvent) ChangeCodec.decode(ChangeCodec.encode(event));
+
+        // Then
+        assertThat(decoded.games()).isEqualTo(13L);
+        assertThat(decoded.deleted())
+                .extracting(ScoreTally::getTotalScore, ScoreTally::getDraws)
+                .containsExactly(tuple(15, 1L), tuple(18, 0L));
+    }
+
+    @Test
+    void shouldNotForwardEventsDerivedOnEachNode() {
+        assertThat(ChangeCodec.encode(new LeaderboardChangedEvent(1L, 1, 2))).isNull();
+    }
+
+    private static ScoreTally tally(int totalScore, long games, long draws) {
+        return new ScoreTally() {
+            @Override
+            public Integer getTotalScore() {
+                return totalScore;
+            }
+
+            @Override
+            public Long getGames() {
+                return games;
+            }
+
+            @Override
+            public Long getDraws() {
+                return draws;
+            }
+        };
+    }
+}
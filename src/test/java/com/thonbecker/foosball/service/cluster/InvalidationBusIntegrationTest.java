@@ -0,0 +1,156 @@
+package com.thonbecker.foosball.service.cluster;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.thonbecker.foosball.AbstractIntegrationTest;
+import com.thonbecker.foosball.config.SecondLevelCache;
+import com.thonbecker.foosball.entity.Tournament;
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.PlayerCreatedEvent;
+import com.thonbecker.foosball.event.TournamentChangedEvent;
+import com.thonbecker.foosball.model.CreateTournamentRequest;
+import com.thonbecker.foosball.service.FoosballService;
+import com.thonbecker.foosball.service.TournamentService;
+import com.thonbecker.foosball.service.player.PlayerDirectory;
+import com.thonbecker.foosball.service.stats.GameOverview;
+import com.thonbecker.foosball.service.stats.HeadToHead;
+import com.thonbecker.foosball.service.stats.PlayerLeaderboard;
+import com.thonbecker.foosball.service.tournament.StandingsRanking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+// The application context is one node; a second bus on the same database plays another
+@TestPropertySource(properties = {"spring.jpa.hibernate.ddl-auto=none"})
+class InvalidationBusIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private FoosballService foosballService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private InvalidationBus bus;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    private ApplicationEventPublisher otherPublisher;
+    private PlayerLeaderboard otherLeaderboard;
+    private SecondLevelCache otherCache;
+    private InvalidationBus otherNode;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        otherPublisher = mock(ApplicationEventPublisher.class);
+        otherLeaderboard = mock(PlayerLeaderboard.class);
+        otherCache = mock(SecondLevelCache.class);
+        otherNode = new InvalidationBus(
+                jdbcTemplate,
+                transactionManager,
+                dataSourceProperties,
+                otherPublisher,
+                mock(PlayerDirectory.class),
+                otherLeaderboard,
+                mock(HeadToHead.class),
+                mock(GameOverview.class),
+                otherCache,
+                mock(StandingsRanking.class),
+                new SimpleMeterRegistry(),
+                true,
+                Duration.ofMillis(100));
+        otherNode.start();
+        for (int i = 0; i < 100 && !(otherNode.isListening() && bus.isListening()); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(otherNode.isListening()).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherNode.stop();
+    }
+
+    @Test
+    void shouldReplayAPlayerCreatedOnAnotherNode() {
+        // When
+        final var player = foosballService.createPlayer("Nodeless Nora");
+
+        // Then
+        verify(otherPublisher, timeout(5000))
+                .publishEvent((Object) new PlayerCreatedEvent(player.getId(), "Nodeless Nora"));
+    }
+
+    @Test
+    void shouldReplayARecordedGameOnAnotherNode() {
+        // Given
+        final var p1 = foosballService.createPlayer("Bus Alice");
+        final var p2 = foosballService.createPlayer("Bus Bob");
+        final var p3 = foosballService.createPlayer("Bus Carol");
+        final var p4 = foosballService.createPlayer("Bus Dave");
+
+        // When
+        final var game = foosballService.recordGame(p1, p2, p3, p4, 10, 6);
+
+        // Then
+        verify(otherPublisher, timeout(5000))
+                .publishEvent(argThat((Object event) -> event instanceof GameRecordedEvent recorded
+                        && recorded.gameId().equals(game.getId())
+                        && recorded.whiteTeamScore() == 10));
+    }
+
+    @Test
+    void shouldReplayTournamentWritesOnAnotherNode() {
+        // Given
+        final var creator = foosballService.createPlayer("Bus Organiser");
+
+        // When
+        final var tournament = tournamentService.createTournament(
+                new CreateTournamentRequest(
+                        "Bus Cup",
+                        null,
+                        Tournament.TournamentType.SINGLE_ELIMINATION,
+                        8,
+                        null,
+                        null,
+                        null,
+                        null),
+                creator.getId());
+
+        // Then
+        verify(otherPublisher, timeout(5000))
+                .publishEvent((Object) new TournamentChangedEvent(tournament.getId()));
+        verify(otherCache).evictTournament(tournament.getId());
+    }
+
+    @Test
+    void shouldIgnoreItsOwnChanges() {
+        // When
+        otherNode.onTournamentChanged(new TournamentChangedEvent(-1L));
+        final var player = foosballService.createPlayer("Echo Ed");
+
+        // Then: the other node's own change never comes back to it
+        verify(otherPublisher, timeout(5000))
+                .publishEvent((Object) new PlayerCreatedEvent(player.getId(), "Echo Ed"));
+        verify(otherPublisher, never()).publishEvent((Object) new TournamentChangedEvent(-1L));
+    }
+}
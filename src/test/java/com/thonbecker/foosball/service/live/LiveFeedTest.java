@@ -0,0 +1,169 @@
+package com.thonbecker.foosball.service.live;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.LeaderboardChangedEvent;
+import com.thonbecker.foosball.projection.PlayerStats;
+import com.thonbecker.foosball.service.stats.PlayerLeaderboard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class LiveFeedTest {
+
+    private PlayerLeaderboard leaderboard;
+    private SimpleMeterRegistry meterRegistry;
+    private LiveFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = mock(PlayerLeaderboard.class);
+        meterRegistry = new SimpleMeterRegistry();
+        feed = new LiveFeed(
+                leaderboard,
+                new ObjectMapper().registerModule(new JavaTimeModule()),
+                meterRegistry,
+                3,
+                Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldSendTheGameAndThenOnlyThePositionsThatChanged() throws Exception {
+        // Given
+        final var alice = player(1L, "Alice", 1560.0);
+        final var bob = player(2L, "Bob", 1550.0);
+        final var carol = player(3L, "Carol", 1500.0);
+        when(leaderboard.ranked(1, Integer.MAX_VALUE)).thenReturn(List.of(alice, bob, carol));
+        final var emitter = new RecordingEmitter(2);
+        feed.subscribe(emitter);
+        when(leaderboard.ranked(1, 2)).thenReturn(List.of(bob, alice));
+
+        // When: the game swapped the first two
+        feed.onGameRecorded(game(42L));
+        feed.onLeaderboardChanged(new LeaderboardChangedEvent(42L, 1, 2));
+
+        // Then
+        assertThat(emitter.await()).isTrue();
+        assertThat(emitter.events.get(0)).contains("id:1", "event:game", "\"gameId\":42");
+        assertThat(emitter.events.get(1))
+                .contains("id:2", "event:leaderboard", "\"playerId\":2", "\"from\":2", "\"to\":1")
+                .doesNotContain("Carol");
+        verify(leaderboard, times(1)).ranked(1, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void shouldDropTheOldestMessagesOfASlowSubscriber() throws Exception {
+        // Given
+        final var release = new CountDownLatch(1);
+        final var emitter = new RecordingEmitter(4) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        feed.subscribe(emitter);
+
+        // When
+        feed.onGameRecorded(game(1L));
+        Thread.sleep(100); // The subscriber is now blocked sending game 1
+        for (long id = 2; id <= 6; id++) {
+            feed.onGameRecorded(game(id));
+        }
+        release.countDown();
+
+        // Then
+        assertThat(emitter.await()).isTrue();
+        assertThat(emitter.events).hasSize(4);
+        assertThat(emitter.events.get(0)).contains("id:1\n");
+        assertThat(emitter.events.subList(1, 4))
+                .satisfiesExactly(
+                        event -> assertThat(event).contains("id:4\n"),
+                        event -> assertThat(event).contains("id:5\n"),
+                        event -> assertThat(event).contains("id:6\n"));
+        assertThat(meterRegistry.counter("foosball.live.dropped").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldForgetSubscribersThatComplete() {
+        // Given
+        feed.subscribe(new RecordingEmitter(1));
+        final var emitter = new RecordingEmitter(1);
+        feed.subscribe(emitter);
+
+        // When
+        emitter.complete();
+
+        // Then
+        assertThat(feed.subscriberCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("foosball.live.subscribers").gauge().value())
+                .isEqualTo(1.0);
+    }
+
+    private static GameRecordedEvent game(Long id) {
+        return new GameRecordedEvent(
+                id, 1L, 2L, 3L, 4L, 10, 5, LocalDateTime.of(2026, 5, 1, 12, 0));
+    }
+
+    private static PlayerStats player(Long id, String name, Double rating) {
+        final var player = mock(PlayerStats.class);
+        when(player.getId()).thenReturn(id);
+        when(player.getName()).thenReturn(name);
+        when(player.getRating()).thenReturn(rating);
+        return player;
+    }
+
+    // Captures each event as its wire text instead of writing to a response
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> events = new ArrayList<>();
+        private final CountDownLatch received;
+        private Runnable onCompletion = () -> {};
+
+        RecordingEmitter(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            final var text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            synchronized (events) {
+                events.add(text.toString());
+            }
+            received.countDown();
+        }
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            this.onCompletion = callback;
+        }
+
+        @Override
+        public synchronized void complete() {
+            onCompletion.run();
+        }
+
+        boolean await() throws InterruptedException {
+            return received.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.thonbecker.foosball.service.player;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.event.PlayerCreatedEvent;
+import com.thonbecker.foosball.repository.PlayerRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class PlayerDirectoryTest {
+
+    private PlayerRepository repository;
+    private PlayerDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PlayerRepository.class);
+        when(repository.findAll())
+                .thenReturn(List.of(
+                        player(1L, "Alice"),
+                        player(2L, "Bob"),
+                        player(3L, "alicia"),
+                        player(4L, "Malice"),
+                        player(5L, "bob")));
+        directory = new PlayerDirectory(repository);
+    }
+
+    @Test
+    void shouldResolveOnlyTheExactName() {
+        // When / Then
+        assertThat(directory.findByName("Bob")).map(Player::getId).contains(2L);
+        assertThat(directory.findByName("bob")).map(Player::getId).contains(5L);
+        // Only one player folds to "alice", but a game is never recorded against a lookalike
+        assertThat(directory.findByName("ALICE")).isEmpty();
+        assertThat(directory.findByName("BOB")).isEmpty();
+        assertThat(directory.findByName("Nobody")).isEmpty();
+        assertThat(directory.search("ALICE")).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void shouldSearchBySubstringIgnoringCaseInNameOrder() {
+        // When / Then
+        assertThat(directory.search("ALI")).containsExactly(1L, 4L, 3L);
+        assertThat(directory.search("lic")).containsExactly(1L, 4L, 3L);
+        assertThat(directory.search("ice")).containsExactly(1L, 4L);
+        assertThat(directory.search("zz")).isEmpty();
+        assertThat(directory.search("")).hasSize(5);
+    }
+
+    @Test
+    void shouldLoadOnceUntilAPlayerIsCreated() {
+        // Given
+        directory.findByName("Alice");
+        directory.search("b");
+        assertThat(directory.contains(4L)).isTrue();
+        verify(repository, times(1)).findAll();
+
+        // When
+        when(repository.findAll()).thenReturn(List.of(player(1L, "Alice"), player(6L, "Carol")));
+        directory.onPlayerCreated(new PlayerCreatedEvent(6L, "Carol"));
+
+        // Then
+        assertThat(directory.findByName("Carol")).map(Player::getId).contains(6L);
+        assertThat(directory.contains(4L)).isFalse();
+        verify(repository, times(2)).findAll();
+    }
+
+    private static Player player(Long id, String name) {
+        final var player = new Player(name);
+        player.setId(id);
+        return player;
+    }
+}
@@ -0,0 +1,51 @@
+package com.thonbecker.foosball.service.rating;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class EloRatingCalculatorTest {
+
+    private final EloRatingCalculator calculator = new EloRatingCalculator(32.0);
+
+    @Test
+    void shouldSplitKFactorEvenlyForEqualTeams() {
+        // When
+        var delta = calculator.whiteTeamDelta(1500.0, 1500.0, 5, 3);
+
+        // Then
+        assertThat(delta).isCloseTo(16.0, within(1e-9));
+    }
+
+    @Test
+    void shouldRewardUpsetMoreThanExpectedWin() {
+        // When
+        var upset = calculator.whiteTeamDelta(1400.0, 1600.0, 5, 4);
+        var expected = calculator.whiteTeamDelta(1600.0, 1400.0, 5, 4);
+
+        // Then
+        assertThat(upset).isGreaterThan(expected);
+        assertThat(upset + expected).isCloseTo(32.0, within(1e-9));
+    }
+
+    @Test
+    void shouldMoveRatingsTowardsEachOtherOnDraw() {
+        // When
+        var delta = calculator.whiteTeamDelta(1600.0, 1400.0, 4, 4);
+
+        // Then
+        assertThat(delta).isNegative();
+    }
+
+    @Test
+    void shouldAverageTeamRatings() {
+        assertThat(EloRatingCalculator.teamRating(1400.0, 1600.0)).isEqualTo(1500.0);
+        assertThat(EloRatingCalculator.expectedScore(1500.0, 1500.0)).isEqualTo(0.5);
+    }
+
+    @Test
+    void shouldRejectNonPositiveKFactor() {
+        assertThatThrownBy(() -> new EloRatingCalculator(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,199 @@
+package com.thonbecker.foosball.service.rating;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.thonbecker.foosball.AbstractIntegrationTest;
+import com.thonbecker.foosball.entity.Game;
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.repository.GameRepository;
+import com.thonbecker.foosball.repository.PlayerRepository;
+import com.thonbecker.foosball.service.CleanupService;
+import com.thonbecker.foosball.service.FoosballService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@TestPropertySource(properties = {"spring.jpa.hibernate.ddl-auto=none"})
+class RatingServiceIntegrationTest extends AbstractIntegrationTest {
+
+    private static final String RATINGS =
+            "SELECT player_id, rating, games_rated FROM foosball.player_ratings ORDER BY player_id";
+
+    private static final String HISTORY =
+            "SELECT game_id, player_id, rating_before, rating_after FROM foosball.rating_history "
+                    + "ORDER BY game_id, player_id, rating_before";
+
+    @TempDir
+    static Path archiveDir;
+
+    @DynamicPropertySource
+    static void archiveProps(DynamicPropertyRegistry registry) {
+        registry.add("foosball.archive.dir", () -> archiveDir.toString());
+    }
+
+    @Autowired
+    private FoosballService foosballService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private CleanupService cleanupService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Player> players;
+
+    @BeforeEach
+    void setUp() {
+        gameRepository.deleteAll();
+        playerRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM foosball.rating_history");
+        players = new ArrayList<>();
+        for (var name : List.of("Alice", "Bob", "Charlie", "Diana", "Eve", "Frank")) {
+            players.add(foosballService.createPlayer(name));
+        }
+    }
+
+    @Test
+    void shouldChainEveryPlayersHistoryWhenGamesAreRatedConcurrently() throws Exception {
+        // Given: Alice plays in every game, the others rotate. The games are rated on their own,
+        // without the stats upserts that would otherwise queue the transactions up first
+        final var threads = 8;
+        final var gamesPerThread = 10;
+        final var games = new ArrayList<List<Game>>();
+        for (int t = 0; t < threads; t++) {
+            final var batch = new ArrayList<Game>();
+            for (int i = 0; i < gamesPerThread; i++) {
+                final var seat = (t + i) % 5;
+                final var game = new Game(
+                        players.get(0),
+                        players.get(1 + seat),
+                        players.get(1 + (seat + 1) % 5),
+                        players.get(1 + (seat + 2) % 5));
+                game.setScores(10, (t + i) % 10);
+                batch.add(gameRepository.save(game));
+            }
+            games.add(batch);
+        }
+        final var start = new CountDownLatch(1);
+        final var results = new ArrayList<Future<?>>();
+
+        // When
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            for (var batch : games) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    batch.forEach(ratingService::recordGame);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (var result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+        }
+
+        // Then: each game starts from the rating the previous one left
+        final var lastAfter = new HashMap<Long, Double>();
+        jdbcTemplate.query(
+                "SELECT player_id, rating_before, rating_after FROM foosball.rating_history "
+                        + "ORDER BY player_id, id",
+                rs -> {
+                    final var playerId = rs.getLong("player_id");
+                    final var previous = lastAfter.get(playerId);
+                    if (previous != null) {
+                        assertThat(rs.getDouble("rating_before"))
+                                .as("player %d", playerId)
+                                .isCloseTo(previous, within(1e-9));
+                    }
+                    lastAfter.put(playerId, rs.getDouble("rating_after"));
+                });
+        assertThat(jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM foosball.rating_history WHERE player_id = ?",
+                        Long.class,
+                        players.get(0).getId()))
+                .isEqualTo(threads * gamesPerThread);
+        lastAfter.forEach((playerId, after) -> assertThat(jdbcTemplate.queryForObject(
+                        "SELECT rating FROM foosball.player_ratings WHERE player_id = ?",
+                        Double.class,
+                        playerId))
+                .isCloseTo(after, within(1e-9)));
+    }
+
+    @Test
+    void shouldReplayToTheRatingsTheGamesWereRecordedWith() {
+        // Given: a draw and a player in both white seats among the games
+        recordGames();
+        final var ratings = jdbcTemplate.queryForList(RATINGS);
+        final var history = jdbcTemplate.queryForList(HISTORY);
+
+        // When
+        final var result = ratingService.replayAll();
+
+        // Then
+        assertThat(result.replayedGames()).isEqualTo(6);
+        assertThat(jdbcTemplate.queryForList(RATINGS)).isEqualTo(ratings);
+        assertThat(jdbcTemplate.queryForList(HISTORY)).isEqualTo(history);
+    }
+
+    @Test
+    void shouldReplayTheArchivedGamesToTheSameRatingsAfterACleanup() {
+        // Given: the first three games are past the retention period
+        final var expired = recordGames().subList(0, 3);
+        for (var game : expired) {
+            jdbcTemplate.update(
+                    "UPDATE foosball.games SET played_at = played_at - INTERVAL '2 years' WHERE id = ?",
+                    game.getId());
+        }
+        final var ratings = jdbcTemplate.queryForList(RATINGS);
+        final var history = jdbcTemplate.queryForList(HISTORY);
+        cleanupService.cleanupOldGames();
+        assertThat(gameRepository.count()).isEqualTo(3);
+
+        // When
+        final var result = ratingService.replayAll();
+
+        // Then
+        assertThat(result.replayedGames()).isEqualTo(6);
+        assertThat(jdbcTemplate.queryForList(RATINGS)).isEqualTo(ratings);
+        assertThat(jdbcTemplate.queryForList(HISTORY)).isEqualTo(history);
+    }
+
+    private List<Game> recordGames() {
+        final var alice = players.get(0);
+        final var bob = players.get(1);
+        final var charlie = players.get(2);
+        final var diana = players.get(3);
+        final var games = new ArrayList<Game>();
+        games.add(foosballService.recordGame(alice, bob, charlie, diana, 10, 4));
+        games.add(foosballService.recordGame(alice, alice, bob, charlie, 10, 8));
+        games.add(foosballService.recordGame(charlie, diana, alice, bob, 7, 7));
+        games.add(foosballService.recordGame(bob, diana, alice, charlie, 3, 10));
+        games.add(foosballService.recordGame(alice, charlie, bob, bob, 10, 9));
+        games.add(foosballService.recordGame(diana, bob, charlie, alice, 5, 5));
+        return games;
+    }
+}
@@ -0,0 +1,134 @@
+package com.thonbecker.foosball.service.stats;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.GamesPurgedEvent;
+import com.thonbecker.foosball.event.StatisticsRebuiltEvent;
+import com.thonbecker.foosball.model.StatsRebuildResponse;
+import com.thonbecker.foosball.projection.ScoreTally;
+import com.thonbecker.foosball.repository.GameRepository;
+import com.thonbecker.foosball.service.player.PlayerDirectory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class GameOverviewTest {
+
+    private GameRepository repository;
+    private GameOverview overview;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(GameRepository.class);
+        final var directory = mock(PlayerDirectory.class);
+        when(directory.size()).thenReturn(4);
+        // 3 games 5-3, 1 draw 4-4, 2 games 5-0
+        when(repository.countGamesByTotalScore())
+                .thenReturn(List.of(tally(8, 4, 1), tally(5, 2, 0)));
+        overview = new GameOverview(repository, directory);
+    }
+
+    @Test
+    void shouldLoadTotalsFromOneAggregateQuery() {
+        // When
+        var stats = overview.snapshot().overview();
+
+        // Then
+        assertThat(stats.totalGames()).isEqualTo(6);
+        assertThat(stats.totalPlayers()).isEqualTo(4);
+        assertThat(stats.draws()).isEqualTo(1);
+        assertThat(stats.gamesWithWinner()).isEqualTo(5);
+        assertThat(stats.averageTotalScore()).isEqualTo(7.0);
+        assertThat(stats.highestTotalScore()).isEqualTo(8);
+        assertThat(stats.lowestTotalScore()).isEqualTo(5);
+        verify(repository, times(1)).countGamesByTotalScore();
+    }
+
+    @Test
+    void shouldAdjustTotalsAsGamesAreRecordedAndReloadThemAfterAPurge() {
+        // Given
+        var before = overview.snapshot();
+
+        // When
+        overview.onGameRecorded(game(5, 5));
+        var afterRecord = overview.snapshot();
+        // The purge has committed: the two 5-0 games are gone
+        when(repository.countGamesByTotalScore())
+                .thenReturn(List.of(tally(8, 4, 1), tally(10, 1, 1)));
+        overview.onGamesPurged(new GamesPurgedEvent(List.of(tally(5, 2, 0))));
+        var afterPurge = overview.snapshot();
+
+        // Then
+        assertThat(afterRecord.etag()).isNotEqualTo(before.etag());
+        assertThat(afterRecord.overview().totalGames()).isEqualTo(7);
+        assertThat(afterRecord.overview().draws()).isEqualTo(2);
+        assertThat(afterRecord.overview().highestTotalScore()).isEqualTo(10);
+
+        assertThat(afterPurge.etag()).isNotEqualTo(afterRecord.etag());
+        assertThat(afterPurge.overview().totalGames()).isEqualTo(5);
+        assertThat(afterPurge.overview().lowestTotalScore()).isEqualTo(8);
+        assertThat(afterPurge.overview().averageTotalScore()).isEqualTo(42.0 / 5);
+        verify(repository, times(2)).countGamesByTotalScore();
+    }
+
+    @Test
+    void shouldReloadAfterStatisticsRebuild() {
+        // Given
+        overview.snapshot();
+
+        // When
+        overview.onStatisticsRebuilt(new StatisticsRebuiltEvent(new StatsRebuildResponse(4, 0, 4)));
+        overview.snapshot();
+
+        // Then
+        verify(repository, times(2)).countGamesByTotalScore();
+    }
+
+    @Test
+    void shouldReloadInsteadOfCountingAGameTheLoadMayAlreadyHave() {
+        // Given: the tallies cover games up to id 6
+        when(repository.findLastGameId()).thenReturn(6L);
+        overview.snapshot();
+
+        // When: the event for game 1 arrives after the load
+        overview.onGameRecorded(game(5, 5));
+
+        // Then
+        assertThat(overview.snapshot().overview().totalGames()).isEqualTo(6);
+        verify(repository, times(2)).countGamesByTotalScore();
+    }
+
+    @Test
+    void shouldKeepEtagWhileNothingChanges() {
+        assertThat(overview.snapshot().etag()).isEqualTo(overview.snapshot().etag());
+    }
+
+    private static GameRecordedEvent game(int whiteScore, int blackScore) {
+        return new GameRecordedEvent(
+                1L, 1L, 2L, 3L, 4L, whiteScore, blackScore, LocalDateTime.now());
+    }
+
+    private static ScoreTally tally(int totalScore, long games, long draws) {
+        return new ScoreTally() {
+            @Override
+            public Integer getTotalScore() {
+                return totalScore;
+            }
+
+            @Override
+            public Long getGames() {
+                return games;
+            }
+
+            @Override
+            public Long getDraws() {
+                return draws;
+            }
+        };
+    }
+}
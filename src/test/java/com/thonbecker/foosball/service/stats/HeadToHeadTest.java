@@ -0,0 +1,156 @@
+package com.thonbecker.foosball.service.stats;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.GamesPurgedEvent;
+import com.thonbecker.foosball.event.StatisticsRebuiltEvent;
+import com.thonbecker.foosball.model.StatsRebuildResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class HeadToHeadTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private HeadToHead headToHead;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        headToHead = new HeadToHead(jdbcTemplate, mock(PlatformTransactionManager.class));
+        // Load the (empty) matrix so events are applied
+        headToHead.players(1L, 2L);
+    }
+
+    @Test
+    void shouldTrackPlayerVersusPlayerFromBothSides() {
+        // When
+        headToHead.onGameRecorded(game(1L, 2L, 3L, 4L, 5, 3));
+        headToHead.onGameRecorded(game(3L, 2L, 1L, 4L, 5, 5));
+
+        // Then
+        var oneVsThree = headToHead.players(1L, 3L);
+        assertThat(oneVsThree.games()).isEqualTo(2);
+        assertThat(oneVsThree.side1Wins()).isEqualTo(1);
+        assertThat(oneVsThree.side2Wins()).isZero();
+        assertThat(oneVsThree.draws()).isEqualTo(1);
+        assertThat(oneVsThree.side1Goals()).isEqualTo(10);
+        assertThat(oneVsThree.side2Goals()).isEqualTo(8);
+
+        var threeVsOne = headToHead.players(3L, 1L);
+        assertThat(threeVsOne.side1Wins()).isZero();
+        assertThat(threeVsOne.side2Wins()).isEqualTo(1);
+        assertThat(threeVsOne.side1Goals()).isEqualTo(8);
+
+        // Teammates in the first game, opponents in the second
+        assertThat(headToHead.players(1L, 2L).games()).isEqualTo(1);
+        assertThat(headToHead.players(1L, 2L).draws()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTrackPairVersusPairRegardlessOfSeatOrder() {
+        // When
+        headToHead.onGameRecorded(game(1L, 2L, 3L, 4L, 5, 3));
+        headToHead.onGameRecorded(game(4L, 3L, 2L, 1L, 5, 2));
+        headToHead.onGameRecorded(game(1L, 3L, 2L, 4L, 5, 0));
+
+        // Then
+        var rivalry = headToHead.pairs(2L, 1L, 3L, 4L);
+        assertThat(rivalry.games()).isEqualTo(2);
+        assertThat(rivalry.side1Wins()).isEqualTo(1);
+        assertThat(rivalry.side2Wins()).isEqualTo(1);
+        assertThat(rivalry.side1Goals()).isEqualTo(7);
+        assertThat(rivalry.side2Goals()).isEqualTo(8);
+    }
+
+    @Test
+    void shouldReturnEmptyRecordForPairsThatNeverPlayed() {
+        // When
+        var rivalry = headToHead.pairs(7L, 8L, 9L, 10L);
+
+        // Then
+        assertThat(rivalry.games()).isZero();
+        assertThat(rivalry.side1()).containsExactly(7L, 8L);
+    }
+
+    @Test
+    void shouldReloadAfterStatisticsRebuild() {
+        // Given
+        headToHead.onGameRecorded(game(1L, 2L, 3L, 4L, 5, 3));
+
+        // When
+        headToHead.onStatisticsRebuilt(
+                new StatisticsRebuiltEvent(new StatsRebuildResponse(0, 0, 0)));
+
+        // Then: the mocked games table is empty
+        assertThat(headToHead.players(1L, 3L).games()).isZero();
+        verify(jdbcTemplate, times(2))
+                .query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void shouldReloadAfterGamesArePurged() {
+        // Given
+        headToHead.onGameRecorded(game(1L, 2L, 3L, 4L, 5, 3));
+
+        // When
+        headToHead.onGamesPurged(new GamesPurgedEvent(List.of()));
+
+        // Then: the mocked games table is empty
+        assertThat(headToHead.players(1L, 3L).games()).isZero();
+        verify(jdbcTemplate, times(2))
+                .query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void shouldReloadInsteadOfCountingAGameTheLoadMayAlreadyHave() throws Exception {
+        // Given: the games table holds game 1, 1 and 2 against 3 and 4
+        final var row = mock(ResultSet.class);
+        when(row.getLong("id")).thenReturn(1L);
+        when(row.getLong("white_team_player1_id")).thenReturn(1L);
+        when(row.getLong("white_team_player2_id")).thenReturn(2L);
+        when(row.getLong("black_team_player1_id")).thenReturn(3L);
+        when(row.getLong("black_team_player2_id")).thenReturn(4L);
+        when(row.getInt("white_team_score")).thenReturn(5);
+        when(row.getInt("black_team_score")).thenReturn(3);
+        doAnswer(invocation -> {
+                    invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+                    return null;
+                })
+                .when(jdbcTemplate)
+                .query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        headToHead.invalidate();
+        assertThat(headToHead.players(1L, 3L).games()).isEqualTo(1);
+
+        // When: the event for game 1 arrives after the load
+        headToHead.onGameRecorded(game(1L, 2L, 3L, 4L, 5, 3));
+
+        // Then
+        assertThat(headToHead.players(1L, 3L).games()).isEqualTo(1);
+        verify(jdbcTemplate, times(3))
+                .query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void shouldPackIdsIntoOneLong() {
+        assertThat(HeadToHead.pack(1L, 2L)).isEqualTo((1L << 32) | 2L);
+        assertThatThrownBy(() -> HeadToHead.pack(1L, 1L << 33))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static GameRecordedEvent game(
+            Long white1, Long white2, Long black1, Long black2, int whiteScore, int blackScore) {
+        return new GameRecordedEvent(
+                1L, white1, white2, black1, black2, whiteScore, blackScore, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,289 @@
+package com.thonbecker.foosball.service.stats;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.event.GameRecordedEvent;
+import com.thonbecker.foosball.event.LeaderboardChangedEvent;
+import com.thonbecker.foosball.event.PlayerCreatedEvent;
+import com.thonbecker.foosball.event.PlayerRatingsChangedEvent;
+import com.thonbecker.foosball.event.StatisticsRebuiltEvent;
+import com.thonbecker.foosball.model.StatsRebuildResponse;
+import com.thonbecker.foosball.projection.PlayerStats;
+import com.thonbecker.foosball.repository.GameRepository;
+import com.thonbecker.foosball.repository.PlayerStatsRepository;
+import com.thonbecker.foosball.service.rating.RatingChange;
+import com.thonbecker.foosball.service.stats.PlayerLeaderboard.Ordering;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class PlayerLeaderboardTest {
+
+    private PlayerStatsRepository repository;
+    private GameRepository gameRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private PlayerLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PlayerStatsRepository.class);
+        when(repository.findAllPlayerStats())
+                .thenReturn(List.of(
+                        new LeaderboardEntry(1L, "Alice", 10, 8, 1560.0),
+                        new LeaderboardEntry(2L, "Bob", 20, 10, 1580.0),
+                        new LeaderboardEntry(3L, "Carol", 4, 4, 1540.0),
+                        new LeaderboardEntry(4L, "Dave", 0, 0, 1500.0)));
+        gameRepository = mock(GameRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        leaderboard = new PlayerLeaderboard(repository, gameRepository, eventPublisher);
+    }
+
+    @Test
+    void shouldOrderByWinPercentageWithPlayersWithoutGamesLast() {
+        // When
+        var stats = leaderboard.all(Ordering.WIN_PERCENTAGE);
+
+        // Then
+        assertThat(ids(stats)).containsExactly(3L, 1L, 2L, 4L);
+        assertThat(stats.get(3).getWinPercentage()).isNull();
+    }
+
+    @Test
+    void shouldFilterByMinGamesAndLimit() {
+        // When
+        var stats = leaderboard.top(Ordering.WIN_PERCENTAGE, 5, 1);
+
+        // Then
+        assertThat(ids(stats)).containsExactly(1L);
+    }
+
+    @Test
+    void shouldOrderByRatingForRankedPlayers() {
+        // When
+        var stats = leaderboard.top(Ordering.RATING, PlayerLeaderboard.RANKED_MIN_GAMES, 10);
+
+        // Then
+        assertThat(ids(stats)).containsExactly(2L, 1L);
+        assertThat(ids(leaderboard.all(Ordering.RATING))).containsExactly(2L, 1L, 3L, 4L);
+    }
+
+    @Test
+    void shouldApplyRatingChanges() {
+        // Given
+        leaderboard.all(Ordering.RATING);
+
+        // When
+        leaderboard.onPlayerRatingsChanged(new PlayerRatingsChangedEvent(
+                1L,
+                List.of(
+                        new RatingChange(4L, 1500.0, 1590.0),
+                        new RatingChange(2L, 1580.0, 1570.0))));
+
+        // Then
+        var stats = leaderboard.all(Ordering.RATING);
+        assertThat(ids(stats)).containsExactly(4L, 2L, 1L, 3L);
+        assertThat(stats.get(0).getRating()).isEqualTo(1590.0);
+        verify(repository, times(1)).findAllPlayerStats();
+    }
+
+    @Test
+    void shouldOrderByTotalGamesAndWins() {
+        assertThat(ids(leaderboard.all(Ordering.TOTAL_GAMES))).containsExactly(2L, 1L, 3L, 4L);
+        assertThat(ids(leaderboard.all(Ordering.WINS))).containsExactly(2L, 1L, 3L, 4L);
+    }
+
+    @Test
+    void shouldApplyRecordedGameToEveryOrdering() {
+        // Given
+        leaderboard.all(Ordering.WINS);
+
+        // When: Dave and Carol beat Alice and Bob
+        leaderboard.onGameRecorded(game(3L, 4L, 1L, 2L, 5, 3));
+
+        // Then
+        var byWins = leaderboard.all(Ordering.WINS);
+        assertThat(ids(byWins)).containsExactly(2L, 1L, 3L, 4L);
+        assertThat(byWins.get(0).getTotalGames()).isEqualTo(21L);
+        assertThat(byWins.get(2).getWins()).isEqualTo(5L);
+        assertThat(ids(leaderboard.all(Ordering.WIN_PERCENTAGE))).containsExactly(3L, 4L, 1L, 2L);
+        assertThat(leaderboard.size()).isEqualTo(4);
+        verify(repository, times(1)).findAllPlayerStats();
+    }
+
+    @Test
+    void shouldCountAPlayerInTwoSeatsOnce() {
+        // Given
+        leaderboard.all(Ordering.WINS);
+
+        // When: Alice plays both white seats, then sits on both sides and black wins
+        leaderboard.onGameRecorded(game(1L, 1L, 2L, 3L, 5, 3));
+        leaderboard.onGameRecorded(game(1L, 2L, 1L, 3L, 3, 5));
+
+        // Then: two more games and two more wins rather than four of each
+        var alice = leaderboard.all(Ordering.WINS).stream()
+                .filter(stats -> stats.getId() == 1L)
+                .findFirst()
+                .orElseThrow();
+        assertThat(alice.getTotalGames()).isEqualTo(12L);
+        assertThat(alice.getWins()).isEqualTo(10L);
+    }
+
+    @Test
+    void shouldAddCreatedPlayerWithoutReloading() {
+        // Given
+        leaderboard.all(Ordering.WINS);
+
+        // When
+        leaderboard.onPlayerCreated(new PlayerCreatedEvent(5L, "Eve"));
+
+        // Then
+        assertThat(ids(leaderboard.all(Ordering.TOTAL_GAMES))).containsExactly(2L, 1L, 3L, 4L, 5L);
+        verify(repository, times(1)).findAllPlayerStats();
+    }
+
+    @Test
+    void shouldReloadWhenGameReferencesUnknownPlayer() {
+        // Given
+        leaderboard.all(Ordering.WINS);
+
+        // When
+        leaderboard.onGameRecorded(game(1L, 2L, 3L, 99L, 5, 3));
+        leaderboard.all(Ordering.WINS);
+
+        // Then
+        verify(repository, times(2)).findAllPlayerStats();
+    }
+
+    @Test
+    void shouldReloadAfterStatisticsRebuild() {
+        // Given
+        leaderboard.all(Ordering.WINS);
+
+        // When
+        leaderboard.onStatisticsRebuilt(
+                new StatisticsRebuiltEvent(new StatsRebuildResponse(4, 0, 4)));
+        leaderboard.all(Ordering.WINS);
+
+        // Then
+        verify(repository, times(2)).findAllPlayerStats();
+    }
+
+    @Test
+    void shouldReloadInsteadOfCountingAGameTheLoadMayAlreadyHave() {
+        // Given: the load saw games up to id 1
+        when(gameRepository.findLastGameId()).thenReturn(1L);
+        leaderboard.all(Ordering.WINS);
+
+        // When: the event for game 1 arrives after the load
+        leaderboard.onPlayerRatingsChanged(
+                new PlayerRatingsChangedEvent(1L, List.of(new RatingChange(3L, 1540.0, 1600.0))));
+        leaderboard.onGameRecorded(game(3L, 4L, 1L, 2L, 5, 3));
+
+        // Then: the reloaded aggregates are taken as they are
+        var byWins = leaderboard.all(Ordering.WINS);
+        assertThat(byWins.get(0).getTotalGames()).isEqualTo(20L);
+        assertThat(byWins.get(2).getRating()).isEqualTo(1540.0);
+        verify(repository, times(2)).findAllPlayerStats();
+    }
+
+    @Test
+    void shouldReloadOncePlayersAreWrittenThroughTheRestEndpoints() {
+        // Given
+        leaderboard.all(Ordering.WINS);
+        when(repository.findAllPlayerStats())
+                .thenReturn(List.of(new LeaderboardEntry(1L, "Alice", 10, 8, 1560.0)));
+
+        // When: Bob, Carol and Dave are deleted
+        leaderboard.onPlayerChanged(new Player("Bob", "bob@example.com"));
+
+        // Then
+        assertThat(ids(leaderboard.all(Ordering.WINS))).containsExactly(1L);
+        assertThat(leaderboard.rankOf(2L, 1)).isEmpty();
+    }
+
+    @Test
+    void shouldReportRankPercentileAndNeighbours() {
+        // When
+        var rank = leaderboard.rankOf(1L, 2).orElseThrow();
+
+        // Then: Bob (1580) and Alice (1560) are the only ranked players
+        assertThat(rank.rank()).isEqualTo(2);
+        assertThat(rank.rankedPlayers()).isEqualTo(2);
+        assertThat(rank.percentile()).isEqualTo(0.0);
+        assertThat(ids(rank.above())).containsExactly(2L);
+        assertThat(rank.below()).isEmpty();
+    }
+
+    @Test
+    void shouldReportGamesUntilRankedForNewPlayers() {
+        // When
+        var rank = leaderboard.rankOf(3L, 2).orElseThrow();
+
+        // Then
+        assertThat(rank.rank()).isNull();
+        assertThat(rank.gamesUntilRanked()).isEqualTo(1);
+        assertThat(leaderboard.rankOf(99L, 2)).isEmpty();
+    }
+
+    @Test
+    void shouldEnterRankedBoardOnceEnoughGamesArePlayed() {
+        // Given
+        leaderboard.all(Ordering.RATING);
+
+        // When: Carol's fifth game
+        leaderboard.onGameRecorded(game(3L, 4L, 1L, 2L, 5, 3));
+        leaderboard.onPlayerRatingsChanged(
+                new PlayerRatingsChangedEvent(1L, List.of(new RatingChange(3L, 1540.0, 1600.0))));
+
+        // Then
+        var rank = leaderboard.rankOf(3L, 1).orElseThrow();
+        assertThat(rank.rank()).isEqualTo(1);
+        assertThat(rank.percentile()).isCloseTo(66.67, within(0.01));
+        assertThat(ids(rank.below())).containsExactly(2L);
+    }
+
+    @Test
+    void shouldPublishTheRankedPositionsAGameMoved() {
+        // Given
+        when(repository.findAllPlayerStats())
+                .thenReturn(List.of(
+                        new LeaderboardEntry(1L, "Alice", 10, 5, 1600.0),
+                        new LeaderboardEntry(2L, "Bob", 10, 5, 1590.0),
+                        new LeaderboardEntry(3L, "Carol", 10, 5, 1580.0),
+                        new LeaderboardEntry(4L, "Dave", 10, 5, 1570.0),
+                        new LeaderboardEntry(5L, "Eve", 10, 5, 1560.0)));
+        leaderboard.all(Ordering.RATING);
+        leaderboard.onGameRecorded(game(1L, 2L, 3L, 4L, 5, 3));
+
+        // When: Dave climbs from 4th to 2nd and Bob drops from 2nd to 4th
+        leaderboard.onPlayerRatingsChanged(new PlayerRatingsChangedEvent(
+                2L,
+                List.of(
+                        new RatingChange(4L, 1570.0, 1595.0),
+                        new RatingChange(2L, 1590.0, 1575.0))));
+        leaderboard.onGameRecorded(
+                new GameRecordedEvent(2L, 4L, 1L, 2L, 3L, 5, 3, LocalDateTime.now()));
+
+        // Then: the first change after a load covers the whole board
+        verify(eventPublisher).publishEvent(new LeaderboardChangedEvent(1L, 1, Integer.MAX_VALUE));
+        verify(eventPublisher).publishEvent(new LeaderboardChangedEvent(2L, 2, 4));
+        assertThat(ids(leaderboard.ranked(2, 4))).containsExactly(4L, 3L, 2L);
+        assertThat(ids(leaderboard.ranked(4, Integer.MAX_VALUE))).containsExactly(2L, 5L);
+    }
+
+    private static GameRecordedEvent game(
+            Long white1, Long white2, Long black1, Long black2, int whiteScore, int blackScore) {
+        return new GameRecordedEvent(
+                1L, white1, white2, black1, black2, whiteScore, blackScore, LocalDateTime.now());
+    }
+
+    private static List<Long> ids(List<PlayerStats> stats) {
+        return stats.stream().map(PlayerStats::getId).toList();
+    }
+}
@@ -0,0 +1,144 @@
+package com.thonbecker.foosball.service.tournament;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.entity.Tournament;
+import com.thonbecker.foosball.entity.TournamentRegistration;
+import com.thonbecker.foosball.entity.TournamentStanding;
+import com.thonbecker.foosball.repository.TournamentStandingRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class StandingsRankingTest {
+
+    private static final long TOURNAMENT_ID = 7L;
+
+    private TournamentStandingRepository repository;
+    private JdbcTemplate jdbcTemplate;
+    private StandingsRanking ranking;
+    private List<TournamentStanding> standings;
+
+    @BeforeEach
+    void setUp() {
+        final var tournament =
+                new Tournament("Cup", Tournament.TournamentType.ROUND_ROBIN, new Player("Org"));
+        tournament.setId(TOURNAMENT_ID);
+        // All level, so they are ranked by name: Ann, Ben, Cat, Dan, Eve, Fay
+        standings = new ArrayList<>();
+        final var names = List.of("Ann", "Ben", "Cat", "Dan", "Eve", "Fay");
+        for (int i = 0; i < names.size(); i++) {
+            final var standing = new TournamentStanding(
+                    tournament, new TournamentRegistration(tournament, new Player(names.get(i))));
+            standing.setId(i + 1L);
+            standing.setPosition(i + 1);
+            standings.add(standing);
+        }
+        repository = mock(TournamentStandingRepository.class);
+        when(repository.findForRanking(TOURNAMENT_ID)).thenReturn(standings);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        ranking = new StandingsRanking(repository, jdbcTemplate);
+        ranking.update(TOURNAMENT_ID, List.of());
+    }
+
+    @Test
+    void shouldWriteOnlyTheStandingsWhosePositionChanged() {
+        // Given: Eve beats Fay, so Eve goes top and Ann..Dan each drop one place
+        final var eve = standings.get(4);
+        final var fay = standings.get(5);
+        eve.recordWin(10, 5);
+        fay.recordLoss(5, 10);
+
+        // When
+        ranking.update(TOURNAMENT_ID, List.of(eve, fay));
+
+        // Then
+        assertThat(eve.getPosition()).isEqualTo(1);
+        assertThat(fay.getPosition()).isEqualTo(6);
+        assertThat(written()).containsExactly("2@1", "3@2", "4@3", "5@4");
+    }
+
+    @Test
+    void shouldOnlyCompareThePlacesBetweenTheMovedStandings() {
+        // Given
+        final var eve = standings.get(4);
+        final var fay = standings.get(5);
+        eve.recordWin(10, 5);
+        fay.recordLoss(5, 10);
+        ranking.update(TOURNAMENT_ID, List.of(eve, fay));
+        clearInvocations(jdbcTemplate);
+
+        // When: Cat beats Dan by less than Eve did; Cat passes Ann and Ben, Dan stays fifth
+        final var cat = standings.get(2);
+        final var dan = standings.get(3);
+        cat.recordWin(10, 8);
+        dan.recordLoss(8, 10);
+        ranking.update(TOURNAMENT_ID, List.of(cat, dan));
+
+        // Then
+        assertThat(cat.getPosition()).isEqualTo(2);
+        assertThat(dan.getPosition()).isEqualTo(5);
+        assertThat(written()).containsExactly("3@1", "4@2");
+        verify(repository, times(1)).findForRanking(TOURNAMENT_ID);
+    }
+
+    @Test
+    void shouldWriteNothingWhenNoPositionChanges() {
+        // Given: Ann, already first, beats Fay, already last
+        final var ann = standings.get(0);
+        final var fay = standings.get(5);
+        ann.recordWin(10, 2);
+        fay.recordLoss(2, 10);
+
+        // When
+        ranking.update(TOURNAMENT_ID, List.of(ann, fay));
+
+        // Then
+        assertThat(ann.getPosition()).isEqualTo(1);
+        assertThat(fay.getPosition()).isEqualTo(6);
+        assertThat(written()).isEmpty();
+    }
+
+    @Test
+    void shouldReloadAfterARolledBackUpdate() {
+        // Given
+        final var eve = standings.get(4);
+        eve.recordWin(10, 5);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ranking.update(TOURNAMENT_ID, List.of(eve));
+
+            // When
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ranking.update(TOURNAMENT_ID, List.of(eve));
+
+        // Then
+        verify(repository, times(2)).findForRanking(TOURNAMENT_ID);
+    }
+
+    // "position@id" for every row updated besides the standings passed in
+    @SuppressWarnings("unchecked")
+    private List<String> written() {
+        final ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atMost(1)).batchUpdate(anyString(), rows.capture());
+        return rows.getAllValues().stream()
+                .flatMap(List::stream)
+                .map(row -> row[0] + "@" + row[1])
+                .toList();
+    }
+}
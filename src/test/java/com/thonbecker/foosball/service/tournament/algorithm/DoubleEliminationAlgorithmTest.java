@@ -0,0 +1,250 @@
+package com.thonbecker.foosball.service.tournament.algorithm;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.entity.Tournament;
+import com.thonbecker.foosball.entity.TournamentMatch;
+import com.thonbecker.foosball.entity.TournamentRegistration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+class DoubleEliminationAlgorithmTest {
+
+    private DoubleEliminationAlgorithm algorithm;
+    private Tournament tournament;
+
+    @BeforeEach
+    void setUp() {
+        algorithm = new DoubleEliminationAlgorithm();
+        tournament = new Tournament(
+                "Test Tournament",
+                Tournament.TournamentType.DOUBLE_ELIMINATION,
+                createPlayer(0L, "Creator"));
+        tournament.setId(1L);
+    }
+
+    @Test
+    void shouldGenerateBothBracketsForEightPlayers() {
+        // Given
+        var registrations = createRegistrations(8);
+
+        // When
+        var matches = algorithm.generateBracket(tournament, registrations);
+
+        // Then: 4 + 2 + 1 winners, 2 + 2 + 1 + 1 losers, grand final and reset
+        assertThat(matches).hasSize(15);
+        assertThat(matches.stream()
+                        .filter(m -> m.getBracketType() == TournamentMatch.BracketType.LOSERS)
+                        .map(TournamentMatch::getRoundNumber))
+                .containsExactly(1, 1, 2, 2, 3, 4);
+
+        var grandFinal = matches.get(13);
+        var reset = matches.get(14);
+        assertThat(grandFinal.getRoundNumber()).isEqualTo(4);
+        assertThat(grandFinal.getNextMatch()).isSameAs(reset);
+        assertThat(grandFinal.getConsolationMatch()).isSameAs(reset);
+        assertThat(matches.get(6).getNextMatch()).isSameAs(grandFinal); // Winners final
+        assertThat(matches.get(12).getNextMatch()).isSameAs(grandFinal); // Losers final
+        assertThat(matches.get(6).getConsolationMatch()).isSameAs(matches.get(12));
+    }
+
+    @Test
+    void shouldSendFirstRoundLosersToTheFirstLosersRound() {
+        // Given
+        var registrations = createRegistrations(4);
+        var matches = algorithm.generateBracket(tournament, registrations);
+        var semifinal = matches.get(0);
+        semifinal.setWinner(semifinal.getTeam1());
+        semifinal.setStatus(TournamentMatch.MatchStatus.COMPLETED);
+
+        // When
+        var updatedMatches = algorithm.advanceWinner(semifinal);
+
+        // Then
+        assertThat(updatedMatches).hasSize(2);
+        assertThat(updatedMatches.get(0).getTeam1()).isEqualTo(semifinal.getTeam1());
+        var losersMatch = updatedMatches.get(1);
+        assertThat(losersMatch.getBracketType()).isEqualTo(TournamentMatch.BracketType.LOSERS);
+        assertThat(losersMatch.getTeam1()).isEqualTo(semifinal.getTeam2());
+    }
+
+    @Test
+    void shouldCancelTheResetWhenTheWinnersChampionWinsTheGrandFinal() {
+        // Given: two teams play the final, then meet again in the grand final
+        var registrations = createRegistrations(2);
+        var matches = algorithm.generateBracket(tournament, registrations);
+        tournament.setMatches(new ArrayList<>(matches));
+        var grandFinal = play(matches.get(0), registrations.get(0));
+        assertThat(grandFinal).isSameAs(matches.get(1));
+        assertThat(grandFinal.getTeam1()).isEqualTo(registrations.get(0));
+        assertThat(grandFinal.getTeam2()).isEqualTo(registrations.get(1));
+
+        // When
+        var updatedMatches = algorithm.advanceWinner(complete(grandFinal, registrations.get(0)));
+
+        // Then
+        assertThat(updatedMatches).containsExactly(matches.get(2));
+        assertThat(matches.get(2).getStatus()).isEqualTo(TournamentMatch.MatchStatus.CANCELLED);
+        assertThat(algorithm.isTournamentComplete(tournament)).isTrue();
+    }
+
+    @Test
+    void shouldPlayTheResetWhenTheLosersChampionWinsTheGrandFinal() {
+        // Given
+        var registrations = createRegistrations(2);
+        var matches = algorithm.generateBracket(tournament, registrations);
+        tournament.setMatches(new ArrayList<>(matches));
+        var grandFinal = play(matches.get(0), registrations.get(0));
+
+        // When
+        var reset = algorithm
+                .advanceWinner(complete(grandFinal, registrations.get(1)))
+                .get(0);
+
+        // Then
+        assertThat(reset.getTeam1()).isEqualTo(registrations.get(0));
+        assertThat(reset.getTeam2()).isEqualTo(registrations.get(1));
+        assertThat(reset.getStatus()).isEqualTo(TournamentMatch.MatchStatus.READY);
+        assertThat(algorithm.isTournamentComplete(tournament)).isFalse();
+
+        complete(reset, registrations.get(1));
+        assertThat(algorithm.isTournamentComplete(tournament)).isTrue();
+    }
+
+    @Test
+    void shouldGiveByesToTheTopSeeds() {
+        // Given
+        var registrations = createSeededRegistrations(6);
+
+        // When
+        var matches = algorithm.generateBracket(tournament, registrations);
+
+        // Then: seeds 1 and 2 get byes, 3 plays 6 and 4 plays 5
+        var firstRound = matches.subList(0, 4);
+        assertThat(firstRound)
+                .extracting(TournamentMatch::getStatus)
+                .containsExactly(
+                        TournamentMatch.MatchStatus.WALKOVER,
+                        TournamentMatch.MatchStatus.WALKOVER,
+                        TournamentMatch.MatchStatus.READY,
+                        TournamentMatch.MatchStatus.READY);
+        assertThat(firstRound.get(2).getTeam2().getSeed()).isEqualTo(6);
+        assertThat(firstRound.get(3).getTeam2().getSeed()).isEqualTo(5);
+        assertThat(matches.get(4).getTeam1().getSeed()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 5, 8, 13, 64, 100, 1000})
+    void shouldEliminateEveryTeamButTheChampionAfterTwoLosses(int playerCount) {
+        // Given
+        var registrations = createRegistrations(playerCount);
+        var matches = algorithm.generateBracket(tournament, registrations);
+        tournament.setMatches(new ArrayList<>(matches));
+        var random = new Random(playerCount);
+
+        // When: play every match as it becomes ready, with a random winner
+        var losses = new HashMap<TournamentRegistration, Integer>();
+        var ready = new ArrayDeque<TournamentMatch>();
+        matches.stream().filter(TournamentMatch::canStart).forEach(ready::add);
+        while (!ready.isEmpty()) {
+            var match = ready.poll();
+            var winner = random.nextBoolean() ? match.getTeam1() : match.getTeam2();
+            losses.merge(
+                    winner == match.getTeam1() ? match.getTeam2() : match.getTeam1(),
+                    1,
+                    Integer::sum);
+            algorithm.advanceWinner(complete(match, winner)).stream()
+                    .filter(TournamentMatch::canStart)
+                    .forEach(ready::add);
+        }
+
+        // Then
+        assertThat(algorithm.isTournamentComplete(tournament)).isTrue();
+        assertThat(matches)
+                .allMatch(m ->
+                        m.isCompleted() || m.getStatus() == TournamentMatch.MatchStatus.CANCELLED);
+        var eliminated = registrations.stream()
+                .filter(r -> losses.getOrDefault(r, 0) == 2)
+                .count();
+        assertThat(eliminated).isEqualTo(playerCount - 1);
+        assertThat(losses.values()).allMatch(count -> count <= 2);
+    }
+
+    @Test
+    void shouldNotAdvanceAnUnfinishedMatch() {
+        // Given
+        var matches = algorithm.generateBracket(tournament, createRegistrations(4));
+
+        // When
+        var updatedMatches = algorithm.advanceWinner(matches.get(0));
+
+        // Then
+        assertThat(updatedMatches).isEmpty();
+    }
+
+    @Test
+    void shouldThrowExceptionForInsufficientParticipants() {
+        // Given
+        var registrations = createRegistrations(1);
+
+        // When/Then
+        assertThatThrownBy(() -> algorithm.generateBracket(tournament, registrations))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Not enough participants");
+    }
+
+    @Test
+    void shouldReturnCorrectTournamentType() {
+        assertThat(algorithm.getTournamentType())
+                .isEqualTo(Tournament.TournamentType.DOUBLE_ELIMINATION);
+    }
+
+    // Helper methods
+
+    private TournamentMatch play(TournamentMatch match, TournamentRegistration winner) {
+        var updatedMatches = algorithm.advanceWinner(complete(match, winner));
+        return updatedMatches.get(0);
+    }
+
+    private TournamentMatch complete(TournamentMatch match, TournamentRegistration winner) {
+        match.setWinner(winner);
+        match.setStatus(TournamentMatch.MatchStatus.COMPLETED);
+        return match;
+    }
+
+    private List<TournamentRegistration> createRegistrations(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    var player = createPlayer((long) i + 1, "Player " + (i + 1));
+                    var registration = new TournamentRegistration(tournament, player);
+                    registration.setId((long) i + 1);
+                    return registration;
+                })
+                .toList();
+    }
+
+    private List<TournamentRegistration> createSeededRegistrations(int count) {
+        var registrations = createRegistrations(count);
+        for (var i = 0; i < count; i++) {
+            registrations.get(i).setSeed(i + 1);
+        }
+        return registrations;
+    }
+
+    private Player createPlayer(Long id, String name) {
+        var player = new Player(name, "test" + id + "@example.com");
+        player.setId(id);
+        return player;
+    }
+}
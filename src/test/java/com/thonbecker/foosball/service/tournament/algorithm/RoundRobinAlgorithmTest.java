@@ -0,0 +1,160 @@
+package com.thonbecker.foosball.service.tournament.algorithm;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.thonbecker.foosball.entity.Player;
+import com.thonbecker.foosball.entity.Tournament;
+import com.thonbecker.foosball.entity.TournamentMatch;
+import com.thonbecker.foosball.entity.TournamentRegistration;
+import com.thonbecker.foosball.repository.TournamentRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+class RoundRobinAlgorithmTest {
+
+    private TournamentRepository tournamentRepository;
+    private RoundRobinAlgorithm algorithm;
+    private Tournament tournament;
+
+    @BeforeEach
+    void setUp() {
+        tournamentRepository = mock(TournamentRepository.class);
+        algorithm = new RoundRobinAlgorithm(tournamentRepository);
+        tournament = new Tournament(
+                "Test League", Tournament.TournamentType.ROUND_ROBIN, createPlayer(0L, "Creator"));
+        tournament.setId(1L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 4, 5, 8, 17, 200})
+    void shouldScheduleEveryPairingOnceAndNobodyTwiceInARound(int teamCount) {
+        // Given
+        var registrations = createRegistrations(teamCount);
+
+        // When
+        var matches = algorithm.generateBracket(tournament, registrations);
+
+        // Then
+        assertThat(matches).hasSize(teamCount * (teamCount - 1) / 2);
+        var pairings = new HashSet<String>();
+        var playingInRound = new HashSet<String>();
+        var rounds = 0;
+        for (var match : matches) {
+            var team1 = match.getTeam1().getId();
+            var team2 = match.getTeam2().getId();
+            assertThat(team1).isNotEqualTo(team2);
+            assertThat(pairings.add(Math.min(team1, team2) + "-" + Math.max(team1, team2)))
+                    .isTrue();
+            assertThat(playingInRound.add(match.getRoundNumber() + ":" + team1)).isTrue();
+            assertThat(playingInRound.add(match.getRoundNumber() + ":" + team2)).isTrue();
+            assertThat(match.getStatus()).isEqualTo(TournamentMatch.MatchStatus.READY);
+            rounds = Math.max(rounds, match.getRoundNumber());
+        }
+        assertThat(rounds).isEqualTo(teamCount % 2 == 0 ? teamCount - 1 : teamCount);
+    }
+
+    @Test
+    void shouldNumberMatchesWithinEachRound() {
+        // Given
+        var registrations = createRegistrations(6);
+
+        // When
+        var matches = algorithm.generateBracket(tournament, registrations);
+
+        // Then: 5 rounds of 3
+        assertThat(matches)
+                .extracting(m -> m.getRoundNumber() + "." + m.getMatchNumber())
+                .startsWith("1.1", "1.2", "1.3", "2.1")
+                .endsWith("5.3");
+        assertThat(matches).allMatch(m -> m.getNextMatch() == null);
+    }
+
+    @Test
+    void shouldStartTheCountdownAtTheNumberOfMatches() {
+        // When
+        algorithm.generateBracket(tournament, createRegistrations(200));
+
+        // Then
+        assertThat(tournament.getMatchesRemaining()).isEqualTo(19_900);
+        assertThat(algorithm.isTournamentComplete(tournament)).isFalse();
+    }
+
+    @Test
+    void shouldCountDownOnEachResult() {
+        // Given
+        var matches = algorithm.generateBracket(tournament, createRegistrations(3));
+        var match = matches.get(0);
+        match.setWinner(match.getTeam1());
+        match.setStatus(TournamentMatch.MatchStatus.COMPLETED);
+        when(tournamentRepository.countDownMatchesRemaining(1L)).thenReturn(0);
+
+        // When
+        var updatedMatches = algorithm.advanceWinner(match);
+
+        // Then
+        assertThat(updatedMatches).isEmpty();
+        assertThat(tournament.getMatchesRemaining()).isZero();
+        assertThat(algorithm.isTournamentComplete(tournament)).isTrue();
+    }
+
+    @Test
+    void shouldNotCountAnUnfinishedMatch() {
+        // Given
+        var matches = algorithm.generateBracket(tournament, createRegistrations(4));
+
+        // When
+        algorithm.advanceWinner(matches.get(0));
+
+        // Then
+        verifyNoInteractions(tournamentRepository);
+        assertThat(tournament.getMatchesRemaining()).isEqualTo(6);
+    }
+
+    @Test
+    void shouldWriteMatchesInBatchesInsteadOfSavingEntities() {
+        assertThat(algorithm.hasLinkedMatches()).isFalse();
+    }
+
+    @Test
+    void shouldThrowExceptionForInsufficientParticipants() {
+        // Given
+        var registrations = createRegistrations(2);
+
+        // When/Then
+        assertThatThrownBy(() -> algorithm.generateBracket(tournament, registrations))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Not enough participants");
+    }
+
+    @Test
+    void shouldReturnCorrectTournamentType() {
+        assertThat(algorithm.getTournamentType()).isEqualTo(Tournament.TournamentType.ROUND_ROBIN);
+    }
+
+    // Helper methods
+
+    private List<TournamentRegistration> createRegistrations(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    var player = createPlayer((long) i + 1, "Player " + (i + 1));
+                    var registration = new TournamentRegistration(tournament, player);
+                    registration.setId((long) i + 1);
+                    return registration;
+                })
+                .toList();
+    }
+
+    private Player createPlayer(Long id, String name) {
+        var player = new Player(name, "test" + id + "@example.com");
+        player.setId(id);
+        return player;
+    }
+}
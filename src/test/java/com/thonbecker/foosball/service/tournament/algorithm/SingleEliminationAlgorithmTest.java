@@ -141,6 +141,36 @@ class SingleEliminationAlgorithmTest {
                 .allMatch(match -> match.getRoundNumber() > 0 && match.getMatchNumber() > 0);
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {3, 16, 17, 1000})
+    void shouldLinkEveryMatchToTheNextRoundInRoundOrder(int playerCount) {
+        // Given
+        var registrations = createRegistrations(playerCount);
+
+        // When
+        var matches = algorithm.generateBracket(tournament, registrations);
+
+        // Then: rounds in order, numbered from 1, each match feeding (m + 1) / 2 of the next
+        var finalRound = matches.get(matches.size() - 1).getRoundNumber();
+        for (var i = 0; i < matches.size(); i++) {
+            var match = matches.get(i);
+            if (i > 0) {
+                assertThat(match.getRoundNumber())
+                        .isGreaterThanOrEqualTo(matches.get(i - 1).getRoundNumber());
+            }
+            if (match.getRoundNumber() == finalRound) {
+                assertThat(match.getNextMatch()).isNull();
+            } else {
+                assertThat(match.getNextMatch().getRoundNumber())
+                        .isEqualTo(match.getRoundNumber() + 1);
+                assertThat(match.getNextMatch().getMatchNumber())
+                        .isEqualTo((match.getMatchNumber() + 1) / 2);
+            }
+        }
+        assertThat(matches.stream().filter(m -> m.getRoundNumber() == finalRound))
+                .hasSize(1);
+    }
+
     @Test
     void shouldRespectSeeding() {
         // Given
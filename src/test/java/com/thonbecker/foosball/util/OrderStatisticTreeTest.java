@@ -0,0 +1,95 @@
+package com.thonbecker.foosball.util;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeSet;
+
+class OrderStatisticTreeTest {
+
+    private OrderStatisticTree<Integer> tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new OrderStatisticTree<>(Comparator.reverseOrder());
+    }
+
+    @Test
+    void shouldKeepElementsSortedAndUnique() {
+        // When
+        tree.add(3);
+        tree.add(7);
+        tree.add(1);
+        var addedDuplicate = tree.add(7);
+
+        // Then
+        assertThat(addedDuplicate).isFalse();
+        assertThat(tree).containsExactly(7, 3, 1);
+        assertThat(tree.size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldAnswerRankAndPositionalQueries() {
+        // Given
+        for (int i = 1; i <= 10; i++) {
+            tree.add(i * 10);
+        }
+
+        // Then
+        assertThat(tree.rankOf(100)).isZero();
+        assertThat(tree.rankOf(10)).isEqualTo(9);
+        assertThat(tree.rankOf(55)).isEqualTo(-1);
+        assertThat(tree.get(0)).isEqualTo(100);
+        assertThat(tree.get(4)).isEqualTo(60);
+        assertThatThrownBy(() -> tree.get(10)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void shouldRemoveElements() {
+        // Given
+        tree.add(1);
+        tree.add(2);
+        tree.add(3);
+
+        // When
+        var removed = tree.remove(2);
+        var removedMissing = tree.remove(5);
+
+        // Then
+        assertThat(removed).isTrue();
+        assertThat(removedMissing).isFalse();
+        assertThat(tree).containsExactly(3, 1);
+        assertThat(tree.rankOf(1)).isEqualTo(1);
+        assertThat(tree.contains(2)).isFalse();
+    }
+
+    @Test
+    void shouldMatchTreeSetUnderRandomOperations() {
+        // Given
+        var random = new Random(42);
+        var reference = new TreeSet<Integer>(Comparator.reverseOrder());
+
+        // When
+        for (int i = 0; i < 5_000; i++) {
+            var value = random.nextInt(500);
+            if (random.nextBoolean()) {
+                assertThat(tree.add(value)).isEqualTo(reference.add(value));
+            } else {
+                assertThat(tree.remove(value)).isEqualTo(reference.remove(value));
+            }
+        }
+
+        // Then
+        var expected = new ArrayList<>(reference);
+        assertThat(tree).containsExactlyElementsOf(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(tree.get(i)).isEqualTo(expected.get(i));
+            assertThat(tree.rankOf(expected.get(i))).isEqualTo(i);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.thonbecker.foosball.util;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class SingleFlightTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private SingleFlight flights;
+
+    @BeforeEach
+    void setUp() {
+        flights = new SingleFlight(Duration.ofSeconds(2), now::get);
+    }
+
+    @Test
+    void shouldRunOneQueryForConcurrentIdenticalCalls() throws Exception {
+        // Given
+        final var runs = new AtomicInteger();
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var results = new ArrayList<Future<String>>();
+
+        // When
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            results.add(executor.submit(() -> flights.get(List.of("teams", 5), () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "result";
+            })));
+            started.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 20; i++) {
+                results.add(executor.submit(() -> flights.get(List.of("teams", 5), () -> {
+                    runs.incrementAndGet();
+                    return "other";
+                })));
+            }
+            Thread.sleep(100); // Let the callers pile up behind the first
+            release.countDown();
+
+            // Then
+            for (var result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+            }
+        }
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void shouldReuseAResultOnlyForTheTimeToLive() {
+        // Given
+        final var runs = new AtomicInteger();
+        flights.get("key", runs::incrementAndGet);
+
+        // When
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        final var reused = flights.get("key", runs::incrementAndGet);
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        final var expired = flights.get("key", runs::incrementAndGet);
+
+        // Then
+        assertThat(reused).isEqualTo(1);
+        assertThat(expired).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeyByArguments() {
+        // When
+        final var five = flights.get(List.of("teams", 5), () -> "five");
+        final var ten = flights.get(List.of("teams", 10), () -> "ten");
+
+        // Then
+        assertThat(five).isEqualTo("five");
+        assertThat(ten).isEqualTo("ten");
+    }
+
+    @Test
+    void shouldStartAfreshAfterInvalidate() {
+        // Given
+        flights.get("key", () -> "before");
+
+        // When
+        flights.invalidate();
+
+        // Then
+        assertThat(flights.get("key", () -> "after")).isEqualTo("after");
+    }
+
+    @Test
+    void shouldNotKeepFailures() {
+        // When
+        assertThatThrownBy(() -> flights.get("key", () -> {
+                    throw new IllegalStateException("database down");
+                }))
+                .isInstanceOf(IllegalStateException.class);
+
+        // Then
+        assertThat(flights.get("key", () -> "recovered")).isEqualTo("recovered");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}